@@ -0,0 +1,62 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.util.Random;
+
+/**
+ * Helpers building reproducible worlds and entity sets for the benchmarks.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+final class BenchmarkWorlds {
+
+    /**
+     * Prevents instantiation of the utility class.
+     */
+    private BenchmarkWorlds() {
+    }
+
+    /**
+     * Spawns bullets spread over the screen, half of them fired by the player and half by invaders. Enemy bullets
+     * avoid the column of the spaceship so that the game does not end during the benchmark.
+     *
+     * @param world   The world to fill.
+     * @param bullets The number of bullets to spawn.
+     */
+    static void spawnBullets(World world, int bullets) {
+        double shipX = world.getStore().getX(world.getSpaceShip());
+        for (int i = 0; i < bullets; i++) {
+            double x = (i * 37) % (World.WIDTH - 20);
+            if (i % 2 == 0) {
+                world.spawnBullet(EntityKind.PLAYER_BULLET, x, 300 + (i * 53) % 600);
+            } else {
+                if (x > shipX - 20 && x < shipX + 60) {
+                    x = (x + 200) % (World.WIDTH - 20);
+                }
+                world.spawnBullet(EntityKind.ENEMY_BULLET, x, 100 + (i * 53) % 500);
+            }
+        }
+    }
+
+    /**
+     * Creates entities of the given kind at random positions on the screen.
+     *
+     * @param store  The store holding the entities.
+     * @param kind   The kind of entities.
+     * @param count  The number of entities.
+     * @param width  The width of each entity.
+     * @param height The height of each entity.
+     * @param seed   The seed of the random positions.
+     * @return The handles of the entities.
+     */
+    static int[] randomEntities(EntityStore store, EntityKind kind, int count, double width, double height, long seed) {
+        Random random = new Random(seed);
+        int[] entities = new int[count];
+        for (int i = 0; i < count; i++) {
+            entities[i] = store.create(kind, random.nextDouble() * (World.WIDTH - width),
+                    random.nextDouble() * (World.HEIGHT - height), width, height, "enemylaser", 5);
+        }
+        return entities;
+    }
+}
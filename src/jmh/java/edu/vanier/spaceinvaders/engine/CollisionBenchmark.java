@@ -0,0 +1,113 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the collision detection between bullets and invaders through the slot arithmetic of a {@link Formation}
+ * against testing every bullet against every invader.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    /**
+     * The number of invaders.
+     */
+    @Param({"15", "150", "1500"})
+    private int enemies;
+
+    /**
+     * The number of bullets tested against the invaders.
+     */
+    @Param({"10", "100", "1000"})
+    private int bullets;
+
+    /**
+     * The store holding the invaders and bullets.
+     */
+    private final EntityStore store = new EntityStore(2048);
+
+    /**
+     * The handles of the invaders and bullets at random positions.
+     */
+    private int[] enemyEntities;
+    private int[] bulletEntities;
+
+    /**
+     * The formation holding as many invaders, laid out on a square grid of slots.
+     */
+    private final Formation formation = new Formation();
+
+    /**
+     * Places the invaders and bullets.
+     */
+    @Setup
+    public void setUp() {
+        enemyEntities = BenchmarkWorlds.randomEntities(store, EntityKind.ENEMY, enemies, 30, 30, 1);
+        bulletEntities = BenchmarkWorlds.randomEntities(store, EntityKind.PLAYER_BULLET, bullets, 5, 20, 2);
+
+        int columns = (int) Math.ceil(Math.sqrt(enemies));
+        int rows = (enemies + columns - 1) / columns;
+        double spacingX = (World.WIDTH - 100) / (double) columns;
+        double spacingY = (World.HEIGHT - 100) / (double) rows;
+        formation.reset(columns, rows, 50, 50, spacingX, spacingY, 30, 30);
+        for (int i = 0; i < enemies; i++) {
+            formation.place(i % columns, i / columns, enemyEntities[i]);
+        }
+    }
+
+    /**
+     * Finds the invader hit by each bullet from the slots of the formation, which needs no rebuilding.
+     *
+     * @return The number of bullets hitting an invader.
+     */
+    @Benchmark
+    public int formation() {
+        int hits = 0;
+        for (int bullet : bulletEntities) {
+            if (formation.findFirst(store.getX(bullet), store.getY(bullet), store.getWidth(bullet),
+                    store.getHeight(bullet)) >= 0) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Tests every bullet against every invader.
+     *
+     * @return The number of bullets hitting an invader.
+     */
+    @Benchmark
+    public int bruteForce() {
+        int hits = 0;
+        for (int bullet : bulletEntities) {
+            for (int enemy : enemyEntities) {
+                if (store.intersects(bullet, enemy)) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+}
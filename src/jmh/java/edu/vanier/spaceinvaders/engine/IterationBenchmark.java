@@ -0,0 +1,142 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures iterating over the invaders of a mixed set of entities, through a per-kind {@link EntityArray} bucket of
+ * handles into an {@link EntityStore} as the world does, compared with walking an array of one object per entity and
+ * with filtering a list of every entity with a stream.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterationBenchmark {
+
+    /**
+     * The total number of entities, a fifth of which are invaders.
+     */
+    @Param({"100", "1000", "10000"})
+    private int entities;
+
+    /**
+     * The store holding every entity, and the handles of the invaders in their own bucket.
+     */
+    private final EntityStore store = new EntityStore(64);
+    private final EntityArray enemies = new EntityArray(64);
+
+    /**
+     * Every entity as an object, and the invaders in their own array.
+     */
+    private final List<Body> all = new ArrayList<>();
+    private final List<Body> enemyBodies = new ArrayList<>();
+
+    /**
+     * Creates the entities.
+     */
+    @Setup
+    public void setUp() {
+        EntityKind[] kinds = {EntityKind.ENEMY, EntityKind.PLAYER_BULLET, EntityKind.ENEMY_BULLET,
+            EntityKind.EXPLOSION, EntityKind.PLAYER_BULLET};
+        for (int i = 0; i < entities; i++) {
+            EntityKind kind = kinds[i % kinds.length];
+            Body body = new Body(i % World.WIDTH, i % World.HEIGHT, kind);
+            all.add(body);
+            if (kind == EntityKind.ENEMY) {
+                enemies.add(store.create(kind, body.x, body.y, 30, 30, "intruder1", 1));
+                enemyBodies.add(body);
+            }
+        }
+    }
+
+    /**
+     * Sums the x-coordinates of the invaders by iterating their bucket and reading the position column of the store.
+     *
+     * @return The sum of the x-coordinates.
+     */
+    @Benchmark
+    public double bucket() {
+        double sum = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            sum += store.getX(enemies.get(i));
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the x-coordinates of the invaders by iterating a list of their objects.
+     *
+     * @return The sum of the x-coordinates.
+     */
+    @Benchmark
+    public double objects() {
+        double sum = 0;
+        for (int i = 0; i < enemyBodies.size(); i++) {
+            sum += enemyBodies.get(i).x;
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the x-coordinates of the invaders by filtering every entity with a stream into a new list.
+     *
+     * @return The sum of the x-coordinates.
+     */
+    @Benchmark
+    public double streamFilter() {
+        double sum = 0;
+        for (Body enemy : all.stream().filter(e -> e.kind == EntityKind.ENEMY).toList()) {
+            sum += enemy.x;
+        }
+        return sum;
+    }
+
+    /**
+     * An entity stored as one object, as entities were stored before the {@link EntityStore}.
+     */
+    private static class Body {
+
+        /**
+         * The position of the entity.
+         */
+        private final double x;
+        private final double y;
+
+        /**
+         * The kind of the entity.
+         */
+        private final EntityKind kind;
+
+        /**
+         * Constructs an entity.
+         *
+         * @param x    The x-coordinate of the entity.
+         * @param y    The y-coordinate of the entity.
+         * @param kind The kind of the entity.
+         */
+        private Body(double x, double y, EntityKind kind) {
+            this.x = x;
+            this.y = y;
+            this.kind = kind;
+        }
+    }
+}
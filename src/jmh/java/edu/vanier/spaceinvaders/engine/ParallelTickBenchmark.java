@@ -0,0 +1,107 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how a tick of a horde-sized wave scales with the number of threads of the {@link TickExecutor}. Each
+ * invocation restarts the wave, fills the screen with bullets and runs one second of ticks with enemy fire.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelTickBenchmark {
+
+    /**
+     * The number of ticks run per invocation, one second of game time.
+     */
+    private static final int TICKS = 60;
+
+    /**
+     * The number of threads running the entity loops.
+     */
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    /**
+     * The number of invaders in the wave, spread over 200 columns.
+     */
+    @Param({"4000", "20000"})
+    private int invaders;
+
+    /**
+     * The world being ticked.
+     */
+    private World world;
+
+    /**
+     * The executor splitting the loops of the world.
+     */
+    private TickExecutor executor;
+
+    /**
+     * Creates the world and its executor once per trial.
+     */
+    @Setup(Level.Trial)
+    public void createWorld() {
+        GameConfig config = GameConfig.stress();
+        config.setRows(invaders / config.getColumns());
+        config.setFirePeriod(World.FRAME * 10);
+        executor = new TickExecutor(threads, TickExecutor.DEFAULT_CHUNK_SIZE);
+        world = new World(World.DEFAULT_CAPACITY, 42);
+        world.setConfig(config);
+        world.setExecutor(executor);
+    }
+
+    /**
+     * Restarts the wave and spawns the bullets before each invocation.
+     */
+    @Setup(Level.Invocation)
+    public void startLevel() {
+        world.restart();
+        world.setShooting(true);
+        BenchmarkWorlds.spawnBullets(world, 1000);
+    }
+
+    /**
+     * Ticks the world for one second of game time.
+     *
+     * @param blackhole Consumes the score so the ticks are not optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void tick(Blackhole blackhole) {
+        for (int i = 0; i < TICKS; i++) {
+            world.tick(World.FRAME);
+        }
+        blackhole.consume(world.getScore());
+    }
+
+    /**
+     * Stops the threads of the executor.
+     */
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
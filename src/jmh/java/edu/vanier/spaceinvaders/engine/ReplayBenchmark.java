@@ -0,0 +1,91 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of replaying 10,000 recorded ticks. The recording is made once per trial by a scripted
+ * player that sweeps left and right while shooting, from a fixed seed, so every run replays the same game. Games
+ * recorded this way end sooner than 10,000 ticks, so the recording is replayed from the start as many times as needed.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    /**
+     * The number of ticks replayed per invocation.
+     */
+    private static final int TICKS = 10_000;
+
+    /**
+     * The number of rows of invaders in the recorded game.
+     */
+    @Param({"3", "6"})
+    private int rows;
+
+    /**
+     * The recorded game.
+     */
+    private InputRecorder recording;
+
+    /**
+     * The world replaying the recording.
+     */
+    private World world;
+
+    /**
+     * Records the scripted game once per trial.
+     */
+    @Setup(Level.Trial)
+    public void record() {
+        World recorded = new World(World.DEFAULT_CAPACITY, 42);
+        recording = new InputRecorder();
+        recorded.setRecorder(recording);
+        recorded.setFormation(5, rows);
+        recorded.restart();
+        for (int tick = 0; tick < TICKS && !recorded.isGameOver(); tick++) {
+            int input = Input.SHOOT | ((tick / 90) % 2 == 0 ? Input.LEFT : Input.RIGHT);
+            if (tick % 600 == 599) {
+                input |= Input.TOGGLE_ROCKETS;
+            }
+            recorded.setInput(input);
+            recorded.tick(World.FRAME);
+        }
+        world = Replay.newWorld(recording);
+    }
+
+    /**
+     * Replays 10,000 ticks of the recording.
+     *
+     * @param blackhole Consumes the score so the ticks are not optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void replay(Blackhole blackhole) {
+        int ticks = 0;
+        while (ticks < TICKS) {
+            ticks += Replay.run(world, recording, TICKS - ticks);
+        }
+        blackhole.consume(world.getScore());
+    }
+}
@@ -0,0 +1,115 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures spawning and despawning a wave of bullets with the free-list slots of the {@link EntityStore} and the
+ * swap-remove arrays used by the world, compared with allocating one object per bullet and removing them from a list.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnBenchmark {
+
+    /**
+     * The number of bullets spawned and despawned per invocation.
+     */
+    @Param({"100", "1000", "10000"})
+    private int bullets;
+
+    /**
+     * The store and array reused by the store benchmark.
+     */
+    private final EntityStore store = new EntityStore(64);
+    private final EntityArray array = new EntityArray(64);
+
+    /**
+     * Spawns bullets into the store, then removes every bullet and frees its slot.
+     *
+     * @return The number of bullets left, always zero.
+     */
+    @Benchmark
+    public int store() {
+        for (int i = 0; i < bullets; i++) {
+            array.add(store.create(EntityKind.PLAYER_BULLET, i, i, 5, 20, "laser1", 5));
+        }
+        for (int i = 0; i < array.size(); i++) {
+            store.kill(array.get(i));
+        }
+        int i = 0;
+        while (i < array.size()) {
+            if (store.isDead(array.get(i))) {
+                store.free(array.get(i));
+                array.swapRemove(i);
+            } else {
+                i++;
+            }
+        }
+        return array.size();
+    }
+
+    /**
+     * Allocates new bullets into a list, then removes every bullet with {@link List#removeIf}.
+     *
+     * @return The number of bullets left, always zero.
+     */
+    @Benchmark
+    public int allocating() {
+        List<Bullet> list = new ArrayList<>();
+        for (int i = 0; i < bullets; i++) {
+            list.add(new Bullet(i, i));
+        }
+        for (Bullet bullet : list) {
+            bullet.dead = true;
+        }
+        list.removeIf(bullet -> bullet.dead);
+        return list.size();
+    }
+
+    /**
+     * A bullet stored as one object, as entities were stored before the {@link EntityStore}.
+     */
+    private static class Bullet {
+
+        /**
+         * The position of the bullet.
+         */
+        private final double x;
+        private final double y;
+
+        /**
+         * Flag indicating whether the bullet is dead.
+         */
+        private boolean dead = false;
+
+        /**
+         * Constructs a bullet.
+         *
+         * @param x The x-coordinate of the bullet.
+         * @param y The y-coordinate of the bullet.
+         */
+        private Bullet(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of a full {@link World#tick(double)} for different levels, formation sizes and numbers of bullets
+ * in flight. Each invocation restarts the level, fills the screen with bullets and runs one second of ticks, so the
+ * game never reaches a state where ticks become trivial.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+
+    /**
+     * The number of ticks run per invocation, one second of game time.
+     */
+    private static final int TICKS = 60;
+
+    /**
+     * The level played, which sets the invader speed and the number of bullets per shot.
+     */
+    @Param({"1", "2", "3"})
+    private int level;
+
+    /**
+     * The number of rows of invaders.
+     */
+    @Param({"3", "6", "12"})
+    private int rows;
+
+    /**
+     * The number of bullets in flight when the level starts.
+     */
+    @Param({"0", "100", "1000"})
+    private int bullets;
+
+    /**
+     * The world being ticked.
+     */
+    private World world;
+
+    /**
+     * Creates the world once per trial.
+     */
+    @Setup(Level.Trial)
+    public void createWorld() {
+        world = new World();
+    }
+
+    /**
+     * Restarts the level and spawns the bullets before each invocation.
+     */
+    @Setup(Level.Invocation)
+    public void startLevel() {
+        world.setFormation(5, rows);
+        world.start(level);
+        world.setShooting(true);
+        BenchmarkWorlds.spawnBullets(world, bullets);
+    }
+
+    /**
+     * Ticks the world for one second of game time.
+     *
+     * @param blackhole Consumes the score so the ticks are not optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void tick(Blackhole blackhole) {
+        for (int i = 0; i < TICKS; i++) {
+            world.tick(World.FRAME);
+        }
+        blackhole.consume(world.getScore());
+    }
+}
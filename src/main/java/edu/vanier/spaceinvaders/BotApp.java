@@ -0,0 +1,165 @@
+package edu.vanier.spaceinvaders;
+
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.HeuristicController;
+import edu.vanier.spaceinvaders.engine.PlayerController;
+import edu.vanier.spaceinvaders.engine.ScriptedController;
+import edu.vanier.spaceinvaders.engine.World;
+import edu.vanier.spaceinvaders.utils.Histogram;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * The BotApp class plays games back to back with a bot, headlessly and as fast as possible, as a repeatable soak
+ * test. Every game is played in the same world, restarted between games, so entities or memory leaking from one game
+ * to the next show up as a growing heap or entity count, and slowdowns as growing tick times. Every second, the games
+ * played, the ticks per second, the tick time percentiles, the used heap and the entities allocated are printed; the
+ * win rate and the percentiles of the whole run are printed at the end.
+ *
+ * <p>The games are configured with the arguments read by {@link GameConfig#fromArguments(java.util.List)}.
+ * {@code --bot} sets the bot as read by {@link #parseBot(String)}, {@code --games} the number of games,
+ * {@code --seed} the seed of the random source, {@code --max-game-ticks} the ticks after which a game is abandoned,
+ * and {@code --duration} the longest run in seconds.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class BotApp {
+
+    /**
+     * The length of a reporting window in nanoseconds.
+     */
+    private static final long WINDOW = 1_000_000_000L;
+
+    /**
+     * Plays the games and prints their metrics.
+     *
+     * @param args The configuration of the games, the bot and the length of the run, as {@code --key=value}
+     *             arguments.
+     */
+    public static void main(String[] args) {
+        GameConfig config;
+        Supplier<PlayerController> bot;
+        int games;
+        long seed;
+        long maxGameTicks;
+        double duration;
+        try {
+            config = GameConfig.fromArguments(List.of(args));
+            bot = parseBot(option(args, "bot", "heuristic"));
+            games = Integer.parseInt(option(args, "games", "100"));
+            seed = Long.parseLong(option(args, "seed", "1"));
+            maxGameTicks = Long.parseLong(option(args, "max-game-ticks", "200000"));
+            duration = Double.parseDouble(option(args, "duration", "0"));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Invalid configuration: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        World world = new World(World.DEFAULT_CAPACITY, seed);
+        world.setConfig(config);
+        PlayerController player = bot.get();
+        System.err.println("Playing " + games + " games with the " + option(args, "bot", "heuristic") + " bot: "
+                + config);
+        System.out.println("time_s,games,ticks_per_sec,tick_p50_us,tick_p99_us,tick_max_us,heap_mb,entities_created");
+
+        // Tick times in buckets of one microsecond up to 100 milliseconds, for the window and the whole run
+        Histogram window = new Histogram(1_000, 100_000);
+        Histogram total = new Histogram(1_000, 100_000);
+        long start = System.nanoTime();
+        long end = duration > 0 ? start + (long) (duration * 1e9) : Long.MAX_VALUE;
+        long windowStart = start;
+        long ticks = 0;
+        long windowTicks = 0;
+        int played = 0;
+        int wins = 0;
+        int abandoned = 0;
+        long levels = 0;
+        long score = 0;
+        long now = start;
+        while (played < games && now < end) {
+            world.restart();
+            player.reset();
+            now = System.nanoTime();
+            long gameTicks = 0;
+            while (!world.isGameOver() && gameTicks < maxGameTicks && now < end) {
+                world.setInput(player.decide(world, 0));
+                world.tick(World.FRAME);
+                gameTicks++;
+
+                long after = System.nanoTime();
+                window.record(after - now);
+                total.record(after - now);
+                now = after;
+                if (now - windowStart >= WINDOW) {
+                    ticks += gameTicks;
+                    gameTicks = 0;
+                    Runtime runtime = Runtime.getRuntime();
+                    System.out.printf(Locale.ROOT, "%.1f,%d,%.0f,%.1f,%.1f,%.1f,%.1f,%d%n", (now - start) / 1e9,
+                            played, (ticks - windowTicks) / ((now - windowStart) / 1e9), window.percentile(0.5) / 1e3,
+                            window.percentile(0.99) / 1e3, window.getMax() / 1e3,
+                            (runtime.totalMemory() - runtime.freeMemory()) / 1e6, world.getAllocations());
+                    window.reset();
+                    windowStart = now;
+                    windowTicks = ticks;
+                }
+            }
+            ticks += gameTicks;
+            if (!world.isGameOver()) {
+                if (now >= end) {
+                    break;
+                }
+                abandoned++;
+            }
+            played++;
+            wins += world.isWon() ? 1 : 0;
+            levels += world.getLevel();
+            score += world.getScore();
+        }
+
+        double seconds = (now - start) / 1e9;
+        System.err.printf(Locale.ROOT, "%d games: %d won (%.1f%%), %d abandoned, level %.2f and score %.1f on average%n",
+                played, wins, played == 0 ? 0.0 : 100.0 * wins / played, abandoned,
+                played == 0 ? 0.0 : (double) levels / played, played == 0 ? 0.0 : (double) score / played);
+        System.err.printf(Locale.ROOT, "%d ticks in %.1f s: %.0f ticks/s, tick p50 %.1f us, p99 %.1f us, "
+                + "p99.9 %.1f us, max %.1f us%n", ticks, seconds, ticks / seconds, total.percentile(0.5) / 1e3,
+                total.percentile(0.99) / 1e3, total.percentile(0.999) / 1e3, total.getMax() / 1e3);
+    }
+
+    /**
+     * Reads the name of a bot: {@code scripted} sweeps across the screen while shooting, and {@code heuristic} dodges
+     * enemy bullets and shoots the closest column of invaders.
+     *
+     * @param name The name of the bot.
+     * @return A supplier of new bots, one per player.
+     * @throws IllegalArgumentException If no bot has this name.
+     */
+    public static Supplier<PlayerController> parseBot(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "scripted" -> ScriptedController::new;
+            case "heuristic" -> HeuristicController::new;
+            default -> throw new IllegalArgumentException("Unknown bot " + name);
+        };
+    }
+
+    /**
+     * Reads an option given as {@code --name=value}.
+     *
+     * @param args         The command-line arguments.
+     * @param name         The name of the option.
+     * @param defaultValue The value used when the option is missing.
+     * @return The value of the option.
+     */
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,61 @@
+package edu.vanier.spaceinvaders;
+
+import edu.vanier.spaceinvaders.engine.InputRecorder;
+import edu.vanier.spaceinvaders.engine.Replay;
+import edu.vanier.spaceinvaders.engine.World;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The ReplayApp class replays a recorded game headlessly at maximum speed, without the JavaFX toolkit. It checks that
+ * the replay reproduces the recorded outcome and reports the simulation throughput, which makes a recording usable
+ * both to reproduce a gameplay bug and as a repeatable performance workload.
+ *
+ * <p>Usage: {@code ReplayApp <recording> [repeats]}, where the recording is a file saved by the game such as
+ * {@code log/last-game.replay}.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class ReplayApp {
+
+    /**
+     * Replays a recording the requested number of times and prints the outcome and throughput of each run.
+     *
+     * @param args The path of the recording, optionally followed by the number of repeats.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayApp <recording> [repeats]");
+            System.exit(2);
+        }
+        InputRecorder recording;
+        try {
+            recording = InputRecorder.load(Path.of(args[0]));
+        } catch (IOException ex) {
+            System.err.println("Cannot read " + args[0] + ": " + ex.getMessage());
+            System.exit(1);
+            return;
+        }
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        System.out.printf(Locale.ROOT, "%s: %d ticks from level %d, seed %016x, %s%n", args[0],
+                recording.getTicks(), recording.getLevel(), recording.getSeed(), recording.getConfig());
+        World world = Replay.newWorld(recording);
+        boolean allMatched = true;
+        for (int run = 1; run <= repeats; run++) {
+            long start = System.nanoTime();
+            int ticks = Replay.run(world, recording);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            boolean matched = Replay.matches(world, recording);
+            allMatched &= matched;
+            System.out.printf(Locale.ROOT, "run %d: score %d, level %d, lives %d, %s, %.1f ms, %.0f ticks/s%n", run,
+                    world.getScore(), world.getLevel(), world.getLives(), matched ? "matches" : "DIVERGED",
+                    seconds * 1e3, ticks / seconds);
+        }
+        if (!allMatched) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package edu.vanier.spaceinvaders;
+
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.Input;
+import edu.vanier.spaceinvaders.net.GameClient;
+import edu.vanier.spaceinvaders.net.GameServer;
+import edu.vanier.spaceinvaders.net.Protocol;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The ServerApp class runs a headless {@link GameServer} that players join with
+ * {@code --connect=host[:port][/session]}. Every second, the number of sessions and clients, the aggregate ticks per
+ * second and the traffic and latency of every client are printed.
+ *
+ * <p>The games are configured with the arguments read by {@link GameConfig#fromArguments(java.util.List)}.
+ * {@code --port} sets the port to listen on and {@code --duration} the length of the run in seconds, forever by
+ * default. {@code --clients} connects that many scripted players over the loopback interface, spread over
+ * {@code --sessions} sessions, to load the server without opening any window.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class ServerApp {
+
+    /**
+     * The length of a reporting window in nanoseconds.
+     */
+    private static final long WINDOW = 1_000_000_000L;
+
+    /**
+     * The time the scripted players keep moving in one direction, in nanoseconds.
+     */
+    private static final long SWEEP = 1_500_000_000L;
+
+    /**
+     * Runs the server until the duration elapses and prints its metrics.
+     *
+     * @param args The configuration of the games, the port, the duration and the scripted players, as
+     *             {@code --key=value} arguments.
+     */
+    public static void main(String[] args) {
+        GameConfig config;
+        int port;
+        double duration;
+        int clientCount;
+        int sessionCount;
+        try {
+            config = GameConfig.fromArguments(List.of(args));
+            port = Integer.parseInt(option(args, "port", String.valueOf(Protocol.DEFAULT_PORT)));
+            duration = Double.parseDouble(option(args, "duration", "0"));
+            clientCount = Integer.parseInt(option(args, "clients", "0"));
+            sessionCount = Math.max(1, Integer.parseInt(option(args, "sessions", "1")));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Invalid configuration: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        GameServer server;
+        try {
+            server = new GameServer(new InetSocketAddress(port), config);
+        } catch (IOException ex) {
+            System.err.println("Could not listen on port " + port + ": " + ex.getMessage());
+            System.exit(1);
+            return;
+        }
+        server.start();
+        System.err.println("Serving on port " + server.getPort() + ": " + config);
+
+        // Scripted players sweep across the screen while shooting, and start a new game when theirs is over
+        List<GameClient> bots = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            GameClient bot = new GameClient(new InetSocketAddress("localhost", server.getPort()), i % sessionCount);
+            bot.start();
+            bot.getInput().press(Input.SHOOT | (i % 2 == 0 ? Input.LEFT : Input.RIGHT));
+            bots.add(bot);
+        }
+
+        long start = System.nanoTime();
+        long end = duration > 0 ? start + (long) (duration * 1e9) : Long.MAX_VALUE;
+        long windowStart = start;
+        long windowTicks = server.getTicks();
+        long sweeps = 0;
+        long now = start;
+        while (now < end) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            now = System.nanoTime();
+            if ((now - start) / SWEEP > sweeps) {
+                sweeps = (now - start) / SWEEP;
+                for (GameClient bot : bots) {
+                    bot.getInput().toggle(Input.LEFT | Input.RIGHT);
+                }
+            }
+            for (GameClient bot : bots) {
+                if (bot.latest().isGameOver()) {
+                    bot.restart();
+                }
+            }
+
+            if (now - windowStart >= WINDOW) {
+                double seconds = (now - windowStart) / 1e9;
+                long ticks = server.getTicks();
+                System.out.printf(Locale.ROOT, "%d sessions, %d clients, %.1f ticks/s%n", server.getSessionCount(),
+                        server.getClientCount(), (ticks - windowTicks) / seconds);
+                for (String line : server.formatStats(seconds)) {
+                    System.out.println("  " + line);
+                }
+                windowStart = now;
+                windowTicks = ticks;
+            }
+        }
+
+        for (GameClient bot : bots) {
+            bot.stop();
+        }
+        server.stop();
+    }
+
+    /**
+     * Reads an option given as {@code --name=value}.
+     *
+     * @param args         The command-line arguments.
+     * @param name         The name of the option.
+     * @param defaultValue The value used when the option is missing.
+     * @return The value of the option.
+     */
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
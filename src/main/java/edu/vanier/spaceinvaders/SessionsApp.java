@@ -0,0 +1,137 @@
+package edu.vanier.spaceinvaders;
+
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.HeadlessSession;
+import edu.vanier.spaceinvaders.engine.PlayerController;
+import edu.vanier.spaceinvaders.engine.SessionManager;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * The SessionsApp class plays many headless games side by side in one JVM, to check how many sessions the engine
+ * sustains on one machine. Every session is played by a bot of its own. Every second, the number of active sessions,
+ * the aggregate ticks per second and the slowest and fastest session are printed; a summary of the games played is
+ * printed at the end.
+ *
+ * <p>The games are configured with the arguments read by {@link GameConfig#fromArguments(java.util.List)}.
+ * {@code --sessions} sets the number of sessions, {@code --bot} the bot playing them as read by
+ * {@link BotApp#parseBot(String)}, {@code --threads} the number of worker threads and {@code --slice} the ticks a
+ * worker runs for a session before moving on. {@code --rate} sets the tick budget of each
+ * session in ticks per second, 60 to play in real time and 0 as fast as possible, {@code --max-ticks} the ticks
+ * after which a session finishes, and {@code --duration} the length of the run in seconds.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class SessionsApp {
+
+    /**
+     * The length of a reporting window in nanoseconds.
+     */
+    private static final long WINDOW = 1_000_000_000L;
+
+    /**
+     * Runs the sessions and prints their metrics.
+     *
+     * @param args The configuration of the games, the sessions and the duration, as {@code --key=value} arguments.
+     */
+    public static void main(String[] args) {
+        GameConfig config;
+        int sessionCount;
+        Supplier<PlayerController> bot;
+        int threads;
+        int slice;
+        double rate;
+        long maxTicks;
+        double duration;
+        try {
+            config = GameConfig.fromArguments(List.of(args));
+            sessionCount = Integer.parseInt(option(args, "sessions", "1000"));
+            bot = BotApp.parseBot(option(args, "bot", "scripted"));
+            threads = Integer.parseInt(option(args, "threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            slice = Integer.parseInt(option(args, "slice", String.valueOf(SessionManager.DEFAULT_SLICE)));
+            rate = Double.parseDouble(option(args, "rate", "60"));
+            maxTicks = Long.parseLong(option(args, "max-ticks", "0"));
+            duration = Double.parseDouble(option(args, "duration", "30"));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Invalid configuration: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        SessionManager manager = new SessionManager(threads, slice);
+        long setupStart = System.nanoTime();
+        for (int i = 0; i < sessionCount; i++) {
+            manager.add(new HeadlessSession(i, config, bot.get(), rate, maxTicks));
+        }
+        System.err.printf(Locale.ROOT, "Created %d sessions in %.1f ms, %s ticks/s each on %d threads: %s%n",
+                sessionCount, (System.nanoTime() - setupStart) / 1e6, rate > 0 ? rate : "unlimited", threads, config);
+
+        List<HeadlessSession> sessions = manager.getSessions();
+        long[] windowTicks = new long[sessions.size()];
+        long start = System.nanoTime();
+        long end = start + (long) (duration * 1e9);
+        long windowStart = start;
+        long windowTotal = 0;
+        long now = start;
+        manager.start();
+        while (now < end && manager.countActive() > 0) {
+            try {
+                Thread.sleep(Math.max(1, Math.min(WINDOW, end - now) / 1_000_000));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            now = System.nanoTime();
+
+            // The slowest session shows whether every session got its budget despite the others
+            double seconds = (now - windowStart) / 1e9;
+            long total = manager.getTicks();
+            long slowest = Long.MAX_VALUE;
+            long fastest = 0;
+            for (int i = 0; i < windowTicks.length; i++) {
+                long ticks = sessions.get(i).getTicks();
+                slowest = Math.min(slowest, ticks - windowTicks[i]);
+                fastest = Math.max(fastest, ticks - windowTicks[i]);
+                windowTicks[i] = ticks;
+            }
+            System.out.printf(Locale.ROOT, "%d active, %.0f ticks/s, session %.1f-%.1f ticks/s%n",
+                    manager.countActive(), (total - windowTotal) / seconds, slowest / seconds, fastest / seconds);
+            windowStart = now;
+            windowTotal = total;
+        }
+        manager.stop();
+
+        int games = 0;
+        long score = 0;
+        for (HeadlessSession session : sessions) {
+            games += session.getGames();
+            score += session.getTotalScore();
+        }
+        double seconds = (now - start) / 1e9;
+        System.err.printf(Locale.ROOT, "%d ticks in %.1f s: %.0f ticks/s over %d sessions, %d games, %.1f average score%n",
+                manager.getTicks(), seconds, manager.getTicks() / seconds, sessions.size(), games,
+                games == 0 ? 0.0 : (double) score / games);
+    }
+
+    /**
+     * Reads an option given as {@code --name=value}.
+     *
+     * @param args         The command-line arguments.
+     * @param name         The name of the option.
+     * @param defaultValue The value used when the option is missing.
+     * @return The value of the option.
+     */
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
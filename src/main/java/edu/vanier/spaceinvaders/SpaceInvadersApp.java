@@ -1,18 +1,31 @@
 package edu.vanier.spaceinvaders;
 
 import edu.vanier.spaceinvaders.controllers.FXMLMainAppController;
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.net.Protocol;
+import edu.vanier.spaceinvaders.rendering.RendererType;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
 
 /**
  * The SpaceInvadersApp class is the main entry point for the Space Invaders application. It extends the JavaFX
  * Application class and sets up the graphical user interface (GUI) by loading the FXML layout file and associating
  * it with the FXMLMainAppController. The primary responsibilities include initializing the game components and starting
- * the main stage.
+ * the main stage. A splash stage shows the progress of loading the first level's assets in the background, and the
+ * main stage replaces it once they are loaded.
  *
  * @author Ethan Tran
  * @author Zachary Tremblay
@@ -21,26 +34,62 @@ public class SpaceInvadersApp extends Application {
     
     /** The controller for the main application. */
     FXMLMainAppController controller;
-    
+
     /**
-     * The main entry point for the application. It loads the scene graph from the specified FXML file and associates
-     * it with the FXMLMainAppController. The primary stage is then created and displayed, and the game components
-     * are initialized.
+     * The main entry point for the application. It shows a splash stage and starts loading the assets of the first
+     * level in the background; once they are loaded, the main stage is shown.
      *
      * @param primaryStage The primary stage for the application.
      */
     @Override
     public void start(Stage primaryStage) {
+        long launchTime = System.nanoTime();
+        controller = new FXMLMainAppController();
+        controller.setLaunchTime(launchTime);
+
+        // Show the loading progress until the first level can be played
+        ProgressBar progress = new ProgressBar(0);
+        progress.setPrefWidth(300);
+        Label title = new Label("Space Invaders!");
+        title.setStyle("-fx-font-family: Impact; -fx-font-size: 30; -fx-text-fill: white;");
+        VBox splashRoot = new VBox(15, title, progress);
+        splashRoot.setAlignment(Pos.CENTER);
+        splashRoot.setPadding(new Insets(30));
+        splashRoot.setStyle("-fx-background-color: black;");
+        Stage splash = new Stage(StageStyle.UNDECORATED);
+        splash.setScene(new Scene(splashRoot));
+        splash.show();
+
+        controller.loadAssets(fraction -> Platform.runLater(() -> progress.setProgress(fraction)))
+                .whenComplete((result, ex) -> Platform.runLater(() -> {
+                    showGame(primaryStage);
+                    splash.close();
+                }));
+    }
+
+    /**
+     * Loads the scene graph from the specified FXML file and associates it with the FXMLMainAppController. The
+     * primary stage is then configured and displayed, and the game components are initialized.
+     *
+     * @param primaryStage The primary stage for the application.
+     */
+    private void showGame(Stage primaryStage) {
         try {
             // Load scene graph from the specified FXML file and associate it with controller
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainApp_layout.fxml"));
-            controller = new FXMLMainAppController();
             loader.setController(controller);
             Pane root = loader.load();
 
             // Create and set the scene to the stage.
             Scene scene = new Scene(root);
             controller.setScene(scene);
+            controller.setRendererType(parseRendererType());
+            controller.setConfig(parseConfig());
+            controller.setThreads(parseThreads());
+            controller.setRewindSeconds(parseRewindSeconds());
+            parseConnect();
+            // --resume restores the latest save instead of starting a new game
+            controller.setResume(getParameters().getUnnamed().contains("--resume"));
             controller.initGameComponents();
 
             // Configure primary stage
@@ -50,21 +99,125 @@ public class SpaceInvadersApp extends Application {
             primaryStage.sizeToScene();
             primaryStage.setAlwaysOnTop(true);
             primaryStage.show();
-        } catch (IOException ex) {
+        } catch (IOException | UncheckedIOException ex) {
             System.err.println(ex.getMessage());
         }
     }
     
+    /**
+     * Reads the rendering backend from the {@code --renderer} launch argument, such as {@code --renderer=canvas}.
+     * Sprite nodes are used when the argument is missing or invalid.
+     *
+     * @return The selected rendering backend.
+     */
+    private RendererType parseRendererType() {
+        String name = getParameters().getNamed().get("renderer");
+        if (name == null) {
+            return RendererType.NODES;
+        }
+        try {
+            return RendererType.parse(name);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unknown renderer " + name + ", using nodes");
+            return RendererType.NODES;
+        }
+    }
+
+    /**
+     * Reads the rules of the game from the launch arguments, such as {@code --stress} or
+     * {@code --columns=100 --rows=40 --levels=0}, and from the properties file named by {@code --config}. The original
+     * rules are used when the arguments are invalid.
+     *
+     * @return The rules of the game.
+     */
+    private GameConfig parseConfig() {
+        try {
+            return GameConfig.fromArguments(getParameters().getRaw());
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Invalid game configuration, using the defaults: " + ex.getMessage());
+            return new GameConfig();
+        }
+    }
+
+    /**
+     * Reads the number of simulation threads from the {@code --threads} launch argument. Every available processor
+     * is used when the argument is missing or invalid.
+     *
+     * @return The number of threads.
+     */
+    private int parseThreads() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        String threads = getParameters().getNamed().get("threads");
+        if (threads == null) {
+            return processors;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(threads));
+        } catch (NumberFormatException ex) {
+            System.err.println("Invalid thread count " + threads + ", using " + processors);
+            return processors;
+        }
+    }
+
+    /**
+     * Reads how many seconds of the game are kept for rewinding from the {@code --rewind} launch argument, such as
+     * {@code --rewind=30}, or {@code --rewind=0} to keep none. Ten seconds are kept when the argument is missing or
+     * invalid.
+     *
+     * @return The length of the game kept in seconds.
+     */
+    private double parseRewindSeconds() {
+        String seconds = getParameters().getNamed().get("rewind");
+        if (seconds == null) {
+            return 10;
+        }
+        try {
+            return Math.max(0, Double.parseDouble(seconds));
+        } catch (NumberFormatException ex) {
+            System.err.println("Invalid rewind length " + seconds + ", keeping 10 seconds");
+            return 10;
+        }
+    }
+
+    /**
+     * Reads the server to play on from the {@code --connect} launch argument, such as {@code --connect=localhost},
+     * {@code --connect=example.org:7777} or {@code --connect=localhost/2} to join session 2. The game is simulated
+     * locally when the argument is missing or invalid.
+     */
+    private void parseConnect() {
+        String connect = getParameters().getNamed().get("connect");
+        if (connect == null) {
+            return;
+        }
+        try {
+            int session = 0;
+            int slash = connect.indexOf('/');
+            if (slash >= 0) {
+                session = Integer.parseInt(connect.substring(slash + 1));
+                connect = connect.substring(0, slash);
+            }
+            int port = Protocol.DEFAULT_PORT;
+            int colon = connect.lastIndexOf(':');
+            if (colon >= 0) {
+                port = Integer.parseInt(connect.substring(colon + 1));
+                connect = connect.substring(0, colon);
+            }
+            controller.setConnect(new InetSocketAddress(connect, port), session);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Invalid server " + connect + ", playing locally: " + ex.getMessage());
+        }
+    }
+
      /**
      * This method is called when the application is stopped, providing an opportunity to clean up resources.
-     * It stops the animation timer upon closing the main stage.
+     * It stops the animation timer and the simulation threads upon closing the main stage.
      *
      * @throws Exception If an exception occurs during the stopping process.
      */
     @Override
     public void stop() throws Exception {
-        // Stop the animation timer upon closing the main stage
-        controller.stopAnimation();
+        // Stop the animation timer and the simulation threads upon closing the main stage
+        controller.shutdown();
     }
     
     /**
@@ -0,0 +1,121 @@
+package edu.vanier.spaceinvaders;
+
+import edu.vanier.spaceinvaders.engine.FrameProfiler;
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.PlayerController;
+import edu.vanier.spaceinvaders.engine.ScriptedController;
+import edu.vanier.spaceinvaders.engine.TickExecutor;
+import edu.vanier.spaceinvaders.engine.World;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The StressApp class runs the simulation headlessly as fast as possible with a configurable horde of invaders, to
+ * check how the engine scales. A scripted player sweeps across the screen while shooting. Every second, the frame
+ * metrics are printed as a CSV row, where frames are ticks; a summary of the sustained ticks and entities per second
+ * is printed at the end.
+ *
+ * <p>The game is configured with the arguments read by {@link GameConfig#fromArguments(java.util.List)} and starts
+ * from the stress preset unless {@code --stress=false} is given. {@code --duration} sets the length of the run in
+ * seconds, {@code --seed} the seed of the random source, and {@code --threads} and {@code --chunk-size} how the
+ * entity loops are split across threads.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class StressApp {
+
+    /**
+     * The length of a reporting window in nanoseconds.
+     */
+    private static final long WINDOW = 1_000_000_000L;
+
+    /**
+     * Runs the stress test and prints its metrics.
+     *
+     * @param args The configuration of the game, the duration and the seed, as {@code --key=value} arguments.
+     */
+    public static void main(String[] args) {
+        // Start from the stress preset, which later arguments can turn off
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--stress");
+        arguments.addAll(Arrays.asList(args));
+        GameConfig config;
+        double duration;
+        long seed;
+        TickExecutor executor;
+        try {
+            config = GameConfig.fromArguments(arguments);
+            duration = Double.parseDouble(option(args, "duration", "30"));
+            seed = Long.parseLong(option(args, "seed", "1"));
+            executor = new TickExecutor(
+                    Integer.parseInt(option(args, "threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                    Integer.parseInt(option(args, "chunk-size", String.valueOf(TickExecutor.DEFAULT_CHUNK_SIZE))));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Invalid configuration: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        World world = new World(World.DEFAULT_CAPACITY, seed);
+        FrameProfiler profiler = new FrameProfiler();
+        world.setConfig(config);
+        world.setProfiler(profiler);
+        world.setExecutor(executor);
+        System.err.println("Stress test for " + duration + " s on " + executor.getThreads() + " threads: " + config);
+
+        long setupStart = System.nanoTime();
+        world.restart();
+        PlayerController player = new ScriptedController();
+        System.err.printf(Locale.ROOT, "Spawned %d invaders in %.1f ms%n", world.countInvaders(),
+                (System.nanoTime() - setupStart) / 1e6);
+        System.out.println(FrameProfiler.CSV_HEADER);
+
+        long start = System.nanoTime();
+        long end = start + (long) (duration * 1e9);
+        long processedStart = world.getProcessedEntities();
+        long ticks = 0;
+        long now = start;
+        profiler.resetWindow();
+        while (now < end && !world.isGameOver()) {
+            world.setInput(player.decide(world, 0));
+            world.tick(World.FRAME);
+            ticks++;
+
+            long after = System.nanoTime();
+            profiler.recordFrame(after - now);
+            now = after;
+            if (profiler.getWindowNanos() >= WINDOW) {
+                System.out.println(profiler.formatCsv(world));
+                profiler.resetWindow();
+            }
+        }
+
+        double seconds = (now - start) / 1e9;
+        System.err.printf(Locale.ROOT, "%d ticks in %.1f s: %.1f ticks/s, %.0f entities/s, level %d, score %d%s%n",
+                ticks, seconds, ticks / seconds, (world.getProcessedEntities() - processedStart) / seconds,
+                world.getLevel(), world.getScore(), world.isGameOver() ? ", game over" : "");
+        executor.shutdown();
+    }
+
+    /**
+     * Reads an option given as {@code --name=value}.
+     *
+     * @param args         The command-line arguments.
+     * @param name         The name of the option.
+     * @param defaultValue The value used when the option is missing.
+     * @return The value of the option.
+     */
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,248 @@
+package edu.vanier.spaceinvaders.audio;
+
+import edu.vanier.spaceinvaders.utils.Resources;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.media.AudioClip;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plays the sound effects of the game from clips preloaded into memory. Every WAV file under {@code /sounds} is
+ * loaded once as an {@link AudioClip}, so {@link #play(String)} never creates native players and returns immediately.
+ * The number of sounds playing at once is capped by a fixed set of voices; when every voice is busy, the voice that
+ * started first is stolen for the new sound.
+ *
+ * <p>Clips may be loaded on a background thread with {@link #preload(Collection)} while sounds are played on another
+ * thread; only {@link #play(String)} and {@link #stopAll()} must be called from a single thread.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class SoundEngine {
+
+    /**
+     * The logger for the sound engine.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SoundEngine.class);
+
+    /**
+     * The classpath directory holding the sounds.
+     */
+    private static final String DIRECTORY = "/sounds";
+
+    /**
+     * The duration assumed for clips whose length cannot be read.
+     */
+    private static final long DEFAULT_DURATION = 1_000_000_000L;
+
+    /**
+     * The preloaded clips, keyed by file name without extension.
+     */
+    private final Map<String, AudioClip> clips = new ConcurrentHashMap<>();
+
+    /**
+     * The duration of each clip in nanoseconds, keyed by file name without extension.
+     */
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    /**
+     * The volume of each group of sounds, keyed by the sound name without its trailing level number.
+     */
+    private final Map<String, Double> volumes = new ConcurrentHashMap<>();
+
+    /**
+     * The clip playing on each voice, or null if the voice was never used.
+     */
+    private final AudioClip[] voiceClips;
+
+    /**
+     * The time in nanoseconds at which each voice started playing.
+     */
+    private final long[] voiceStarts;
+
+    /**
+     * The time in nanoseconds at which each voice finishes playing.
+     */
+    private final long[] voiceEnds;
+
+    /**
+     * The number of sounds played.
+     */
+    private long played = 0;
+
+    /**
+     * The number of sounds that cut off an older sound because every voice was busy.
+     */
+    private long stolen = 0;
+
+    /**
+     * Constructs a sound engine with the given maximum number of concurrent voices.
+     *
+     * @param maxVoices The maximum number of sounds playing at once.
+     */
+    public SoundEngine(int maxVoices) {
+        voiceClips = new AudioClip[maxVoices];
+        voiceStarts = new long[maxVoices];
+        voiceEnds = new long[maxVoices];
+    }
+
+    /**
+     * Loads every WAV file found under {@code /sounds} into memory.
+     */
+    public void preload() {
+        long start = System.nanoTime();
+        try {
+            for (String name : Resources.list(DIRECTORY, ".wav")) {
+                load(name);
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not list sounds, they will be loaded lazily: {}", ex.getMessage());
+        }
+        logger.info("Preloaded {} sounds in {} ms", clips.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Loads the sounds with the given names that are not loaded yet.
+     *
+     * @param names The names of the sounds, without directory or extension.
+     */
+    public void preload(Collection<String> names) {
+        for (String name : names) {
+            load(name);
+        }
+    }
+
+    /**
+     * Gets the clip of the sound with the given name, loading it into memory if needed. The duration of the clip is
+     * known before the clip is visible to other threads.
+     *
+     * @param name The name of the sound, without directory or extension.
+     * @return The loaded clip.
+     */
+    private AudioClip load(String name) {
+        return clips.computeIfAbsent(name, key -> {
+            URL url = getClass().getResource(String.format("%s/%s.wav", DIRECTORY, key));
+            if (url == null) {
+                throw new IllegalArgumentException("Unknown sound " + key);
+            }
+            durations.put(key, readDuration(url));
+            return new AudioClip(url.toExternalForm());
+        });
+    }
+
+    /**
+     * Reads the duration of a sound file from its header.
+     *
+     * @param url The location of the sound file.
+     * @return The duration in nanoseconds.
+     */
+    private long readDuration(URL url) {
+        try {
+            AudioFileFormat format = AudioSystem.getAudioFileFormat(url);
+            if (format.getFrameLength() > 0) {
+                return (long) (format.getFrameLength() / format.getFormat().getFrameRate() * 1_000_000_000L);
+            }
+        } catch (UnsupportedAudioFileException | IOException ex) {
+            logger.warn("Could not read duration of {}: {}", url, ex.getMessage());
+        }
+        return DEFAULT_DURATION;
+    }
+
+    /**
+     * Sets the volume of a group of sounds. The group of a sound is its name without the trailing level number, so
+     * the group "explosion" covers "explosion1", "explosion2" and "explosion3".
+     *
+     * @param group  The group of sounds.
+     * @param volume The volume, between 0 and 1.
+     */
+    public void setVolume(String group, double volume) {
+        volumes.put(group, volume);
+    }
+
+    /**
+     * Plays the sound with the given name without blocking. If every voice is busy, the oldest sound is stopped to
+     * make room for the new one.
+     *
+     * @param soundId The name of the sound, without directory or extension.
+     */
+    public void play(String soundId) {
+        AudioClip clip = clips.get(soundId);
+        if (clip == null) {
+            clip = load(soundId);
+        }
+
+        // Find a free voice, or the voice that started first
+        long now = System.nanoTime();
+        int voice = 0;
+        for (int i = 0; i < voiceEnds.length; i++) {
+            if (voiceEnds[i] <= now) {
+                voice = i;
+                break;
+            }
+            if (voiceStarts[i] < voiceStarts[voice]) {
+                voice = i;
+            }
+        }
+        if (voiceEnds[voice] > now) {
+            voiceClips[voice].stop();
+            stolen++;
+        }
+
+        voiceClips[voice] = clip;
+        voiceStarts[voice] = now;
+        voiceEnds[voice] = now + durations.get(soundId);
+        clip.play(volumes.getOrDefault(group(soundId), 1.0));
+        played++;
+    }
+
+    /**
+     * Gets the group of a sound by stripping its trailing digits.
+     *
+     * @param soundId The name of the sound.
+     * @return The group of the sound.
+     */
+    private static String group(String soundId) {
+        int end = soundId.length();
+        while (end > 0 && Character.isDigit(soundId.charAt(end - 1))) {
+            end--;
+        }
+        return soundId.substring(0, end);
+    }
+
+    /**
+     * Stops every sound currently playing.
+     */
+    public void stopAll() {
+        for (AudioClip clip : clips.values()) {
+            clip.stop();
+        }
+        for (int i = 0; i < voiceEnds.length; i++) {
+            voiceEnds[i] = 0;
+        }
+    }
+
+    /**
+     * Gets the number of sounds played.
+     *
+     * @return The number of sounds played.
+     */
+    public long getPlayed() {
+        return played;
+    }
+
+    /**
+     * Gets the number of sounds that cut off an older sound because every voice was busy.
+     *
+     * @return The number of stolen voices.
+     */
+    public long getStolen() {
+        return stolen;
+    }
+}
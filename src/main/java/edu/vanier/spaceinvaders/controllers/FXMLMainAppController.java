@@ -1,20 +1,45 @@
 package edu.vanier.spaceinvaders.controllers;
 
-import edu.vanier.spaceinvaders.models.Sprite;
+import edu.vanier.spaceinvaders.audio.SoundEngine;
+import edu.vanier.spaceinvaders.engine.FrameProfiler;
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.HighScore;
+import edu.vanier.spaceinvaders.engine.Input;
+import edu.vanier.spaceinvaders.engine.InputQueue;
+import edu.vanier.spaceinvaders.engine.InputRecorder;
+import edu.vanier.spaceinvaders.engine.Phase;
+import edu.vanier.spaceinvaders.engine.RewindBuffer;
+import edu.vanier.spaceinvaders.engine.SaveJournal;
+import edu.vanier.spaceinvaders.engine.Simulation;
+import edu.vanier.spaceinvaders.engine.SimulationThread;
+import edu.vanier.spaceinvaders.engine.Snapshot;
+import edu.vanier.spaceinvaders.engine.TickExecutor;
+import edu.vanier.spaceinvaders.engine.World;
+import edu.vanier.spaceinvaders.engine.WorldListener;
+import edu.vanier.spaceinvaders.net.GameClient;
+import edu.vanier.spaceinvaders.rendering.MetricsHud;
+import edu.vanier.spaceinvaders.rendering.NodeRenderer;
+import edu.vanier.spaceinvaders.rendering.Renderer;
+import edu.vanier.spaceinvaders.rendering.RendererType;
+import edu.vanier.spaceinvaders.rendering.TextureAtlas;
+import edu.vanier.spaceinvaders.utils.AssetLoader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
 import javafx.animation.AnimationTimer;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
-import javafx.scene.paint.ImagePattern;
 import javafx.scene.text.Text;
-
-import java.util.List;
-import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The FXMLMainAppController class is the controller for the MainApp's UI. It
@@ -26,6 +51,31 @@ import java.util.stream.Collectors;
  */
 public class FXMLMainAppController {
 
+    /**
+     * The logger for the controller.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FXMLMainAppController.class);
+
+    /**
+     * The logger writing the frame metrics to log/metrics.csv.
+     */
+    private static final Logger metricsLogger = LoggerFactory.getLogger("metrics");
+
+    /**
+     * The length of a metrics reporting window in nanoseconds.
+     */
+    private static final long METRICS_WINDOW = 1_000_000_000L;
+
+    /**
+     * The file where the input of the last game is saved, replayable with the ReplayApp.
+     */
+    private static final Path REPLAY_FILE = Path.of("log", "last-game.replay");
+
+    /**
+     * The journal of saved games and high scores.
+     */
+    private static final Path JOURNAL_FILE = Path.of("log", "journal.bin");
+
     /**
      * The panel where the game animation occurs.
      */
@@ -69,92 +119,156 @@ public class FXMLMainAppController {
     private Text congratulationsText;
 
     /**
-     * The elapsed time for controlling enemy shooting cool down.
+     * The headless world holding the game state.
      */
-    private double elapsedTime = 0;
+    private final World world = new World();
 
     /**
-     * The spaceship sprite representing the player.
+     * The recorder capturing the input of the current game.
      */
-    private Sprite spaceShip;
+    private final InputRecorder recorder = new InputRecorder();
 
     /**
-     * The JavaFX scene associated with the controller.
+     * The executor splitting the entity loops of each tick across threads.
      */
-    private Scene scene;
+    private TickExecutor executor = new TickExecutor();
 
     /**
-     * The animation timer for the game loop.
+     * The thread ticking the world with a fixed time step, or the connection to the server simulating the game, or
+     * null before the game components are created.
      */
-    AnimationTimer animation;
+    private Simulation simulation;
+
+    /**
+     * The connection to the server hosting the game, or null if the game is simulated locally.
+     */
+    private GameClient client;
+
+    /**
+     * The journal the game is saved to and the high scores are kept in, or null if it could not be opened or the
+     * game is played on a server.
+     */
+    private SaveJournal journal;
+
+    /**
+     * Flag indicating whether the latest save is restored when the game starts.
+     */
+    private boolean resume = false;
+
+    /**
+     * Flag indicating whether the simulation thread is restoring a save, so that the level it restores is not saved
+     * again. Only used on the simulation thread.
+     */
+    private boolean loading = false;
+
+    /**
+     * The length of the game kept for rewinding in seconds, or 0 to keep none.
+     */
+    private double rewindSeconds = 10;
+
+    /**
+     * The buffer keeping the last ticks for rewinding, or null if none are kept. Only used on the simulation thread.
+     */
+    private RewindBuffer rewind;
+
+    /**
+     * Flag indicating whether the game is paused for rewinding.
+     */
+    private boolean rewinding = false;
+
+    /**
+     * Flag indicating whether the HUD was shown before rewinding, so that it is hidden again afterwards.
+     */
+    private boolean hudShownBeforeRewind = false;
+
+    /**
+     * The description of the tick rewound to, written by the simulation thread and shown in the HUD, or null if it
+     * is shown already.
+     */
+    private volatile String rewindStatus;
+
+    /**
+     * The atlas holding the decoded sprite images.
+     */
+    private final TextureAtlas atlas = new TextureAtlas();
+
+    /**
+     * The rendering backend selected at launch.
+     */
+    private RendererType rendererType = RendererType.NODES;
 
     /**
-     * The width of the game screen.
+     * The renderer drawing the world into the animation panel.
      */
-    private final double WIDTH = 800;
+    private Renderer renderer;
 
     /**
-     * The height of the game screen.
+     * The JavaFX scene associated with the controller.
      */
-    private final double HEIGHT = 1000;
+    private Scene scene;
+
+    /**
+     * The animation timer for the game loop.
+     */
+    AnimationTimer animation;
 
     /**
-     * Flags indicating the direction of spaceship movement.
+     * The number of frames rendered since the game started.
      */
-    private boolean upPressed = false;
-    private boolean downPressed = false;
-    private boolean leftPressed = false;
-    private boolean rightPressed = false;
+    private long frames = 0;
 
     /**
-     * Flag indicating whether the type of bullet has been switched
+     * The profiler timing the phases of each frame.
      */
-    private boolean isRocketsOn = false;
+    private final FrameProfiler profiler = new FrameProfiler();
 
     /**
-     * Flag indicating the direction of enemy movement.
+     * The overlay displaying the frame metrics, toggled with F3.
      */
-    private boolean movingRight = true;
+    private MetricsHud hud;
 
     /**
-     * Flag indicating the game state.
+     * The timestamp of the previous frame in nanoseconds, or -1 before the
+     * first frame.
      */
-    private boolean gameOver = false;
+    private long lastFrameTime = -1;
 
     /**
-     * The number of lives remaining for the player.
+     * The score and lives currently displayed, used to only update labels when they change.
      */
-    private static int lives = 3;
+    private int shownScore = -1;
+    private int shownLives = -1;
 
     /**
-     * The current game level.
+     * The number of levels started as of the level currently displayed, used to reset the interface once per level.
      */
-    private static int level = 1;
+    private long shownLevelStarts = -1;
 
     /**
-     * The current player score.
+     * The number of levels started as of the game that last ended, so that its final snapshot is not mistaken for
+     * the end of the next game while the restart is under way.
      */
-    private static int score = 0;
+    private long endedLevelStarts = -1;
 
     /**
-     * The audio player for explosion sounds.
+     * The maximum number of sounds playing at once.
      */
-    private MediaPlayer explosionAudio;
+    private static final int MAX_VOICES = 8;
 
     /**
-     * Cool-down between shots that user can fire
+     * The sound engine playing the preloaded sound effects.
      */
-    private final long COOL_DOWN = 400;
+    private final SoundEngine sounds = new SoundEngine(MAX_VOICES);
 
     /**
-     * Timestamp of the previous spaceship shot
+     * The loader decoding the images and sounds of each level in the background.
      */
-    private long lastShotTime = 0;
+    private final AssetLoader assets = new AssetLoader(atlas, sounds);
 
     /**
-     * Represents whether the spaceship is currently shooting or not
+     * The time at which the application was launched in nanoseconds, used to measure the time to the first frame.
      */
-    private boolean isShooting = false;
+    private long launchTime = System.nanoTime();
 
     /**
      * Initializes the controller, setting an event handler for the game over
@@ -162,285 +276,303 @@ public class FXMLMainAppController {
      */
     @FXML
     public void initialize() {
-        gameOverButton.setOnAction(e -> nextLevel());
+        gameOverButton.setOnAction(e -> {
+            if (rewinding) {
+                toggleRewind();
+            }
+            simulation.restart();
+            lastFrameTime = -1;
+            animation.start();
+        });
     }
 
     /**
      * Initializes the game components and sets up keybindings for spaceship
-     * movements and shooting.
+     * movements and shooting. Key presses are queued for the simulation
+     * thread, which applies them at its next tick.
      */
     public void initGameComponents() {
         createContent();
+        InputQueue input = simulation.getInput();
         // Define keybindings for spaceship movements
         this.scene.setOnKeyPressed(e -> {
-            switch (e.getCode()) {
-                case W -> upPressed = true;
-                case A -> leftPressed = true;
-                case S -> downPressed = true;
-                case D -> rightPressed = true;
-                case R -> isRocketsOn = !isRocketsOn;
-                case SPACE -> {
-                    long currentTime = System.currentTimeMillis();
-                    // Only shoot if elapsed time since last shoot is greater or equal to cooldown
-                    if (currentTime - lastShotTime >= COOL_DOWN) {
-                        isShooting = true;
-                        shoot(spaceShip);
-                        lastShotTime = currentTime;
-                    }
+            // While rewinding, the arrows step one tick, or one second with shift, and home and end jump to the ends
+            if (rewinding) {
+                int step = e.isShiftDown() ? (int) Math.round(1 / World.FRAME) : 1;
+                switch (e.getCode()) {
+                    case LEFT -> scrub(-step);
+                    case RIGHT -> scrub(step);
+                    case HOME -> scrub(Long.MIN_VALUE / 2);
+                    case END -> scrub(Long.MAX_VALUE / 2);
                 }
             }
+            switch (e.getCode()) {
+                case W -> input.press(Input.UP);
+                case A -> input.press(Input.LEFT);
+                case S -> input.press(Input.DOWN);
+                case D -> input.press(Input.RIGHT);
+                case R -> input.toggle(Input.TOGGLE_ROCKETS);
+                case F3 -> hud.toggle();
+                case F5 -> quickSave();
+                case F6 -> toggleRewind();
+                case F9 -> quickLoad();
+                case SPACE -> input.press(Input.SHOOT | Input.SHOOT_PRESSED);
+            }
         });
 
         // Release movement for spaceship
         this.scene.setOnKeyReleased(e -> {
             switch (e.getCode()) {
-                case W -> upPressed = false;
-                case A -> leftPressed = false;
-                case S -> downPressed = false;
-                case D -> rightPressed = false;
-                case SPACE -> isShooting = false;
+                case W -> input.release(Input.UP);
+                case A -> input.release(Input.LEFT);
+                case S -> input.release(Input.DOWN);
+                case D -> input.release(Input.RIGHT);
+                case SPACE -> input.release(Input.SHOOT);
             }
         });
     }
 
     /**
-     * Creates the game content, including the animation panel, sprites, and
-     * game loop.
+     * Creates the game content, including the renderer, the simulation
+     * thread, and the animation timer drawing its snapshots.
      */
     private void createContent() {
-
-        // Create the game loop
+        // The assets of the first level are loaded, the next levels are loaded as the game goes
+        sounds.setVolume("explosion", 0.1);
+        sounds.setVolume("laser", 0.2);
+        sounds.setVolume("rocket", 0.2);
+        renderer = rendererType.create(animationPanel, atlas);
+        hud = new MetricsHud(animationPanel);
+        metricsLogger.info(FrameProfiler.CSV_HEADER);
+
+        // Create the rendering loop
         animation = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                update();
+                update(now);
             }
         };
-        nextLevel();
-    }
 
-    /**
-     * Initiates the next game level by resetting counters, labels, and removing
-     * overlay text and button.
-     */
-    private void nextLevel() {
-        // Reset counters
-        gameOver = false;
-
-        // Reset labels
-        levelLabel.setText(Integer.toString(level));
-        scoreLabel.setText(Integer.toString(score));
-        livesLabel.setText(Integer.toString(lives));
-
-        // Remove overlay text and button
-        gameOverText.setVisible(false);
-        gameOverButton.setVisible(false);
-        congratulationsText.setVisible(false);
-
-        animationPanel.getChildren().removeIf(n -> n instanceof Sprite);
+        // The server simulates a network game and raises its events, the client only draws its states
+        if (client != null) {
+            simulation = client;
+            simulation.start();
+            animation.start();
+            return;
+        }
+        world.setProfiler(profiler);
+        world.setRecorder(recorder);
+        if (rewindSeconds > 0) {
+            rewind = new RewindBuffer((int) Math.ceil(rewindSeconds / World.FRAME));
+            world.setRewind(rewind);
+        }
+        try {
+            journal = new SaveJournal(JOURNAL_FILE);
+        } catch (IOException ex) {
+            logger.warn("Could not open the save journal {}, saving is disabled", JOURNAL_FILE, ex);
+        }
 
-        ImagePattern image = new ImagePattern(new Image(String.format("/images/ship%d.png", level)));
+        // Sounds and game events are raised on the simulation thread, the interface follows the snapshots so that
+        // its labels change at most once per frame however many events a tick raises
+        simulation = new SimulationThread(world, new WorldListener() {
+            @Override
+            public void onSound(String sound) {
+                sounds.play(sound);
+            }
 
-        spaceShip = new Sprite(WIDTH / 2, 750, 40, 40, "player", image, 5);
-        animationPanel.getChildren().add(spaceShip);
+            @Override
+            public void onLevelStarted(int level) {
+                // Saving must wait until the tick is over
+                if (!loading && journal != null && level > 1) {
+                    ((SimulationThread) simulation).post(world -> save(world, "Autosaved level " + level));
+                }
+            }
 
-        // Spawn enemies according to level
-        for (int j = 0; j < level + 2; j++) {
-            for (int i = 0; i < 5; i++) {
-                // Randomize image of enemies
-                ImagePattern enemy = new ImagePattern(new Image(String.format("/images/intruder%d.png", 1 + (int) (Math.random() * 5))));
+            @Override
+            public void onLevelCleared(int level) {
+                logger.info("Level {} cleared with {} points", level, world.getSession().getScore());
+            }
 
-                // Add enemies to level
-                Sprite invader = new Sprite(90 + i * 100, 150 + j * 50, 30, 30, "enemy", enemy, level);
-                animationPanel.getChildren().add(invader);
+            @Override
+            public void onGameOver(boolean won, int score) {
+                logger.info("Game {} with {} points", won ? "won" : "lost", score);
             }
+        });
+        if (!(resume && restore(world))) {
+            world.restart();
         }
-
-        // Prevent continual shooting after level reset
-        isShooting = false;
-
-        // Start animation because it was stopped after game over
+        simulation.start();
         animation.start();
-
-        // Set media for explosion sounds
-        Media explosionSound = new Media(getClass().getResource("/sounds/explosion" + level + ".wav").toExternalForm());
-        explosionAudio = new MediaPlayer(explosionSound);
-        explosionAudio.setVolume(0.1);
-
-        // Set text to overlay sprites
-        gameOverText.toFront();
-        gameOverButton.toFront();
     }
 
     /**
-     * Retrieves the list of sprites from the animation panel.
-     *
-     * @return A list of sprites.
+     * Saves the game to the journal between two ticks.
      */
-    private List<Sprite> sprites() {
-        return animationPanel.getChildren().stream().filter(n -> n instanceof Sprite).map(n -> (Sprite) n).collect(Collectors.toList());
+    private void quickSave() {
+        if (journal != null && simulation instanceof SimulationThread thread) {
+            thread.post(world -> save(world, "Saved"));
+        }
     }
 
     /**
-     * Updates the game state during each frame of the animation loop. Handles
-     * spaceship movement, shooting, enemy actions, collisions, and game over
-     * conditions.
+     * Restores the latest save of the journal between two ticks, and resumes drawing if the game was over.
      */
-    private void update() {
-        elapsedTime += 0.016;
-
-        // Handle spaceship movement and shooting every frame
-        updateSpaceShip();
-
-        // Determine movement direction of all enemies
-        boolean movingDown = false;
-        for (Sprite sprite : sprites().stream().filter(sprite -> sprite.getType().equals("enemy")).toList()) {
-            // Check if enemy has hit right wall
-            if (sprite.getTranslateX() > WIDTH - 100) {
-                movingRight = false;
-                movingDown = true;
-                break;
-            }
-
-            // Check if enemy has hit left wall
-            if (sprite.getTranslateX() < 70) {
-                movingRight = true;
-                movingDown = true;
-                break;
-            }
+    private void quickLoad() {
+        if (journal == null || journal.getSaveCount() == 0 || !(simulation instanceof SimulationThread thread)) {
+            return;
         }
+        thread.post(this::restore);
+        lastFrameTime = -1;
+        animation.start();
+    }
 
-        for (Sprite sprite : sprites()) {
-            switch (sprite.getType()) {
-                case "enemyBullet" -> {
-                    sprite.moveDown();
-                    if (sprite.getBoundsInParent().intersects(spaceShip.getBoundsInParent())) {
-                        // Update lives
-                        livesLabel.setText(Integer.toString(--lives));
-                        if (lives == 0) {
-                            spaceShip.setDead(true);
-                            gameOver = true;
-                        }
-                        sprite.setDead(true);
-
-                        // Add explosion if enemy bullet hits spaceship
-                        ImagePattern img = new ImagePattern(new Image("/images/explosion.png"));
-                        Sprite explode = new Sprite(sprite.getTranslateX(), sprite.getTranslateY(), 40, 40, "explosion", img, 1);
-                        animationPanel.getChildren().add(explode);
-
-                        // Play audio
-                        explosionAudio.play();
-                        explosionAudio.seek(explosionAudio.getStartTime());
-                    }
-                }
-                case "playerBullet" -> {
-                    sprite.moveUp();
-                    sprites().stream().filter(e -> e.getType().equals("enemy")).forEach(enemy -> {
-                        if (sprite.getBoundsInParent().intersects(enemy.getBoundsInParent())) {
-                            // Remove bullet and enemy
-                            enemy.setDead(true);
-                            sprite.setDead(true);
-
-                            // Increment score
-                            score += 10;
-                            scoreLabel.setText(Integer.toString(score));
-
-                            // Play audio
-                            explosionAudio.play();
-                            explosionAudio.seek(explosionAudio.getStartTime());
-
-                            // Add explosion if player bullet hits enemy
-                            ImagePattern img = new ImagePattern(new Image("/images/explosion.png"));
-                            Sprite explode = new Sprite(sprite.getTranslateX(), sprite.getTranslateY(), 40, 40, "explosion", img, 1);
-                            animationPanel.getChildren().add(explode);
-                        }
-                    });
-                }
-                case "enemy" -> {
-                    // Enemies only shoot after cool-down has expired
-                    if (elapsedTime > 2) {
-                        // Random probability of shooting and only shoot if entity is alive
-                        if (Math.random() < 0.3 && !sprite.isDead()) {
-                            shoot(sprite);
-                        }
-                    }
-
-                    // Calculate intersect for enemies
-                    if (sprite.getBoundsInParent().intersects(spaceShip.getBoundsInParent())) {
-                        lives = 0;
-                        livesLabel.setText(Integer.toString(lives));
-                        explosionAudio.play();
-                        explosionAudio.seek(explosionAudio.getStartTime());
-                        gameOver = true;
-                    }
-
-                    // Move all enemies right or left depending on direction
-                    if (movingRight) {
-                        sprite.moveRight();
-                    } else {
-                        sprite.moveLeft();
-                    }
-
-                    // Move down if there is change in direction (wall is hit)
-                    if (movingDown) {
-                        for (int i = 0; i < 20; i++) {
-                            sprite.moveDown();
-                        }
-                    }
-
-                    // Game is over if enemies reach bottom of the screen
-                    if (sprite.getTranslateY() + 30 > HEIGHT) {
-                        gameOver = true;
-                    }
-                }
-                case "explosion" -> {
-                    // Shrink explosion every frame
-                    sprite.setScaleX(sprite.getScaleX() - 0.02);
-                    sprite.setScaleY(sprite.getScaleY() - 0.02);
-                }
+    /**
+     * Pauses the game to scrub through its last ticks, or resumes it from the tick rewound to, forgetting the ticks
+     * after it.
+     */
+    private void toggleRewind() {
+        if (rewind == null || !(simulation instanceof SimulationThread thread)) {
+            return;
+        }
+        rewinding = !rewinding;
+        if (rewinding) {
+            thread.setPaused(true);
+            hudShownBeforeRewind = hud.isVisible();
+            if (!hudShownBeforeRewind) {
+                hud.toggle();
+            }
+            scrub(0);
+            // Draw the ticks rewound to even if the game is over
+            lastFrameTime = -1;
+            animation.start();
+        } else {
+            thread.post(world -> {
+                recorder.truncate(recorder.getTicks() - (int) (rewind.getNewest() - rewind.getPosition()));
+                rewind.truncate();
+                logger.info("Resumed the game from tick {}", rewind.getPosition());
+            });
+            thread.setPaused(false);
+            if (!hudShownBeforeRewind) {
+                hud.toggle();
             }
         }
+    }
 
-        // Remove bullets if they are off-screen
-        sprites().forEach(sprite -> {
-            double y = sprite.getTranslateY();
-            if (y < 0 || y > HEIGHT) {
-                sprite.setDead(true);
-            }
+    /**
+     * Moves the paused game by a number of ticks between the oldest and the newest tick kept, and shows the tick in
+     * the HUD.
+     *
+     * @param ticks The number of ticks to move forward, or back if negative.
+     */
+    private void scrub(long ticks) {
+        ((SimulationThread) simulation).post(world -> {
+            rewind.seek(world, rewind.getPosition() + ticks);
+            rewindStatus = rewind.describe(world);
+            logger.debug(rewindStatus);
         });
+    }
 
-        // Remove dead entities
-        animationPanel.getChildren().removeIf(n -> {
-            try {
-                Sprite sprite = (Sprite) n;
-                // Set dead for explosions becoming too small
-                if (sprite.getScaleX() <= 0) {
-                    sprite.setDead(true);
-                }
-                return sprite.isDead();
-            } catch (Exception e) {
-                // Do not remove non-sprite entity
+    /**
+     * Saves a world to the journal and logs how long it took. Must be called on the thread owning the world.
+     *
+     * @param world   The world to save.
+     * @param message The description of the save for the logs.
+     */
+    private void save(World world, String message) {
+        try {
+            long start = System.nanoTime();
+            int bytes = journal.save(world);
+            logger.info("{}: {} bytes in {} us", message, bytes, (System.nanoTime() - start) / 1000);
+        } catch (IOException | UncheckedIOException ex) {
+            logger.warn("Could not save to {}", JOURNAL_FILE, ex);
+        }
+    }
+
+    /**
+     * Restores a world to the latest save of the journal and logs how long it took. A save that cannot be read is
+     * reported and the world started over, since reading it may have replaced part of the world. Must be called on
+     * the thread owning the world.
+     *
+     * @param world The world to restore.
+     * @return True if the world was restored, false if there is no save to restore or it could not be read.
+     */
+    private boolean restore(World world) {
+        if (journal == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        loading = true;
+        try {
+            if (!journal.restore(world, 0)) {
                 return false;
             }
-        });
+        } catch (RuntimeException ex) {
+            logger.error("Failed to load the latest save of {}", JOURNAL_FILE, ex);
+            world.restart();
+            return false;
+        } finally {
+            loading = false;
+        }
+        logger.info("Restored level {} with {} points in {} us", world.getLevel(), world.getScore(),
+                (System.nanoTime() - start) / 1000);
+        return true;
+    }
 
-        // Count number of invaders
-        long invaderCount = sprites().stream().filter(s -> s.getType().equals("enemy")).count();
+    /**
+     * Prepares the interface for a new level by resetting the level label and
+     * removing overlay text and button.
+     *
+     * @param level The level that started.
+     */
+    private void nextLevel(int level) {
+        // Warm the assets of the next level while this one is played
+        assets.loadLevel(level + 1);
 
-        // Set game over if all enemies are dead
-        if (invaderCount == 0) {
-            gameOver = true;
-            if (level < 3) {
-                level++;
-                levelLabel.setText(Integer.toString(level));
-                nextLevel();
-            }
+        // Reset labels
+        levelLabel.setText(Integer.toString(level));
+
+        // Remove overlay text and button
+        gameOverText.setVisible(false);
+        gameOverButton.setVisible(false);
+        congratulationsText.setVisible(false);
+    }
+
+    /**
+     * Draws the latest snapshot published by the simulation thread during
+     * each frame of the animation loop, interpolating positions by the time
+     * elapsed since its tick, and handles level starts and game over.
+     *
+     * @param now The timestamp of the current frame in nanoseconds.
+     */
+    private void update(long now) {
+        if (frames == 0) {
+            logger.info("First frame {} ms after launch, {} ms after the JVM started",
+                    (System.nanoTime() - launchTime) / 1_000_000, ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+        Snapshot snapshot = simulation.latest();
+        if (snapshot.getLevelStarts() != shownLevelStarts) {
+            shownLevelStarts = snapshot.getLevelStarts();
+            nextLevel(snapshot.getLevel());
         }
 
-        // Check if game is over
-        if (gameOver) {
-            // Display congratulations if no invaders level 3
-            if (level == 3 && invaderCount == 0) {
+        double alpha = Math.min(1, Math.max(0, (double) (now - snapshot.getTime()) / simulation.getStepNanos()));
+        String status = rewindStatus;
+        if (status != null) {
+            rewindStatus = null;
+            hud.update(status);
+        }
+        long renderStart = System.nanoTime();
+        renderer.render(snapshot, alpha);
+        profiler.add(Phase.RENDER, System.nanoTime() - renderStart);
+        updateLabels(snapshot);
+        frames++;
+        updateMetrics(now, snapshot);
+
+        // Check if game is over, ignoring the last game until the restart is published and the ticks scrubbed through
+        if (snapshot.isGameOver() && snapshot.getLevelStarts() != endedLevelStarts && !rewinding) {
+            endedLevelStarts = snapshot.getLevelStarts();
+            // Display congratulations if every level was cleared
+            if (snapshot.isWon()) {
                 congratulationsText.setVisible(true);
             } else {
                 gameOverText.setVisible(true);
@@ -449,79 +581,210 @@ public class FXMLMainAppController {
             // Display game over text
             gameOverButton.setVisible(true);
             stopAnimation();
+            if (client != null) {
+                return;
+            }
 
-            // Reset counters
-            level = 1;
-            score = 0;
-            lives = 3;
-        }
-
-        // Reset timer for enemies shooting
-        if (elapsedTime > 2) {
-            elapsedTime = 0;
+            // Report how many entities and sprites had to be allocated rather than reused, record the score and save
+            // the replay on the simulation thread, which owns the world and the recorder and runs the posted loads
+            long sprites = renderer instanceof NodeRenderer nodes ? nodes.getCreated() : 0;
+            long shownFrames = frames;
+            HighScore score = new HighScore(snapshot.getScore(), snapshot.getLevel(), snapshot.isWon(),
+                    System.currentTimeMillis());
+            ((SimulationThread) simulation).post(world -> {
+                logger.info("{} frames: {} entities allocated, {} reused, {} sprite nodes created ({} allocations per 1000 frames)",
+                        shownFrames, world.getAllocations(), world.getReuses(), sprites,
+                        (world.getAllocations() + sprites) * 1000 / Math.max(shownFrames, 1));
+                recordScore(score);
+                // A restored game was not recorded from its start, so it cannot be replayed
+                if (recorder.isEnded()) {
+                    saveReplay();
+                }
+            });
         }
     }
 
     /**
-     * Shoots bullets from the specified sprite, creating and adding bullet
-     * sprites to the animation panel.
+     * Adds the game that just ended to the high scores of the journal and logs the best games. Must be called on the
+     * simulation thread.
      *
-     * @param who The sprite shooting the bullets.
-     */
-    private void shoot(Sprite who) {
-        if (who == spaceShip) {
-            // Image of rockets depends on user settings of rockets/laser and level
-            ImagePattern image = new ImagePattern(new Image(String.format("/images/%s%d.png", isRocketsOn ? "rocket" : "laser", level)));
-            // Spacing between bullets
-            double spacing = 15;
-            // Distance between furthest left and right bullet
-            double width = (level - 1) * spacing;
-            // x position of left bullet
-            double x = 18 + who.getTranslateX() - width / 2;
-            // Number of rockets increases every level
-            for (int i = 0; i < level; i++) {
-                Sprite s = new Sprite(x + i * spacing, who.getTranslateY(), 5, 20, who.getType() + "Bullet", image, 5);
-                animationPanel.getChildren().add(s);
+     * @param score The outcome of the game.
+     */
+    private void recordScore(HighScore score) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            int rank = journal.recordScore(score);
+            List<HighScore> scores = journal.getHighScores();
+            StringBuilder table = new StringBuilder(rank >= 0 ? "New high score, rank " + (rank + 1) : "High scores");
+            for (int i = 0; i < scores.size(); i++) {
+                table.append(System.lineSeparator()).append(i + 1).append(". ").append(scores.get(i));
             }
+            logger.info(table.toString());
+        } catch (IOException ex) {
+            logger.warn("Could not record the score to {}", JOURNAL_FILE, ex);
+        }
+    }
 
-            // Set media for shooting sounds
-            Media shootSound = new Media(getClass().getResource(String.format("/sounds/%s%d.wav", isRocketsOn? "rocket" : "laser", level)).toExternalForm());
-
-            // Create new audio player because shots depends on laser/rockets
-            MediaPlayer shootAudio = new MediaPlayer(shootSound);
-            shootAudio.setVolume(0.2);
-            shootAudio.play();
-            shootAudio.seek(shootAudio.getStartTime());
-        } else {
-            ImagePattern image = new ImagePattern(new Image("/images/enemylaser.png"));
-            Sprite s = new Sprite(who.getTranslateX() + 20, who.getTranslateY(), 5, 20, who.getType() + "Bullet", image, 5);
-            animationPanel.getChildren().add(s);
+    /**
+     * Saves the input of the game that just ended so that it can be replayed headlessly. Must be called on the
+     * simulation thread.
+     */
+    private void saveReplay() {
+        try {
+            recorder.save(REPLAY_FILE);
+            logger.info("Saved {} ticks of input to {}", recorder.getTicks(), REPLAY_FILE);
+        } catch (IOException ex) {
+            logger.warn("Could not save the replay to {}", REPLAY_FILE, ex);
         }
     }
 
     /**
-     * Updates the spaceship's position based on the keys pressed and triggers
-     * shooting enough time has passed since cool-down
+     * Records the duration of the frame and, once per reporting window,
+     * writes the metrics to the metrics log and refreshes the HUD.
+     *
+     * @param now      The timestamp of the current frame in nanoseconds.
+     * @param snapshot The snapshot drawn this frame.
      */
-    private void updateSpaceShip() {
-        // Moves spaceship depending on which keys are pressed
-        if (leftPressed && spaceShip.getTranslateX() > 0) {
-            spaceShip.moveLeft();
+    private void updateMetrics(long now, Snapshot snapshot) {
+        if (lastFrameTime >= 0) {
+            profiler.recordFrame(now - lastFrameTime);
         }
-        if (rightPressed && spaceShip.getTranslateX() <= WIDTH - 40) {
-            spaceShip.moveRight();
+        lastFrameTime = now;
+
+        if (profiler.getWindowNanos() >= METRICS_WINDOW) {
+            metricsLogger.info(profiler.formatCsv(snapshot));
+            if (client != null) {
+                logger.info("Network: {}", client.getStats().formatWindow(profiler.getWindowNanos() / 1e9));
+            }
+            if (hud.isVisible() && !rewinding) {
+                hud.update(profiler.formatHud(snapshot));
+            }
+            profiler.resetWindow();
         }
-        if (upPressed && spaceShip.getTranslateY() > 96) {
-            spaceShip.moveUp();
+    }
+
+    /**
+     * Updates the score and lives labels if their values changed.
+     *
+     * @param snapshot The snapshot drawn this frame.
+     */
+    private void updateLabels(Snapshot snapshot) {
+        if (snapshot.getScore() != shownScore) {
+            shownScore = snapshot.getScore();
+            scoreLabel.setText(Integer.toString(shownScore));
         }
-        if (downPressed && spaceShip.getTranslateY() < HEIGHT - 40) {
-            spaceShip.moveDown();
+        if (snapshot.getLives() != shownLives) {
+            shownLives = snapshot.getLives();
+            livesLabel.setText(Integer.toString(shownLives));
         }
+    }
+
+    /**
+     * Starts loading the images and sounds of the first level in the
+     * background. The game components must only be initialized once the load
+     * completes, so that the first frames do not decode anything.
+     *
+     * @param progress The callback receiving the fraction of the assets
+     *                 loaded, between 0 and 1, on the loader thread.
+     * @return The load, completed once the assets are cached.
+     */
+    public CompletableFuture<Void> loadAssets(DoubleConsumer progress) {
+        return assets.loadLevel(1, progress);
+    }
+
+    /**
+     * Sets the time at which the application was launched, from which the
+     * time to the first frame is measured.
+     *
+     * @param launchTime The launch time in nanoseconds, as given by
+     *                   {@link System#nanoTime()}.
+     */
+    public void setLaunchTime(long launchTime) {
+        this.launchTime = launchTime;
+    }
+
+    /**
+     * Sets the rendering backend used to draw the game. Must be called before
+     * the game components are initialized.
+     *
+     * @param rendererType The rendering backend.
+     */
+    public void setRendererType(RendererType rendererType) {
+        this.rendererType = rendererType;
+    }
+
+    /**
+     * Sets the rules of the game, such as the size of the invader waves. Must be called before the game components
+     * are initialized.
+     *
+     * @param config The rules of the game.
+     */
+    public void setConfig(GameConfig config) {
+        world.setConfig(config);
+    }
+
+    /**
+     * Sets the number of threads the entity loops of each tick are split across. Must be called before the game
+     * components are initialized.
+     *
+     * @param threads The number of threads, including the simulation thread.
+     */
+    public void setThreads(int threads) {
+        executor.shutdown();
+        executor = new TickExecutor(threads, TickExecutor.DEFAULT_CHUNK_SIZE);
+        world.setExecutor(executor);
+    }
 
-        // Shoot if SPACE held down and enough time passed since last shot
-        if (isShooting && System.currentTimeMillis() - lastShotTime >= COOL_DOWN) {
-            shoot(spaceShip);
-            lastShotTime = System.currentTimeMillis();
+    /**
+     * Plays a game simulated by a server instead of the local world. Must be called before the game components are
+     * initialized.
+     *
+     * @param address The address of the server.
+     * @param session The number of the session to join.
+     */
+    public void setConnect(InetSocketAddress address, int session) {
+        client = new GameClient(address, session);
+    }
+
+    /**
+     * Sets how much of the game is kept so that it can be paused and rewound. Must be called before the game
+     * components are initialized.
+     *
+     * @param rewindSeconds The length of the game kept in seconds, or 0 to keep none.
+     */
+    public void setRewindSeconds(double rewindSeconds) {
+        this.rewindSeconds = rewindSeconds;
+    }
+
+    /**
+     * Restores the latest save of the journal instead of starting a new game. Must be called before the game
+     * components are initialized.
+     *
+     * @param resume True to restore the latest save.
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Stops the game, the simulation thread and its worker threads, and the
+     * asset loader, and closes the save journal.
+     */
+    public void shutdown() {
+        stopAnimation();
+        if (simulation != null) {
+            simulation.stop();
+        }
+        executor.shutdown();
+        assets.shutdown();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close the save journal {}", JOURNAL_FILE, ex);
+            }
         }
     }
 
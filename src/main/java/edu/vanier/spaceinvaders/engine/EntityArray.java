@@ -0,0 +1,119 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable array of entity handles reused from tick to tick. Entities are removed by swapping the last handle into
+ * their slot, so removal is constant time and never shifts the array, and iterating by index allocates no iterator.
+ * The order of entities is therefore not preserved across removals. Only the world modifies the array; other classes
+ * may only read it, looking the handles up in the world's {@link EntityStore}.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class EntityArray {
+
+    /**
+     * The handles, the first {@link #size} of which are in use.
+     */
+    private int[] items;
+
+    /**
+     * The number of handles in the array.
+     */
+    private int size = 0;
+
+    /**
+     * Constructs an empty array with the given initial capacity.
+     *
+     * @param capacity The initial capacity.
+     */
+    public EntityArray(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Gets the handle at the given index.
+     *
+     * @param index The index of the handle.
+     * @return The handle of the entity at the index.
+     */
+    public int get(int index) {
+        return items[index];
+    }
+
+    /**
+     * Gets the number of handles in the array.
+     *
+     * @return The number of entities.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the array holds no handles.
+     *
+     * @return True if the array is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a handle at the end of the array, doubling the capacity if it is full.
+     *
+     * @param handle The handle of the entity to add.
+     */
+    void add(int handle) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size++] = handle;
+    }
+
+    /**
+     * Removes the handle at the given index by moving the last handle into its slot.
+     *
+     * @param index The index of the handle to remove.
+     */
+    void swapRemove(int index) {
+        items[index] = items[--size];
+    }
+
+    /**
+     * Removes every handle from the array, keeping its capacity.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Writes the handles in order.
+     *
+     * @param out The buffer to write to, with at least {@code 4 + 4 * size()} bytes remaining.
+     */
+    void save(ByteBuffer out) {
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putInt(items[i]);
+        }
+    }
+
+    /**
+     * Replaces the handles with the handles written by {@link #save}, in the same order.
+     *
+     * @param in The buffer to read from.
+     */
+    void restore(ByteBuffer in) {
+        int size = in.getInt();
+        if (size > items.length) {
+            items = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            items[i] = in.getInt();
+        }
+        this.size = size;
+    }
+}
@@ -0,0 +1,664 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores every entity of a world as a structure of arrays: each attribute lives in its own primitive column, and an
+ * entity is the index of its slot in the columns, called its handle. A handle stays valid and keeps referring to the
+ * same entity until the entity is freed; freed slots go onto a free list and are handed out again by the next
+ * {@link #create}, so steady spawning and despawning neither allocates nor grows the columns.
+ *
+ * <p>Keeping attributes in flat arrays instead of one object per entity packs the positions of every entity next to
+ * each other in memory, so sweeps over positions read sequential memory, and an entity costs about 90 bytes instead
+ * of an object header, padding and a reference from every array it is in.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class EntityStore {
+
+    /**
+     * The state of a slot that holds no entity.
+     */
+    private static final byte FREE = 0;
+
+    /**
+     * The state of a slot that holds a living entity.
+     */
+    private static final byte ALIVE = 1;
+
+    /**
+     * The state of a slot whose entity died and is removed at the end of the tick.
+     */
+    private static final byte DEAD = 2;
+
+    /**
+     * The number of bytes {@link #save} writes for a slot holding an entity.
+     */
+    private static final int ENTITY_SAVE_BYTES = 2 + 7 * 8 + 3 * 4 + 2;
+
+    /**
+     * The position of each entity, the top-left corner of its bounds.
+     */
+    private double[] x;
+    private double[] y;
+
+    /**
+     * The position of each entity at the start of the current tick, used to interpolate between ticks.
+     */
+    private double[] previousX;
+    private double[] previousY;
+
+    /**
+     * The velocity of each entity in pixels per second.
+     */
+    private double[] vx;
+    private double[] vy;
+
+    /**
+     * The size of each entity.
+     */
+    private float[] width;
+    private float[] height;
+
+    /**
+     * The scale of each entity, used to shrink explosions.
+     */
+    private double[] scale;
+
+    /**
+     * The speed of each entity in pixels per frame.
+     */
+    private float[] speed;
+
+    /**
+     * The kind of each entity, as the {@link EntityKind#ordinal()} of the kind.
+     */
+    private byte[] kind;
+
+    /**
+     * The state of each slot: {@link #FREE}, {@link #ALIVE} or {@link #DEAD}.
+     */
+    private byte[] state;
+
+    /**
+     * The name of the image used to draw each entity.
+     */
+    private String[] image;
+
+    /**
+     * The number of slots ever used. Slots from this index on have never held an entity.
+     */
+    private int high = 0;
+
+    /**
+     * The handles of the freed slots, the first {@link #freeCount} of which are in use as a stack.
+     */
+    private int[] free;
+    private int freeCount = 0;
+
+    /**
+     * The number of entities created in a fresh slot and in a freed slot.
+     */
+    private long created = 0;
+    private long reused = 0;
+
+    /**
+     * The image names written by the last {@link #save}, and the number written in place of the image of each slot,
+     * reused from save to save so that saving allocates nothing.
+     */
+    private final List<String> savedImages = new ArrayList<>();
+    private int[] savedImageIds;
+
+    /**
+     * The UTF-8 bytes of every image name saved so far, encoded once per name.
+     */
+    private final Map<String, byte[]> encodedImages = new HashMap<>();
+
+    /**
+     * Constructs an empty store with room for the given number of entities before growing.
+     *
+     * @param capacity The initial capacity.
+     */
+    public EntityStore(int capacity) {
+        resize(Math.max(capacity, 1));
+    }
+
+    /**
+     * Creates an entity at rest at the given position, reusing a freed slot if there is one.
+     *
+     * @param kind   The kind of the entity.
+     * @param x      The x-coordinate of the entity.
+     * @param y      The y-coordinate of the entity.
+     * @param width  The width of the entity.
+     * @param height The height of the entity.
+     * @param image  The name of the image used to draw the entity.
+     * @param speed  The speed of the entity in pixels per frame.
+     * @return The handle of the entity.
+     */
+    public int create(EntityKind kind, double x, double y, double width, double height, String image, double speed) {
+        int handle;
+        if (freeCount > 0) {
+            handle = free[--freeCount];
+            reused++;
+        } else {
+            if (high == state.length) {
+                resize(high * 2);
+            }
+            handle = high++;
+            created++;
+        }
+        this.x[handle] = x;
+        this.y[handle] = y;
+        previousX[handle] = x;
+        previousY[handle] = y;
+        vx[handle] = 0;
+        vy[handle] = 0;
+        this.width[handle] = (float) width;
+        this.height[handle] = (float) height;
+        scale[handle] = 1;
+        this.speed[handle] = (float) speed;
+        this.kind[handle] = (byte) kind.ordinal();
+        state[handle] = ALIVE;
+        this.image[handle] = image;
+        return handle;
+    }
+
+    /**
+     * Frees the slot of an entity so that a later entity can reuse it. The handle must not be used afterward.
+     *
+     * @param handle The handle of the entity.
+     */
+    public void free(int handle) {
+        state[handle] = FREE;
+        image[handle] = null;
+        free[freeCount++] = handle;
+    }
+
+    /**
+     * Grows every column to the given capacity.
+     *
+     * @param capacity The new capacity.
+     */
+    private void resize(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        previousX = grow(previousX, capacity);
+        previousY = grow(previousY, capacity);
+        vx = grow(vx, capacity);
+        vy = grow(vy, capacity);
+        scale = grow(scale, capacity);
+        width = width == null ? new float[capacity] : Arrays.copyOf(width, capacity);
+        height = height == null ? new float[capacity] : Arrays.copyOf(height, capacity);
+        speed = speed == null ? new float[capacity] : Arrays.copyOf(speed, capacity);
+        kind = kind == null ? new byte[capacity] : Arrays.copyOf(kind, capacity);
+        state = state == null ? new byte[capacity] : Arrays.copyOf(state, capacity);
+        image = image == null ? new String[capacity] : Arrays.copyOf(image, capacity);
+        free = free == null ? new int[capacity] : Arrays.copyOf(free, capacity);
+        savedImageIds = new int[capacity];
+    }
+
+    /**
+     * Grows a column of doubles, creating it if needed.
+     *
+     * @param column   The column, or null.
+     * @param capacity The new capacity.
+     * @return The grown column.
+     */
+    private static double[] grow(double[] column, int capacity) {
+        return column == null ? new double[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    /**
+     * Remembers the current position of the entities in a range of slots as their position at the start of the tick,
+     * in one sequential copy of each position column.
+     *
+     * @param from The first slot of the range.
+     * @param to   The slot after the last slot of the range.
+     */
+    public void savePositions(int from, int to) {
+        System.arraycopy(x, from, previousX, from, to - from);
+        System.arraycopy(y, from, previousY, from, to - from);
+    }
+
+    /**
+     * Advances an entity by its velocity over the given time step.
+     *
+     * @param handle The handle of the entity.
+     * @param dt     The time step in seconds.
+     */
+    public void move(int handle, double dt) {
+        x[handle] += vx[handle] * dt;
+        y[handle] += vy[handle] * dt;
+    }
+
+    /**
+     * Checks whether the bounds of two entities intersect. Touching edges count as an intersection, matching the
+     * behaviour of JavaFX bounds.
+     *
+     * @param a The handle of the first entity.
+     * @param b The handle of the second entity.
+     * @return True if both entities overlap, false otherwise.
+     */
+    public boolean intersects(int a, int b) {
+        return x[a] <= x[b] + width[b] && x[b] <= x[a] + width[a]
+                && y[a] <= y[b] + height[b] && y[b] <= y[a] + height[a];
+    }
+
+    /**
+     * Checks whether the path of a moving entity during the current tick intersects the bounds of another entity.
+     * The path is the box covering the moving entity at the start and at the end of the tick, which is exactly the
+     * area it swept when it moved along a single axis, so a fast entity cannot pass through a thin one between two
+     * ticks.
+     *
+     * @param moving The handle of the moving entity.
+     * @param other  The handle of the other entity, tested at its current position.
+     * @return True if the path overlaps the other entity, false otherwise.
+     */
+    public boolean intersectsSwept(int moving, int other) {
+        double left = getSweptX(moving);
+        double top = getSweptY(moving);
+        return left <= x[other] + width[other] && x[other] <= left + getSweptWidth(moving)
+                && top <= y[other] + height[other] && y[other] <= top + getSweptHeight(moving);
+    }
+
+    /**
+     * Gets the x-coordinate of the box covering an entity at the start and at the end of the current tick.
+     *
+     * @param handle The handle of the entity.
+     * @return The left edge of the swept box.
+     */
+    public double getSweptX(int handle) {
+        return Math.min(previousX[handle], x[handle]);
+    }
+
+    /**
+     * Gets the y-coordinate of the box covering an entity at the start and at the end of the current tick.
+     *
+     * @param handle The handle of the entity.
+     * @return The top edge of the swept box.
+     */
+    public double getSweptY(int handle) {
+        return Math.min(previousY[handle], y[handle]);
+    }
+
+    /**
+     * Gets the width of the box covering an entity at the start and at the end of the current tick.
+     *
+     * @param handle The handle of the entity.
+     * @return The width of the swept box.
+     */
+    public double getSweptWidth(int handle) {
+        return width[handle] + Math.abs(x[handle] - previousX[handle]);
+    }
+
+    /**
+     * Gets the height of the box covering an entity at the start and at the end of the current tick.
+     *
+     * @param handle The handle of the entity.
+     * @return The height of the swept box.
+     */
+    public double getSweptHeight(int handle) {
+        return height[handle] + Math.abs(y[handle] - previousY[handle]);
+    }
+
+    /**
+     * Gets the largest number of bytes {@link #save} writes for the entities currently in the store.
+     *
+     * @return The number of bytes.
+     */
+    public int getSaveSize() {
+        // Each image name is at most the short length and its bytes, and no more names than slots are written
+        return 32 + high * ENTITY_SAVE_BYTES + freeCount * 4 + Math.min(high, 256) * 66;
+    }
+
+    /**
+     * Writes every slot of the store, including the free list, so that {@link #restore} rebuilds it handle for handle.
+     * Image names are written once in a table and referenced by number.
+     *
+     * @param out The buffer to write to, with at least {@link #getSaveSize()} bytes remaining.
+     */
+    public void save(ByteBuffer out) {
+        out.putInt(high);
+        out.putInt(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            out.putInt(free[i]);
+        }
+        out.putLong(created);
+        out.putLong(reused);
+
+        // A level uses a handful of images, so a linear search beats hashing every slot
+        savedImages.clear();
+        for (int h = 0; h < high; h++) {
+            if (state[h] != FREE) {
+                savedImageIds[h] = savedImageId(image[h]);
+            }
+        }
+        out.putShort((short) savedImages.size());
+        for (int i = 0; i < savedImages.size(); i++) {
+            byte[] bytes = encodedImages.computeIfAbsent(savedImages.get(i), n -> n.getBytes(StandardCharsets.UTF_8));
+            out.putShort((short) bytes.length);
+            out.put(bytes);
+        }
+
+        for (int h = 0; h < high; h++) {
+            out.put(state[h]);
+            if (state[h] == FREE) {
+                continue;
+            }
+            out.put(kind[h]);
+            out.putDouble(x[h]);
+            out.putDouble(y[h]);
+            out.putDouble(previousX[h]);
+            out.putDouble(previousY[h]);
+            out.putDouble(vx[h]);
+            out.putDouble(vy[h]);
+            out.putDouble(scale[h]);
+            out.putFloat(width[h]);
+            out.putFloat(height[h]);
+            out.putFloat(speed[h]);
+            out.putShort((short) savedImageIds[h]);
+        }
+    }
+
+    /**
+     * Finds the number written in place of an image name by the save in progress, adding the name to the table of
+     * the save if it is new.
+     *
+     * @param name The image name.
+     * @return The number of the name in the table.
+     */
+    private int savedImageId(String name) {
+        for (int i = 0; i < savedImages.size(); i++) {
+            String saved = savedImages.get(i);
+            if (saved == name || saved.equals(name)) {
+                return i;
+            }
+        }
+        savedImages.add(name);
+        return savedImages.size() - 1;
+    }
+
+    /**
+     * Replaces every slot of the store with the slots written by {@link #save}. Handles taken before the save refer
+     * to the same entities again.
+     *
+     * @param in The buffer to read from.
+     */
+    public void restore(ByteBuffer in) {
+        int high = in.getInt();
+        if (high > state.length) {
+            resize(high);
+        }
+        Arrays.fill(state, FREE);
+        Arrays.fill(image, null);
+        this.high = high;
+        freeCount = in.getInt();
+        for (int i = 0; i < freeCount; i++) {
+            free[i] = in.getInt();
+        }
+        created = in.getLong();
+        reused = in.getLong();
+
+        // Image names are interned so that restoring many times does not keep copies of the same names
+        String[] names = new String[in.getShort()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[in.getShort()];
+            in.get(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8).intern();
+        }
+
+        for (int h = 0; h < high; h++) {
+            state[h] = in.get();
+            if (state[h] == FREE) {
+                continue;
+            }
+            kind[h] = in.get();
+            x[h] = in.getDouble();
+            y[h] = in.getDouble();
+            previousX[h] = in.getDouble();
+            previousY[h] = in.getDouble();
+            vx[h] = in.getDouble();
+            vy[h] = in.getDouble();
+            scale[h] = in.getDouble();
+            width[h] = in.getFloat();
+            height[h] = in.getFloat();
+            speed[h] = in.getFloat();
+            image[h] = names[in.getShort()];
+        }
+    }
+
+    /**
+     * Gets the number of slots ever used, an upper bound on the handles in use.
+     *
+     * @return The number of slots used.
+     */
+    public int getHighWater() {
+        return high;
+    }
+
+    /**
+     * Gets the number of entities in the store.
+     *
+     * @return The number of entities, living or dead.
+     */
+    public int size() {
+        return high - freeCount;
+    }
+
+    /**
+     * Gets the number of entities created in a slot that had never been used.
+     *
+     * @return The number of fresh slots used.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Gets the number of entities created in a freed slot.
+     *
+     * @return The number of slots reused.
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * Gets the x-coordinate of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The x-coordinate.
+     */
+    public double getX(int handle) {
+        return x[handle];
+    }
+
+    /**
+     * Sets the x-coordinate of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @param value  The new x-coordinate.
+     */
+    public void setX(int handle, double value) {
+        x[handle] = value;
+    }
+
+    /**
+     * Gets the y-coordinate of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The y-coordinate.
+     */
+    public double getY(int handle) {
+        return y[handle];
+    }
+
+    /**
+     * Sets the y-coordinate of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @param value  The new y-coordinate.
+     */
+    public void setY(int handle, double value) {
+        y[handle] = value;
+    }
+
+    /**
+     * Gets the x-coordinate of an entity interpolated between the start and the end of the current tick.
+     *
+     * @param handle The handle of the entity.
+     * @param alpha  The fraction of the tick elapsed, between 0 and 1.
+     * @return The interpolated x-coordinate.
+     */
+    public double getX(int handle, double alpha) {
+        return previousX[handle] + (x[handle] - previousX[handle]) * alpha;
+    }
+
+    /**
+     * Gets the y-coordinate of an entity interpolated between the start and the end of the current tick.
+     *
+     * @param handle The handle of the entity.
+     * @param alpha  The fraction of the tick elapsed, between 0 and 1.
+     * @return The interpolated y-coordinate.
+     */
+    public double getY(int handle, double alpha) {
+        return previousY[handle] + (y[handle] - previousY[handle]) * alpha;
+    }
+
+    /**
+     * Gets the horizontal velocity of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The velocity in pixels per second.
+     */
+    public double getVx(int handle) {
+        return vx[handle];
+    }
+
+    /**
+     * Sets the horizontal velocity of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @param value  The velocity in pixels per second.
+     */
+    public void setVx(int handle, double value) {
+        vx[handle] = value;
+    }
+
+    /**
+     * Gets the vertical velocity of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The velocity in pixels per second.
+     */
+    public double getVy(int handle) {
+        return vy[handle];
+    }
+
+    /**
+     * Sets the vertical velocity of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @param value  The velocity in pixels per second.
+     */
+    public void setVy(int handle, double value) {
+        vy[handle] = value;
+    }
+
+    /**
+     * Gets the width of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The width.
+     */
+    public double getWidth(int handle) {
+        return width[handle];
+    }
+
+    /**
+     * Gets the height of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The height.
+     */
+    public double getHeight(int handle) {
+        return height[handle];
+    }
+
+    /**
+     * Gets the scale of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The scale.
+     */
+    public double getScale(int handle) {
+        return scale[handle];
+    }
+
+    /**
+     * Sets the scale of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @param value  The new scale.
+     */
+    public void setScale(int handle, double value) {
+        scale[handle] = value;
+    }
+
+    /**
+     * Gets the speed of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The speed in pixels per frame.
+     */
+    public double getSpeed(int handle) {
+        return speed[handle];
+    }
+
+    /**
+     * Gets the kind of an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The kind.
+     */
+    public EntityKind getKind(int handle) {
+        return EntityKind.ALL[kind[handle]];
+    }
+
+    /**
+     * Gets the name of the image used to draw an entity.
+     *
+     * @param handle The handle of the entity.
+     * @return The image name, without directory or extension.
+     */
+    public String getImage(int handle) {
+        return image[handle];
+    }
+
+    /**
+     * Checks if an entity died this tick and waits to be removed.
+     *
+     * @param handle The handle of the entity.
+     * @return True if the entity is dead, false otherwise.
+     */
+    public boolean isDead(int handle) {
+        return state[handle] == DEAD;
+    }
+
+    /**
+     * Marks an entity as dead, to be removed at the end of the tick.
+     *
+     * @param handle The handle of the entity.
+     */
+    public void kill(int handle) {
+        state[handle] = DEAD;
+    }
+}
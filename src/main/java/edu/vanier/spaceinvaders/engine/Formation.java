@@ -0,0 +1,379 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The wave of invaders as one rigid block: a grid of slots moved together by a single shared offset. Each invader
+ * keeps its position relative to the formation in the {@link EntityStore}, which never changes, and is drawn at that
+ * position plus the offset. Moving the wave is therefore one addition per tick whatever its size.
+ *
+ * <p>The formation counts the living invaders of each column and row, so the leftmost and rightmost living columns
+ * and the bottom living row, which decide when the wave bounces off a wall or reaches the ground, are known without
+ * looking at the invaders. Collisions are found by turning a box into the range of slots it can overlap rather than
+ * through a spatial index rebuilt every tick.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class Formation {
+
+    /**
+     * The number of columns and rows of slots.
+     */
+    private int columns;
+    private int rows;
+
+    /**
+     * The position of the top-left slot when the offset is zero.
+     */
+    private double originX;
+    private double originY;
+
+    /**
+     * The distance between two adjacent columns and rows.
+     */
+    private double spacingX;
+    private double spacingY;
+
+    /**
+     * The size of an invader.
+     */
+    private double invaderWidth;
+    private double invaderHeight;
+
+    /**
+     * The shared offset of every invader.
+     */
+    private double offsetX;
+    private double offsetY;
+
+    /**
+     * The offset at the start of the current tick, used to interpolate between ticks.
+     */
+    private double previousOffsetX;
+    private double previousOffsetY;
+
+    /**
+     * The handle of the invader in each slot, row by row, or -1 if the slot is empty.
+     */
+    private int[] slots = new int[0];
+
+    /**
+     * The number of living invaders in each column and in each row.
+     */
+    private int[] columnCounts = new int[0];
+    private int[] rowCounts = new int[0];
+
+    /**
+     * The leftmost and rightmost columns and the bottom row holding a living invader, or -1 if there is none.
+     */
+    private int leftColumn = -1;
+    private int rightColumn = -1;
+    private int bottomRow = -1;
+
+    /**
+     * The number of living invaders.
+     */
+    private int alive = 0;
+
+    /**
+     * Empties the formation and lays out a new grid of slots, with a zero offset.
+     *
+     * @param columns       The number of columns.
+     * @param rows          The number of rows.
+     * @param originX       The x-coordinate of the left column.
+     * @param originY       The y-coordinate of the top row.
+     * @param spacingX      The distance between two adjacent columns.
+     * @param spacingY      The distance between two adjacent rows.
+     * @param invaderWidth  The width of an invader.
+     * @param invaderHeight The height of an invader.
+     */
+    public void reset(int columns, int rows, double originX, double originY, double spacingX, double spacingY,
+            double invaderWidth, double invaderHeight) {
+        this.columns = columns;
+        this.rows = rows;
+        this.originX = originX;
+        this.originY = originY;
+        this.spacingX = spacingX;
+        this.spacingY = spacingY;
+        this.invaderWidth = invaderWidth;
+        this.invaderHeight = invaderHeight;
+        offsetX = 0;
+        offsetY = 0;
+        previousOffsetX = 0;
+        previousOffsetY = 0;
+
+        if (slots.length < columns * rows) {
+            slots = new int[columns * rows];
+        }
+        if (columnCounts.length < columns) {
+            columnCounts = new int[columns];
+        }
+        if (rowCounts.length < rows) {
+            rowCounts = new int[rows];
+        }
+        Arrays.fill(slots, -1);
+        Arrays.fill(columnCounts, 0);
+        Arrays.fill(rowCounts, 0);
+        leftColumn = -1;
+        rightColumn = -1;
+        bottomRow = -1;
+        alive = 0;
+    }
+
+    /**
+     * Places an invader in an empty slot.
+     *
+     * @param column The column of the slot.
+     * @param row    The row of the slot.
+     * @param handle The handle of the invader.
+     */
+    public void place(int column, int row, int handle) {
+        slots[row * columns + column] = handle;
+        columnCounts[column]++;
+        rowCounts[row]++;
+        alive++;
+        if (leftColumn < 0 || column < leftColumn) {
+            leftColumn = column;
+        }
+        if (column > rightColumn) {
+            rightColumn = column;
+        }
+        if (row > bottomRow) {
+            bottomRow = row;
+        }
+    }
+
+    /**
+     * Empties a slot whose invader was killed, moving the edges of the formation inward if it was the last invader
+     * of an edge column or row.
+     *
+     * @param slot The index of the slot.
+     * @return The handle of the invader that was in the slot.
+     */
+    public int remove(int slot) {
+        int handle = slots[slot];
+        int column = slot % columns;
+        int row = slot / columns;
+        slots[slot] = -1;
+        columnCounts[column]--;
+        rowCounts[row]--;
+        alive--;
+        if (alive == 0) {
+            leftColumn = -1;
+            rightColumn = -1;
+            bottomRow = -1;
+            return handle;
+        }
+        while (columnCounts[leftColumn] == 0) {
+            leftColumn++;
+        }
+        while (columnCounts[rightColumn] == 0) {
+            rightColumn--;
+        }
+        while (rowCounts[bottomRow] == 0) {
+            bottomRow--;
+        }
+        return handle;
+    }
+
+    /**
+     * Remembers the current offset as the offset at the start of the tick.
+     */
+    public void savePosition() {
+        previousOffsetX = offsetX;
+        previousOffsetY = offsetY;
+    }
+
+    /**
+     * Moves every invader at once.
+     *
+     * @param dx The horizontal distance.
+     * @param dy The vertical distance.
+     */
+    public void move(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+    }
+
+    /**
+     * Finds the first living invader whose bounds intersect the given box, scanning rows from the bottom and columns
+     * from the left. Touching edges count as an intersection.
+     *
+     * @param x      The x-coordinate of the box.
+     * @param y      The y-coordinate of the box.
+     * @param width  The width of the box.
+     * @param height The height of the box.
+     * @return The index of the slot of the invader, or -1 if the box hits no invader.
+     */
+    public int findFirst(double x, double y, double width, double height) {
+        if (alive == 0) {
+            return -1;
+        }
+        // Candidate slots, widened by one on each side so that rounding never misses a touching invader
+        double left = originX + offsetX;
+        double top = originY + offsetY;
+        int firstColumn = Math.max(leftColumn, (int) Math.floor((x - invaderWidth - left) / spacingX));
+        int lastColumn = Math.min(rightColumn, (int) Math.floor((x + width - left) / spacingX) + 1);
+        int firstRow = Math.max(0, (int) Math.floor((y - invaderHeight - top) / spacingY));
+        int lastRow = Math.min(bottomRow, (int) Math.floor((y + height - top) / spacingY) + 1);
+
+        for (int row = lastRow; row >= firstRow; row--) {
+            if (rowCounts[row] == 0) {
+                continue;
+            }
+            double invaderY = top + row * spacingY;
+            if (invaderY > y + height || y > invaderY + invaderHeight) {
+                continue;
+            }
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int slot = row * columns + column;
+                if (slots[slot] < 0) {
+                    continue;
+                }
+                double invaderX = left + column * spacingX;
+                if (invaderX <= x + width && x <= invaderX + invaderWidth) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the handle of the invader in a slot.
+     *
+     * @param slot The index of the slot.
+     * @return The handle of the invader, or -1 if the slot is empty.
+     */
+    public int getInvader(int slot) {
+        return slots[slot];
+    }
+
+    /**
+     * Gets the x-coordinate of the leftmost living invader.
+     *
+     * @return The x-coordinate of the left edge of the formation.
+     */
+    public double getLeft() {
+        return originX + leftColumn * spacingX + offsetX;
+    }
+
+    /**
+     * Gets the x-coordinate of the rightmost living invader.
+     *
+     * @return The x-coordinate of the rightmost invader, not including its width.
+     */
+    public double getRight() {
+        return originX + rightColumn * spacingX + offsetX;
+    }
+
+    /**
+     * Gets the y-coordinate of the lowest living invader.
+     *
+     * @return The y-coordinate of the lowest invader, not including its height.
+     */
+    public double getBottom() {
+        return originY + bottomRow * spacingY + offsetY;
+    }
+
+    /**
+     * Gets the horizontal offset added to the position of every invader.
+     *
+     * @return The horizontal offset.
+     */
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    /**
+     * Gets the vertical offset added to the position of every invader.
+     *
+     * @return The vertical offset.
+     */
+    public double getOffsetY() {
+        return offsetY;
+    }
+
+    /**
+     * Gets the horizontal offset at the start of the current tick.
+     *
+     * @return The previous horizontal offset.
+     */
+    public double getPreviousOffsetX() {
+        return previousOffsetX;
+    }
+
+    /**
+     * Gets the vertical offset at the start of the current tick.
+     *
+     * @return The previous vertical offset.
+     */
+    public double getPreviousOffsetY() {
+        return previousOffsetY;
+    }
+
+    /**
+     * Gets the number of living invaders.
+     *
+     * @return The number of invaders in the formation.
+     */
+    public int size() {
+        return alive;
+    }
+
+    /**
+     * Gets the number of bytes {@link #save} writes.
+     *
+     * @return The number of bytes.
+     */
+    int getSaveSize() {
+        return 8 + 12 * 8 + columns * rows * 4;
+    }
+
+    /**
+     * Writes the layout, the offset and the invader in each slot.
+     *
+     * @param out The buffer to write to, with at least {@link #getSaveSize()} bytes remaining.
+     */
+    void save(ByteBuffer out) {
+        out.putInt(columns);
+        out.putInt(rows);
+        out.putDouble(originX);
+        out.putDouble(originY);
+        out.putDouble(spacingX);
+        out.putDouble(spacingY);
+        out.putDouble(invaderWidth);
+        out.putDouble(invaderHeight);
+        out.putDouble(offsetX);
+        out.putDouble(offsetY);
+        out.putDouble(previousOffsetX);
+        out.putDouble(previousOffsetY);
+        for (int slot = 0; slot < columns * rows; slot++) {
+            out.putInt(slots[slot]);
+        }
+    }
+
+    /**
+     * Replaces the formation with the one written by {@link #save}, recounting the invaders of each column and row.
+     *
+     * @param in The buffer to read from.
+     */
+    void restore(ByteBuffer in) {
+        int columns = in.getInt();
+        int rows = in.getInt();
+        reset(columns, rows, in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(),
+                in.getDouble());
+        offsetX = in.getDouble();
+        offsetY = in.getDouble();
+        previousOffsetX = in.getDouble();
+        previousOffsetY = in.getDouble();
+        for (int slot = 0; slot < columns * rows; slot++) {
+            int handle = in.getInt();
+            if (handle >= 0) {
+                place(slot % columns, slot / columns, handle);
+            }
+        }
+    }
+}
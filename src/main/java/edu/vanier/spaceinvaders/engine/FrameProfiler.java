@@ -0,0 +1,296 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import edu.vanier.spaceinvaders.utils.AllocationMeter;
+import edu.vanier.spaceinvaders.utils.Histogram;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects timing metrics for the frames of the game over a reporting window: the time spent in each {@link Phase},
+ * a histogram of frame times, and the garbage collections and heap allocations that happened meanwhile. Recording
+ * is allocation-free; only {@link #formatHud(Snapshot)} and {@link #formatCsv(Snapshot)} build strings, once per
+ * window.
+ *
+ * <p>The phases of a tick may be timed on the simulation thread with {@link #begin()} and {@link #mark(Phase)} while
+ * frames and rendering are recorded on the JavaFX thread, so phase times and entity counts are kept in atomics.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class FrameProfiler {
+
+    /**
+     * The header of the rows produced by {@link #formatCsv(Snapshot)}.
+     */
+    public static final String CSV_HEADER = "time_ms,frames,fps,frame_p50_ms,frame_p99_ms,frame_max_ms,"
+            + "input_ms,enemy_sweep_ms,collision_ms,cleanup_ms,spawn_ms,render_ms,"
+            + "players,enemies,player_bullets,enemy_bullets,explosions,entities_per_sec,gc_count,gc_ms,alloc_bytes_per_frame";
+
+    /**
+     * The garbage collectors of the JVM.
+     */
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    /**
+     * The frame times of the window, in buckets of 50 microseconds up to 250 milliseconds.
+     */
+    private final Histogram frameTimes = new Histogram(50_000, 5_000);
+
+    /**
+     * The time spent in each phase during the window, indexed by {@link Phase#ordinal()}.
+     */
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.ALL.length);
+
+    /**
+     * The number of entities updated by the ticks of the window.
+     */
+    private final AtomicLong entities = new AtomicLong();
+
+    /**
+     * The time of the last phase boundary, only used by the thread timing the ticks.
+     */
+    private long markTime = 0;
+
+    /**
+     * The time at which the window started.
+     */
+    private long windowStart = System.nanoTime();
+
+    /**
+     * The collections, collection time and allocated bytes at the start of the window.
+     */
+    private long gcCountStart = gcCount();
+    private long gcTimeStart = gcTime();
+    private long allocatedStart = AllocationMeter.allocatedBytes();
+
+    /**
+     * Starts timing the first phase of a sequence.
+     */
+    public void begin() {
+        begin(System.nanoTime());
+    }
+
+    /**
+     * Starts timing the first phase of a sequence at a time already read.
+     *
+     * @param now The current time in nanoseconds.
+     */
+    public void begin(long now) {
+        markTime = now;
+    }
+
+    /**
+     * Ends the current phase, adding the time since the previous boundary to it, and starts timing the next one.
+     *
+     * @param phase The phase that just ended.
+     */
+    public void mark(Phase phase) {
+        mark(phase, System.nanoTime());
+    }
+
+    /**
+     * Ends the current phase at a time already read, so that several timers can share one clock read.
+     *
+     * @param phase The phase that just ended.
+     * @param now   The current time in nanoseconds.
+     */
+    public void mark(Phase phase, long now) {
+        phaseNanos.addAndGet(phase.ordinal(), now - markTime);
+        markTime = now;
+    }
+
+    /**
+     * Adds time to a phase timed outside of a {@link #begin()} and {@link #mark(Phase)} sequence, such as rendering
+     * on another thread than the ticks.
+     *
+     * @param phase The phase.
+     * @param nanos The time spent in the phase in nanoseconds.
+     */
+    public void add(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Records the duration of a frame.
+     *
+     * @param nanos The time between this frame and the previous one in nanoseconds.
+     */
+    public void recordFrame(long nanos) {
+        frameTimes.record(nanos);
+    }
+
+    /**
+     * Records the number of entities updated by a tick.
+     *
+     * @param count The number of entities in the world at the start of the tick.
+     */
+    public void recordEntities(int count) {
+        entities.addAndGet(count);
+    }
+
+    /**
+     * Gets the time elapsed since the window started.
+     *
+     * @return The length of the window in nanoseconds.
+     */
+    public long getWindowNanos() {
+        return System.nanoTime() - windowStart;
+    }
+
+    /**
+     * Starts a new window, forgetting the metrics of the current one.
+     */
+    public void resetWindow() {
+        frameTimes.reset();
+        entities.set(0);
+        for (int i = 0; i < phaseNanos.length(); i++) {
+            phaseNanos.set(i, 0);
+        }
+        windowStart = System.nanoTime();
+        gcCountStart = gcCount();
+        gcTimeStart = gcTime();
+        allocatedStart = AllocationMeter.allocatedBytes();
+    }
+
+    /**
+     * Formats the metrics of the window as a multi-line text for the on-screen HUD.
+     *
+     * @param snapshot The snapshot whose entities are counted.
+     * @return The HUD text.
+     */
+    public String formatHud(Snapshot snapshot) {
+        long frames = Math.max(frameTimes.getCount(), 1);
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%.0f fps  frame p50 %.2f  p99 %.2f  max %.2f ms%n",
+                fps(), millis(frameTimes.percentile(0.5)), millis(frameTimes.percentile(0.99)),
+                millis(frameTimes.getMax())));
+        for (Phase phase : Phase.ALL) {
+            text.append(String.format(Locale.ROOT, "%-12s %.3f ms%n", phase.name().toLowerCase(Locale.ROOT),
+                    millis(phaseNanos.get(phase.ordinal())) / frames));
+        }
+        for (EntityKind kind : EntityKind.ALL) {
+            text.append(String.format(Locale.ROOT, "%-14s %d%n", kind.name().toLowerCase(Locale.ROOT),
+                    snapshot.count(kind)));
+        }
+        text.append(String.format(Locale.ROOT, "%.0f entities/s%n", entitiesPerSecond()));
+        text.append(String.format(Locale.ROOT, "gc %d (%d ms)  alloc %d B/frame",
+                gcCount() - gcCountStart, gcTime() - gcTimeStart,
+                (AllocationMeter.allocatedBytes() - allocatedStart) / frames));
+        return text.toString();
+    }
+
+    /**
+     * Formats the metrics of the window as a CSV row matching {@link #CSV_HEADER}, counting the entities of a world
+     * ticked on the calling thread.
+     *
+     * @param world The world whose entities are counted.
+     * @return The CSV row.
+     */
+    public String formatCsv(World world) {
+        int[] counts = new int[EntityKind.ALL.length];
+        for (EntityKind kind : EntityKind.ALL) {
+            counts[kind.ordinal()] = world.getEntities(kind).size();
+        }
+        return formatCsv(counts);
+    }
+
+    /**
+     * Formats the metrics of the window as a CSV row matching {@link #CSV_HEADER}.
+     *
+     * @param snapshot The snapshot whose entities are counted.
+     * @return The CSV row.
+     */
+    public String formatCsv(Snapshot snapshot) {
+        int[] counts = new int[EntityKind.ALL.length];
+        for (EntityKind kind : EntityKind.ALL) {
+            counts[kind.ordinal()] = snapshot.count(kind);
+        }
+        return formatCsv(counts);
+    }
+
+    /**
+     * Formats the metrics of the window as a CSV row matching {@link #CSV_HEADER}.
+     *
+     * @param counts The number of entities of each kind, indexed by {@link EntityKind#ordinal()}.
+     * @return The CSV row.
+     */
+    private String formatCsv(int[] counts) {
+        long frames = Math.max(frameTimes.getCount(), 1);
+        StringBuilder row = new StringBuilder();
+        row.append(System.currentTimeMillis()).append(',')
+                .append(frameTimes.getCount()).append(',')
+                .append(String.format(Locale.ROOT, "%.1f,%.3f,%.3f,%.3f", fps(),
+                        millis(frameTimes.percentile(0.5)), millis(frameTimes.percentile(0.99)),
+                        millis(frameTimes.getMax())));
+        for (Phase phase : Phase.ALL) {
+            row.append(String.format(Locale.ROOT, ",%.4f", millis(phaseNanos.get(phase.ordinal())) / frames));
+        }
+        for (int count : counts) {
+            row.append(',').append(count);
+        }
+        row.append(String.format(Locale.ROOT, ",%.0f", entitiesPerSecond()));
+        row.append(',').append(gcCount() - gcCountStart)
+                .append(',').append(gcTime() - gcTimeStart)
+                .append(',').append((AllocationMeter.allocatedBytes() - allocatedStart) / frames);
+        return row.toString();
+    }
+
+    /**
+     * Gets the frame rate over the window.
+     *
+     * @return The number of frames per second.
+     */
+    private double fps() {
+        return frameTimes.getCount() / (getWindowNanos() / 1e9);
+    }
+
+    /**
+     * Gets the number of entities updated per second over the window.
+     *
+     * @return The number of entities processed per second.
+     */
+    private double entitiesPerSecond() {
+        return entities.get() / (getWindowNanos() / 1e9);
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds.
+     */
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Gets the number of garbage collections since the JVM started.
+     *
+     * @return The total number of collections.
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the time spent in garbage collection since the JVM started.
+     *
+     * @return The total collection time in milliseconds.
+     */
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            time += Math.max(collector.getCollectionTime(), 0);
+        }
+        return time;
+    }
+}
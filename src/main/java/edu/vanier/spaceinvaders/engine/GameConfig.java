@@ -0,0 +1,386 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The rules of a game: the size of the invader waves, the number of levels, the enemy fire and the player's lives.
+ * The defaults reproduce the original game; the {@link #stress()} preset plays endless waves of 20,000 invaders
+ * against an invincible spaceship so that the engine can be run at scale for as long as needed.
+ *
+ * <p>A configuration can be read from a properties file or from {@code --key=value} arguments, using the keys
+ * {@code columns}, {@code rows}, {@code levels}, {@code lives}, {@code fire-chance}, {@code fire-period} and
+ * {@code invincible}. The key {@code stress} starts from the stress preset and {@code config} names a properties file
+ * whose values are overridden by the other arguments.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class GameConfig {
+
+    /**
+     * The default interval in seconds at which enemies get a chance to shoot.
+     */
+    public static final double DEFAULT_FIRE_PERIOD = 2;
+
+    /**
+     * The default probability that an enemy shoots when the fire interval expires.
+     */
+    public static final double DEFAULT_FIRE_CHANCE = 0.3;
+
+    /**
+     * The number of columns of invaders.
+     */
+    private int columns = 5;
+
+    /**
+     * The number of rows of invaders, or 0 to spawn {@code level + 2} rows.
+     */
+    private int rows = 0;
+
+    /**
+     * The number of levels to clear to win, or 0 for endless levels.
+     */
+    private int levels = World.MAX_LEVEL;
+
+    /**
+     * The number of lives the player starts with.
+     */
+    private int lives = 3;
+
+    /**
+     * The probability that an enemy shoots when the fire interval expires.
+     */
+    private double fireChance = DEFAULT_FIRE_CHANCE;
+
+    /**
+     * The interval in seconds at which enemies get a chance to shoot.
+     */
+    private double firePeriod = DEFAULT_FIRE_PERIOD;
+
+    /**
+     * Flag indicating whether the spaceship ignores hits, in which case a wave reaching the bottom starts over.
+     */
+    private boolean invincible = false;
+
+    /**
+     * Creates the stress preset: endless levels of 200 by 100 invaders, an invincible spaceship and enemy fire
+     * keeping thousands of bullets in flight.
+     *
+     * @return The stress configuration.
+     */
+    public static GameConfig stress() {
+        GameConfig config = new GameConfig();
+        config.columns = 200;
+        config.rows = 100;
+        config.levels = 0;
+        config.fireChance = 0.05;
+        config.invincible = true;
+        return config;
+    }
+
+    /**
+     * Reads a configuration from properties, starting from the stress preset if the {@code stress} key is true and
+     * from the defaults otherwise. Unknown keys are ignored.
+     *
+     * @param properties The properties to read.
+     * @return The configuration.
+     * @throws IllegalArgumentException If a value is malformed or out of range.
+     */
+    public static GameConfig fromProperties(Properties properties) {
+        GameConfig config = Boolean.parseBoolean(properties.getProperty("stress")) ? stress() : new GameConfig();
+        try {
+            config.setColumns(Integer.parseInt(properties.getProperty("columns", String.valueOf(config.columns))));
+            config.setRows(Integer.parseInt(properties.getProperty("rows", String.valueOf(config.rows))));
+            config.setLevels(Integer.parseInt(properties.getProperty("levels", String.valueOf(config.levels))));
+            config.setLives(Integer.parseInt(properties.getProperty("lives", String.valueOf(config.lives))));
+            config.setFireChance(Double.parseDouble(
+                    properties.getProperty("fire-chance", String.valueOf(config.fireChance))));
+            config.setFirePeriod(Double.parseDouble(
+                    properties.getProperty("fire-period", String.valueOf(config.firePeriod))));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed number in game configuration: " + ex.getMessage(), ex);
+        }
+        config.invincible = Boolean.parseBoolean(
+                properties.getProperty("invincible", String.valueOf(config.invincible)));
+        return config;
+    }
+
+    /**
+     * Reads a configuration from command-line arguments of the form {@code --key=value}, where a bare {@code --key}
+     * means {@code --key=true}. If a {@code config} file is given, its properties are loaded first.
+     *
+     * @param args The command-line arguments.
+     * @return The configuration.
+     * @throws IOException              If the configuration file cannot be read.
+     * @throws IllegalArgumentException If a value is malformed or out of range.
+     */
+    public static GameConfig fromArguments(List<String> args) throws IOException {
+        Properties arguments = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                arguments.setProperty(arg.substring(2), "true");
+            } else {
+                arguments.setProperty(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+
+        Properties properties = new Properties();
+        String file = arguments.getProperty("config");
+        if (file != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(file))) {
+                properties.load(reader);
+            }
+        }
+        properties.putAll(arguments);
+        return fromProperties(properties);
+    }
+
+    /**
+     * Writes the configuration to a binary stream.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(columns);
+        out.writeInt(rows);
+        out.writeInt(levels);
+        out.writeInt(lives);
+        out.writeDouble(fireChance);
+        out.writeDouble(firePeriod);
+        out.writeBoolean(invincible);
+    }
+
+    /**
+     * Reads a configuration written by {@link #write(DataOutput)}.
+     *
+     * @param in The stream to read from.
+     * @return The configuration.
+     * @throws IOException If the stream cannot be read or holds invalid values.
+     */
+    public static GameConfig read(DataInput in) throws IOException {
+        GameConfig config = new GameConfig();
+        try {
+            config.setColumns(in.readInt());
+            config.setRows(in.readInt());
+            config.setLevels(in.readInt());
+            config.setLives(in.readInt());
+            config.setFireChance(in.readDouble());
+            config.setFirePeriod(in.readDouble());
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Invalid game configuration", ex);
+        }
+        config.invincible = in.readBoolean();
+        return config;
+    }
+
+    /**
+     * Creates a copy of the configuration.
+     *
+     * @return The copy.
+     */
+    public GameConfig copy() {
+        GameConfig copy = new GameConfig();
+        copy.columns = columns;
+        copy.rows = rows;
+        copy.levels = levels;
+        copy.lives = lives;
+        copy.fireChance = fireChance;
+        copy.firePeriod = firePeriod;
+        copy.invincible = invincible;
+        return copy;
+    }
+
+    /**
+     * Gets the number of rows of invaders spawned by the given level.
+     *
+     * @param level The level.
+     * @return The number of rows.
+     */
+    public int rowsAt(int level) {
+        return rows > 0 ? rows : level + 2;
+    }
+
+    /**
+     * Checks if levels never run out.
+     *
+     * @return True if the game has endless levels, false otherwise.
+     */
+    public boolean isEndless() {
+        return levels == 0;
+    }
+
+    /**
+     * Gets the number of columns of invaders.
+     *
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Sets the number of columns of invaders.
+     *
+     * @param columns The number of columns, at least 1.
+     * @throws IllegalArgumentException If the number is below 1.
+     */
+    public void setColumns(int columns) {
+        if (columns < 1) {
+            throw new IllegalArgumentException("columns must be at least 1: " + columns);
+        }
+        this.columns = columns;
+    }
+
+    /**
+     * Gets the number of rows of invaders.
+     *
+     * @return The number of rows, or 0 if it depends on the level.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Sets the number of rows of invaders.
+     *
+     * @param rows The number of rows, or 0 to spawn {@code level + 2} rows.
+     * @throws IllegalArgumentException If the number is negative.
+     */
+    public void setRows(int rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must not be negative: " + rows);
+        }
+        this.rows = rows;
+    }
+
+    /**
+     * Gets the number of levels to clear to win.
+     *
+     * @return The number of levels, or 0 for endless levels.
+     */
+    public int getLevels() {
+        return levels;
+    }
+
+    /**
+     * Sets the number of levels to clear to win.
+     *
+     * @param levels The number of levels, or 0 for endless levels.
+     * @throws IllegalArgumentException If the number is negative.
+     */
+    public void setLevels(int levels) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("levels must not be negative: " + levels);
+        }
+        this.levels = levels;
+    }
+
+    /**
+     * Gets the number of lives the player starts with.
+     *
+     * @return The number of lives.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Sets the number of lives the player starts with.
+     *
+     * @param lives The number of lives, at least 1.
+     * @throws IllegalArgumentException If the number is below 1.
+     */
+    public void setLives(int lives) {
+        if (lives < 1) {
+            throw new IllegalArgumentException("lives must be at least 1: " + lives);
+        }
+        this.lives = lives;
+    }
+
+    /**
+     * Gets the probability that an enemy shoots when the fire interval expires.
+     *
+     * @return The probability.
+     */
+    public double getFireChance() {
+        return fireChance;
+    }
+
+    /**
+     * Sets the probability that an enemy shoots when the fire interval expires.
+     *
+     * @param fireChance The probability, between 0 and 1.
+     * @throws IllegalArgumentException If the probability is out of range.
+     */
+    public void setFireChance(double fireChance) {
+        if (!(fireChance >= 0 && fireChance <= 1)) {
+            throw new IllegalArgumentException("fire-chance must be between 0 and 1: " + fireChance);
+        }
+        this.fireChance = fireChance;
+    }
+
+    /**
+     * Gets the interval at which enemies get a chance to shoot.
+     *
+     * @return The interval in seconds.
+     */
+    public double getFirePeriod() {
+        return firePeriod;
+    }
+
+    /**
+     * Sets the interval at which enemies get a chance to shoot.
+     *
+     * @param firePeriod The interval in seconds, greater than 0.
+     * @throws IllegalArgumentException If the interval is not positive.
+     */
+    public void setFirePeriod(double firePeriod) {
+        if (!(firePeriod > 0)) {
+            throw new IllegalArgumentException("fire-period must be positive: " + firePeriod);
+        }
+        this.firePeriod = firePeriod;
+    }
+
+    /**
+     * Checks if the spaceship ignores hits.
+     *
+     * @return True if the spaceship is invincible, false otherwise.
+     */
+    public boolean isInvincible() {
+        return invincible;
+    }
+
+    /**
+     * Sets whether the spaceship ignores hits. An invincible spaceship never loses lives, and a wave reaching the
+     * bottom of the screen starts over instead of ending the game.
+     *
+     * @param invincible True to make the spaceship invincible.
+     */
+    public void setInvincible(boolean invincible) {
+        this.invincible = invincible;
+    }
+
+    /**
+     * Describes the configuration.
+     *
+     * @return The values of the configuration.
+     */
+    @Override
+    public String toString() {
+        return "columns=" + columns + ", rows=" + (rows > 0 ? rows : "level+2")
+                + ", levels=" + (levels > 0 ? levels : "endless") + ", lives=" + lives
+                + ", fire-chance=" + fireChance + ", fire-period=" + firePeriod + ", invincible=" + invincible;
+    }
+}
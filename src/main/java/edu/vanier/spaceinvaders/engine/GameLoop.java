@@ -0,0 +1,126 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * Drives a {@link World} with a fixed time step from variable timestamps, such as the wake-ups of a
+ * {@link SimulationThread}. Elapsed time is added to an accumulator and the world is ticked once per whole step, so
+ * the game runs at the same speed however irregularly it is woken up. The number of ticks per call is capped so that a
+ * long stall does not trigger a burst of catch-up ticks, and the fraction of a step left in the accumulator is
+ * returned so that rendering can interpolate between ticks.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class GameLoop {
+
+    /**
+     * The maximum number of ticks run for a single frame. Time beyond this is dropped and the game slows down instead.
+     */
+    public static final int MAX_TICKS_PER_FRAME = 5;
+
+    /**
+     * The world being simulated.
+     */
+    private final World world;
+
+    /**
+     * The fixed time step in seconds.
+     */
+    private final double step;
+
+    /**
+     * The timestamp of the previous frame in nanoseconds, or -1 before the first frame.
+     */
+    private long lastTime = -1;
+
+    /**
+     * The simulated time still owed to the world, in seconds.
+     */
+    private double accumulator = 0;
+
+    /**
+     * The total number of ticks run.
+     */
+    private long ticks = 0;
+
+    /**
+     * The total simulated time dropped because of the catch-up cap, in seconds.
+     */
+    private double droppedTime = 0;
+
+    /**
+     * Constructs a loop ticking the world with the fixed step of {@link World#FRAME}.
+     *
+     * @param world The world to simulate.
+     */
+    public GameLoop(World world) {
+        this(world, World.FRAME);
+    }
+
+    /**
+     * Constructs a loop ticking the world with the given fixed step.
+     *
+     * @param world The world to simulate.
+     * @param step  The fixed time step in seconds.
+     */
+    public GameLoop(World world, double step) {
+        this.world = world;
+        this.step = step;
+    }
+
+    /**
+     * Runs as many ticks as fit in the time elapsed since the previous frame.
+     *
+     * @param now The current timestamp in nanoseconds, as given by {@link System#nanoTime()}.
+     * @return The fraction of a step left in the accumulator, between 0 and 1, used to interpolate rendering.
+     */
+    public double advance(long now) {
+        if (lastTime < 0) {
+            lastTime = now;
+            return 0;
+        }
+        accumulator += (now - lastTime) / 1e9;
+        lastTime = now;
+
+        int frameTicks = 0;
+        while (accumulator >= step && frameTicks < MAX_TICKS_PER_FRAME) {
+            world.tick(step);
+            accumulator -= step;
+            frameTicks++;
+        }
+        ticks += frameTicks;
+
+        // Drop whole steps that could not be caught up
+        if (accumulator >= step) {
+            double dropped = accumulator - accumulator % step;
+            droppedTime += dropped;
+            accumulator -= dropped;
+        }
+        return accumulator / step;
+    }
+
+    /**
+     * Forgets the previous frame so that time spent while the loop was stopped is not simulated.
+     */
+    public void reset() {
+        lastTime = -1;
+        accumulator = 0;
+    }
+
+    /**
+     * Gets the total number of ticks run.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the total simulated time dropped because of the catch-up cap.
+     *
+     * @return The dropped time in seconds.
+     */
+    public double getDroppedTime() {
+        return droppedTime;
+    }
+}
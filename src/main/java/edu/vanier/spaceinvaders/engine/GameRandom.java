@@ -0,0 +1,101 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * A small, seedable random number generator (SplitMix64) owned by each game. Its whole state is a single long that
+ * can be read and restored, so a game started from the same seed with the same inputs always plays out the same way.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class GameRandom {
+
+    /**
+     * The increment of the state between two numbers, the golden ratio as a fixed-point fraction.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The current state of the generator.
+     */
+    private long state;
+
+    /**
+     * Constructs a generator starting from the given seed.
+     *
+     * @param seed The seed.
+     */
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Generates the next pseudorandom long.
+     *
+     * @return A long uniformly distributed over all values.
+     */
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Generates the next pseudorandom double.
+     *
+     * @return A double uniformly distributed between 0 (inclusive) and 1 (exclusive).
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Generates the next pseudorandom int below a bound.
+     *
+     * @param bound The exclusive upper bound, which must be positive.
+     * @return An int between 0 (inclusive) and the bound (exclusive).
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Derives a pseudorandom double from a seed and an index without advancing a generator. Each index gets the
+     * number a generator with the given state would return at that position, so many entities can draw numbers in
+     * parallel, in any order, and still get the same numbers.
+     *
+     * @param seed  The state shared by every index, usually drawn from a generator with {@link #nextLong()}.
+     * @param index The index of the number, at least 0.
+     * @return A double uniformly distributed between 0 (inclusive) and 1 (exclusive).
+     */
+    public static double doubleAt(long seed, int index) {
+        return (mix(seed + (index + 1L) * GOLDEN_GAMMA) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Scrambles a state into a well-distributed long.
+     *
+     * @param z The state.
+     * @return The scrambled value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the current state of the generator.
+     *
+     * @return The state.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state previously returned by {@link #getState()}.
+     *
+     * @param state The state to restore.
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+}
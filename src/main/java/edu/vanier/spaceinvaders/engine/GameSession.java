@@ -0,0 +1,244 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The state of one game played in a {@link World}: the score, lives and level, and whether the game is over. Every
+ * change goes through a method naming the event that caused it, which notifies every {@link WorldListener} added of
+ * the event, so the presentation layer learns about kills, hits, cleared levels and the end of the game without polling
+ * the state. Each world owns its own session, so any number of games can run side by side in one process.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class GameSession {
+
+    /**
+     * The number of bytes written by {@link #save}.
+     */
+    static final int SAVE_BYTES = 13;
+
+    /**
+     * The listeners notified of the events of the game.
+     */
+    private final ListenerList listeners = new ListenerList();
+
+    /**
+     * The number of lives remaining for the player.
+     */
+    private int lives = 3;
+
+    /**
+     * The current game level.
+     */
+    private int level = 1;
+
+    /**
+     * The current player score.
+     */
+    private int score = 0;
+
+    /**
+     * Flag indicating the game state.
+     */
+    private boolean gameOver = false;
+
+    /**
+     * Flag indicating whether the game ended because every level was cleared.
+     */
+    private boolean won = false;
+
+    /**
+     * The number of levels started since the session was created, across every game.
+     */
+    private long levelStarts = 0;
+
+    /**
+     * Resets the score and lives for a new game starting at the given level.
+     *
+     * @param level The level to start, at least 1.
+     * @param lives The number of lives of the player.
+     */
+    public void start(int level, int lives) {
+        this.level = level;
+        this.lives = lives;
+        score = 0;
+        won = false;
+        gameOver = false;
+    }
+
+    /**
+     * Records the start of the current level.
+     */
+    public void levelStarted() {
+        gameOver = false;
+        levelStarts++;
+        listeners.onLevelStarted(level);
+    }
+
+    /**
+     * Records the kill of an enemy.
+     *
+     * @param points The points earned by the kill.
+     */
+    public void enemyKilled(int points) {
+        score += points;
+        listeners.onEnemyKilled(score);
+    }
+
+    /**
+     * Records a hit on the spaceship, ending the game when no lives remain.
+     *
+     * @param lost The number of lives lost, or {@link Integer#MAX_VALUE} to lose every life.
+     * @return True if the hit took the last life, false otherwise.
+     */
+    public boolean playerHit(int lost) {
+        boolean alive = lives > 0;
+        lives = Math.max(0, lives - lost);
+        listeners.onPlayerHit(lives);
+        if (lives == 0) {
+            end(false);
+        }
+        return alive && lives == 0;
+    }
+
+    /**
+     * Records that every enemy of the current level was killed, and moves on to the next level unless it was the
+     * last one, in which case the player wins.
+     *
+     * @param last Flag indicating whether the current level is the last one.
+     */
+    public void levelCleared(boolean last) {
+        listeners.onLevelCleared(level);
+        if (last) {
+            end(true);
+        } else {
+            level++;
+        }
+    }
+
+    /**
+     * Ends the game, unless it is already over.
+     *
+     * @param won Flag indicating whether every level was cleared.
+     */
+    public void end(boolean won) {
+        if (gameOver) {
+            return;
+        }
+        this.won = won;
+        gameOver = true;
+        listeners.onGameOver(won, score);
+    }
+
+    /**
+     * Subscribes a listener to the events of the game, after the listeners already subscribed.
+     *
+     * @param listener The listener to notify.
+     */
+    public void addListener(WorldListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unsubscribes a listener from the events of the game.
+     *
+     * @param listener The listener to stop notifying.
+     */
+    public void removeListener(WorldListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the listeners notified of the events of the game, through which the world raises its sounds.
+     *
+     * @return The listeners.
+     */
+    ListenerList getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Checks if the game ended because every level was cleared.
+     *
+     * @return True if the player won, false otherwise.
+     */
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * Gets the number of lives remaining for the player.
+     *
+     * @return The number of lives.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the current game level.
+     *
+     * @return The current level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the current player score.
+     *
+     * @return The current score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of levels started since the session was created. It grows with every level and every new
+     * game, so a change tells that the interface must be reset.
+     *
+     * @return The number of levels started.
+     */
+    public long getLevelStarts() {
+        return levelStarts;
+    }
+
+    /**
+     * Writes the score, lives, level and outcome of the game.
+     *
+     * @param out The buffer to write to, with at least {@link #SAVE_BYTES} bytes remaining.
+     */
+    void save(ByteBuffer out) {
+        out.putInt(lives);
+        out.putInt(level);
+        out.putInt(score);
+        out.put((byte) ((gameOver ? 1 : 0) | (won ? 2 : 0)));
+    }
+
+    /**
+     * Replaces the state of the game with the state written by {@link #save}. Restoring counts as starting a level,
+     * so that views following the number of levels started show the restored level.
+     *
+     * @param in The buffer to read from.
+     */
+    void restore(ByteBuffer in) {
+        lives = in.getInt();
+        level = in.getInt();
+        score = in.getInt();
+        int flags = in.get();
+        gameOver = (flags & 1) != 0;
+        won = (flags & 2) != 0;
+        levelStarts++;
+        listeners.onLevelStarted(level);
+    }
+}
@@ -0,0 +1,198 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One game played without a window by a {@link SessionManager}, with its own {@link World} and player. Each session
+ * has a tick budget: a rate it may not exceed, such as 60 ticks per second to play in real time, or none to play as
+ * fast as the workers allow, and an optional number of ticks after which it finishes. A new game starts whenever the
+ * current one is over, so a session keeps playing until its budget is spent.
+ *
+ * <p>Sessions share nothing with each other, so any worker can tick any session, but only one at a time.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class HeadlessSession {
+
+    /**
+     * The number identifying the session in its manager, also the seed of its world.
+     */
+    private final int id;
+
+    /**
+     * The world simulated for the session.
+     */
+    private final World world;
+
+    /**
+     * The player choosing the input of each tick from the state of the world.
+     */
+    private final PlayerController player;
+
+    /**
+     * The largest number of ticks per second, or 0 to tick as fast as possible.
+     */
+    private final double ticksPerSecond;
+
+    /**
+     * The number of ticks after which the session finishes, or 0 to play forever.
+     */
+    private final long maxTicks;
+
+    /**
+     * Flag held by the worker ticking the session.
+     */
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * The time the session was first ticked in nanoseconds, or -1 before.
+     */
+    private long startTime = -1;
+
+    /**
+     * The number of ticks run, written by one worker at a time and read by the reporting thread.
+     */
+    private volatile long ticks = 0;
+
+    /**
+     * The number of games finished and the sum of their scores.
+     */
+    private volatile int games = 0;
+    private volatile long totalScore = 0;
+
+    /**
+     * Constructs a session playing a game with the given rules.
+     *
+     * @param id             The number identifying the session, also the seed of its world.
+     * @param config         The rules of the game.
+     * @param player         The player choosing the input of each tick.
+     * @param ticksPerSecond The largest number of ticks per second, or 0 to tick as fast as possible.
+     * @param maxTicks       The number of ticks after which the session finishes, or 0 to play forever.
+     * @throws IllegalArgumentException If the rate or the number of ticks is negative.
+     */
+    public HeadlessSession(int id, GameConfig config, PlayerController player, double ticksPerSecond,
+            long maxTicks) {
+        if (ticksPerSecond < 0 || maxTicks < 0) {
+            throw new IllegalArgumentException("tick budget must not be negative");
+        }
+        this.id = id;
+        this.player = player;
+        this.ticksPerSecond = ticksPerSecond;
+        this.maxTicks = maxTicks;
+        world = new World(World.DEFAULT_CAPACITY, id);
+        world.setConfig(config);
+        world.restart();
+    }
+
+    /**
+     * Runs the ticks the budget allows by now, at most the given number, unless another worker is ticking the
+     * session.
+     *
+     * @param now   The current time in nanoseconds.
+     * @param slice The largest number of ticks to run, so that the worker moves on to other sessions.
+     * @return The number of ticks run.
+     */
+    int run(long now, int slice) {
+        if (isFinished() || !busy.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            if (startTime < 0) {
+                startTime = now;
+            }
+            long allowed = slice;
+            if (ticksPerSecond > 0) {
+                long due = (long) ((now - startTime) * ticksPerSecond / 1e9) + 1;
+                allowed = Math.min(allowed, due - ticks);
+            }
+            if (maxTicks > 0) {
+                allowed = Math.min(allowed, maxTicks - ticks);
+            }
+            for (long i = 0; i < allowed; i++) {
+                step();
+            }
+            return (int) Math.max(0, allowed);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Ticks the world once with the input of the player, and starts a new game if the current one is over.
+     */
+    private void step() {
+        world.setInput(player.decide(world, 0));
+        world.tick(World.FRAME);
+        ticks++;
+        if (world.isGameOver()) {
+            totalScore += world.getScore();
+            games++;
+            world.restart();
+            player.reset();
+        }
+    }
+
+    /**
+     * Checks whether the session spent its number of ticks.
+     *
+     * @return True if the session will not tick again.
+     */
+    public boolean isFinished() {
+        return maxTicks > 0 && ticks >= maxTicks;
+    }
+
+    /**
+     * Gets the number identifying the session.
+     *
+     * @return The session number.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the number of ticks run.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of games finished.
+     *
+     * @return The number of games.
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the sum of the scores of the games finished.
+     *
+     * @return The total score.
+     */
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Gets the largest number of ticks per second.
+     *
+     * @return The tick rate, or 0 if the session ticks as fast as possible.
+     */
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Gets the world simulated for the session. Must not be touched while the session is managed.
+     *
+     * @return The world.
+     */
+    public World getWorld() {
+        return world;
+    }
+}
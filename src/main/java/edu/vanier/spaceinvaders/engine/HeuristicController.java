@@ -0,0 +1,103 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+
+/**
+ * A player reacting to the world like a careful human would. When an enemy bullet is about to hit the spaceship, it
+ * steps out of the way of the nearest one; otherwise it moves under the invader closest to it horizontally and shoots
+ * once its column is lined up. It looks only at the current tick, so it keeps no state between games.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class HeuristicController implements PlayerController {
+
+    /**
+     * The height above the spaceship within which an enemy bullet is dodged, in pixels. Bullets fall as fast as the
+     * spaceship moves, so this leaves time to move a whole spaceship width aside.
+     */
+    private static final double DANGER_HEIGHT = 160;
+
+    /**
+     * The horizontal margin kept between the spaceship and a bullet being dodged, in pixels.
+     */
+    private static final double DODGE_MARGIN = 10;
+
+    /**
+     * The horizontal distance from the target under which the spaceship stops moving, in pixels.
+     */
+    private static final double AIM_TOLERANCE = 4;
+
+    /**
+     * Dodges the nearest threatening bullet, or lines up under the closest invader and shoots.
+     *
+     * @param world  The world about to be ticked.
+     * @param player The index of the player.
+     * @return The {@link Input} bits of the player.
+     */
+    @Override
+    public int decide(World world, int player) {
+        EntityStore store = world.getStore();
+        int ship = world.getSpaceShip(player);
+        double shipLeft = store.getX(ship);
+        double shipTop = store.getY(ship);
+        double shipWidth = store.getWidth(ship);
+        double shipCenter = shipLeft + shipWidth / 2;
+
+        // Find the lowest enemy bullet falling onto the spaceship
+        int threat = -1;
+        double threatBottom = Double.NEGATIVE_INFINITY;
+        EntityArray bullets = world.getEntities(EntityKind.ENEMY_BULLET);
+        for (int i = 0; i < bullets.size(); i++) {
+            int bullet = bullets.get(i);
+            double left = store.getX(bullet);
+            double bottom = store.getY(bullet) + store.getHeight(bullet);
+            if (store.isDead(bullet) || bottom < shipTop - DANGER_HEIGHT || store.getY(bullet) > shipTop
+                    + store.getHeight(ship)) {
+                continue;
+            }
+            if (left + store.getWidth(bullet) + DODGE_MARGIN > shipLeft
+                    && left - DODGE_MARGIN < shipLeft + shipWidth && bottom > threatBottom) {
+                threat = bullet;
+                threatBottom = bottom;
+            }
+        }
+        if (threat >= 0) {
+            // Step away from the bullet, towards the middle of the screen when it is against a wall
+            double bulletCenter = store.getX(threat) + store.getWidth(threat) / 2;
+            boolean left = bulletCenter > shipCenter;
+            if (left && shipLeft <= shipWidth) {
+                left = false;
+            } else if (!left && shipLeft + shipWidth >= World.WIDTH - shipWidth) {
+                left = true;
+            }
+            return left ? Input.LEFT : Input.RIGHT;
+        }
+
+        // Line up under the invader closest horizontally, whose position is relative to the formation
+        Formation formation = world.getFormation();
+        EntityArray enemies = world.getEntities(EntityKind.ENEMY);
+        double target = Double.NaN;
+        double targetWidth = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            int enemy = enemies.get(i);
+            if (store.isDead(enemy)) {
+                continue;
+            }
+            double center = store.getX(enemy) + formation.getOffsetX() + store.getWidth(enemy) / 2;
+            if (Double.isNaN(target) || Math.abs(center - shipCenter) < Math.abs(target - shipCenter)) {
+                target = center;
+                targetWidth = store.getWidth(enemy);
+            }
+        }
+        if (Double.isNaN(target)) {
+            return 0;
+        }
+        double distance = target - shipCenter;
+        int input = Math.abs(distance) < targetWidth / 2 ? Input.SHOOT : 0;
+        if (Math.abs(distance) > AIM_TOLERANCE) {
+            input |= distance < 0 ? Input.LEFT : Input.RIGHT;
+        }
+        return input;
+    }
+}
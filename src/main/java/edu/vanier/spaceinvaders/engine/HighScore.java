@@ -0,0 +1,91 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * The outcome of a finished game kept in the high-score table of a {@link SaveJournal}.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class HighScore {
+
+    /**
+     * The final score.
+     */
+    private final int score;
+
+    /**
+     * The level reached.
+     */
+    private final int level;
+
+    /**
+     * Flag indicating whether every level was cleared.
+     */
+    private final boolean won;
+
+    /**
+     * The time the game ended, in milliseconds since the epoch.
+     */
+    private final long time;
+
+    /**
+     * Constructs the outcome of a game.
+     *
+     * @param score The final score.
+     * @param level The level reached.
+     * @param won   Flag indicating whether every level was cleared.
+     * @param time  The time the game ended, in milliseconds since the epoch.
+     */
+    public HighScore(int score, int level, boolean won, long time) {
+        this.score = score;
+        this.level = level;
+        this.won = won;
+        this.time = time;
+    }
+
+    /**
+     * Gets the final score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the level reached.
+     *
+     * @return The level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Checks whether every level was cleared.
+     *
+     * @return True if the game was won.
+     */
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * Gets the time the game ended.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Formats the outcome for the logs.
+     *
+     * @return The score, level and outcome.
+     */
+    @Override
+    public String toString() {
+        return score + " points, level " + level + (won ? ", won" : "");
+    }
+}
@@ -0,0 +1,79 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * The bits of the player's input state for a tick. The held keys W, A, S, D and SPACE each have a bit, and pressing R
+ * sets {@link #TOGGLE_ROCKETS} and pressing SPACE sets {@link #SHOOT_PRESSED} for the next tick only. A whole tick of
+ * input therefore fits in one byte, which keeps recordings compact.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public final class Input {
+
+    /**
+     * W is held, moving the spaceship up.
+     */
+    public static final int UP = 1;
+
+    /**
+     * S is held, moving the spaceship down.
+     */
+    public static final int DOWN = 1 << 1;
+
+    /**
+     * A is held, moving the spaceship left.
+     */
+    public static final int LEFT = 1 << 2;
+
+    /**
+     * D is held, moving the spaceship right.
+     */
+    public static final int RIGHT = 1 << 3;
+
+    /**
+     * SPACE is held, shooting.
+     */
+    public static final int SHOOT = 1 << 4;
+
+    /**
+     * R was pressed, switching between lasers and rockets.
+     */
+    public static final int TOGGLE_ROCKETS = 1 << 5;
+
+    /**
+     * SPACE was pressed since the previous tick, so that a tap released before the tick still tries to shoot.
+     */
+    public static final int SHOOT_PRESSED = 1 << 6;
+
+    /**
+     * The bits set for the next tick only, which the tick consumes.
+     */
+    public static final int ONE_SHOT = TOGGLE_ROCKETS | SHOOT_PRESSED;
+
+    /**
+     * The names of the bits, in the order of the bits.
+     */
+    private static final String[] NAMES = {"up", "down", "left", "right", "shoot", "toggle-rockets", "shoot-pressed"};
+
+    /**
+     * Prevents instantiation of the constants class.
+     */
+    private Input() {
+    }
+
+    /**
+     * Names the bits set in an input state, for debugging.
+     *
+     * @param input The input bits.
+     * @return The names of the bits set, separated by spaces, or "none".
+     */
+    public static String describe(int input) {
+        StringBuilder names = new StringBuilder();
+        for (int bit = 0; bit < NAMES.length; bit++) {
+            if ((input & (1 << bit)) != 0) {
+                names.append(names.length() > 0 ? " " : "").append(NAMES[bit]);
+            }
+        }
+        return names.length() > 0 ? names.toString() : "none";
+    }
+}
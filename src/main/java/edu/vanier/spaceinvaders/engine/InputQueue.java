@@ -0,0 +1,168 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries key presses from the JavaFX thread to the simulation thread without locks. The queue is a fixed ring of
+ * {@link Input} events with one producer and one consumer: the producer only advances the tail and the consumer only
+ * advances the head, so offering and draining events never block and never allocate. When the consumer falls so far
+ * behind that the ring is full, new events are dropped and counted.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class InputQueue {
+
+    /**
+     * The default number of events the ring holds.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The type of an event setting input bits, stored above the bits of the event.
+     */
+    private static final int PRESS = 1 << 8;
+
+    /**
+     * The type of an event clearing input bits.
+     */
+    private static final int RELEASE = 2 << 8;
+
+    /**
+     * The type of an event flipping input bits.
+     */
+    private static final int TOGGLE = 3 << 8;
+
+    /**
+     * The mask of the input bits of an event.
+     */
+    private static final int BITS = 0xFF;
+
+    /**
+     * The events, as their type combined with their {@link Input} bits.
+     */
+    private final int[] events;
+
+    /**
+     * The mask turning a position into an index of the ring.
+     */
+    private final int mask;
+
+    /**
+     * The position of the next event to drain, only advanced by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The position of the next event to offer, only advanced by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The number of events dropped because the ring was full.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructs a queue holding up to {@link #DEFAULT_CAPACITY} events.
+     */
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a queue holding up to the given number of events, rounded up to a power of two.
+     *
+     * @param capacity The number of events the ring holds.
+     * @throws IllegalArgumentException If the capacity is below 1.
+     */
+    public InputQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        events = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Queues the press of the keys holding the given input bits. Must only be called by the producer.
+     *
+     * @param bits The {@link Input} bits to set.
+     */
+    public void press(int bits) {
+        offer(PRESS | bits);
+    }
+
+    /**
+     * Queues the release of the keys holding the given input bits. Must only be called by the producer.
+     *
+     * @param bits The {@link Input} bits to clear.
+     */
+    public void release(int bits) {
+        offer(RELEASE | bits);
+    }
+
+    /**
+     * Queues a flip of the given input bits, such as {@link Input#TOGGLE_ROCKETS}. Must only be called by the
+     * producer.
+     *
+     * @param bits The {@link Input} bits to flip.
+     */
+    public void toggle(int bits) {
+        offer(TOGGLE | bits);
+    }
+
+    /**
+     * Adds an event at the tail of the ring, or drops it if the ring is full.
+     *
+     * @param event The type and input bits of the event.
+     */
+    private void offer(int event) {
+        long position = tail.get();
+        if (position - head.get() == events.length) {
+            dropped.incrementAndGet();
+            return;
+        }
+        events[(int) position & mask] = event;
+        // Publish the event before the consumer can see the new tail
+        tail.lazySet(position + 1);
+    }
+
+    /**
+     * Applies every queued event to the given input bits, in the order they were offered. Must only be called by the
+     * consumer.
+     *
+     * @param input The current {@link Input} bits.
+     * @return The input bits after the events.
+     */
+    public int drain(int input) {
+        long position = head.get();
+        long end = tail.get();
+        while (position < end) {
+            int event = events[(int) position & mask];
+            int bits = event & BITS;
+            switch (event & ~BITS) {
+                case PRESS -> input |= bits;
+                case RELEASE -> input &= ~bits;
+                case TOGGLE -> input ^= bits;
+            }
+            position++;
+        }
+        // Free the slots only once their events were read
+        head.lazySet(position);
+        return input;
+    }
+
+    /**
+     * Gets the number of events dropped because the consumer fell behind.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
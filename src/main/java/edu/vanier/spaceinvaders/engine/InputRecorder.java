@@ -0,0 +1,374 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Records the input of every tick of a game so that it can be replayed exactly. Together with the state of the random
+ * source and the rules at the start of the game, the {@link Input} bits of each tick are all a {@link World} needs
+ * to play the game out again, so a recording is one byte per tick in memory and run-length encoded on disk. When the
+ * game ends, the final score, lives, level and random state are recorded as well so that a replay can check that it
+ * reproduced the game.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class InputRecorder {
+
+    /**
+     * The first bytes of a recording file.
+     */
+    private static final int MAGIC = 0x53495250;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * The state of the random source when the game started.
+     */
+    private long seed;
+
+    /**
+     * The level the game started at.
+     */
+    private int level = 1;
+
+    /**
+     * The rules of the game.
+     */
+    private GameConfig config = new GameConfig();
+
+    /**
+     * The input of each tick, the first {@link #ticks} of which are recorded.
+     */
+    private byte[] inputs = new byte[4096];
+
+    /**
+     * The number of ticks recorded.
+     */
+    private int ticks = 0;
+
+    /**
+     * Flag indicating whether the game ended and its outcome was recorded.
+     */
+    private boolean ended = false;
+
+    /**
+     * Flag indicating whether the current recording was given up.
+     */
+    private boolean discarded = false;
+
+    /**
+     * The state of the random source, score, level and lives when the game ended.
+     */
+    private long endSeed;
+    private int endScore;
+    private int endLevel;
+    private int endLives;
+
+    /**
+     * Starts a new recording, forgetting the previous one.
+     *
+     * @param seed   The state of the random source when the game starts.
+     * @param level  The level the game starts at.
+     * @param config The rules of the game, copied by the recorder.
+     */
+    public void begin(long seed, int level, GameConfig config) {
+        this.seed = seed;
+        this.level = level;
+        this.config = config.copy();
+        ticks = 0;
+        ended = false;
+        discarded = false;
+    }
+
+    /**
+     * Gives up the current recording, which can no longer be replayed from the start of the game, for instance
+     * because the game was restored from a save. Nothing is recorded until the next recording begins.
+     */
+    public void discard() {
+        ticks = 0;
+        ended = false;
+        discarded = true;
+    }
+
+    /**
+     * Forgets the input recorded after a tick and the outcome of the game, so that recording carries on from that
+     * tick, for instance when the game was rewound to it. A recording given up stays given up.
+     *
+     * @param ticks The number of ticks to keep.
+     */
+    public void truncate(int ticks) {
+        if (discarded) {
+            return;
+        }
+        this.ticks = Math.max(0, Math.min(this.ticks, ticks));
+        ended = false;
+    }
+
+    /**
+     * Records the input of a tick, doubling the capacity if it is full.
+     *
+     * @param input The {@link Input} bits of the tick.
+     */
+    public void record(int input) {
+        if (discarded) {
+            return;
+        }
+        if (ticks == inputs.length) {
+            inputs = Arrays.copyOf(inputs, ticks * 2);
+        }
+        inputs[ticks++] = (byte) input;
+    }
+
+    /**
+     * Records the outcome of the game.
+     *
+     * @param seed  The state of the random source when the game ended.
+     * @param score The final score.
+     * @param level The final level.
+     * @param lives The lives remaining.
+     */
+    public void end(long seed, int score, int level, int lives) {
+        if (discarded) {
+            return;
+        }
+        ended = true;
+        endSeed = seed;
+        endScore = score;
+        endLevel = level;
+        endLives = lives;
+    }
+
+    /**
+     * Writes the recording to a stream. Consecutive ticks with the same input are written as a single run.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(seed);
+        data.writeInt(level);
+        config.write(data);
+        data.writeInt(ticks);
+        int i = 0;
+        while (i < ticks) {
+            int run = 1;
+            while (i + run < ticks && inputs[i + run] == inputs[i]) {
+                run++;
+            }
+            data.writeByte(inputs[i]);
+            writeVarInt(data, run);
+            i += run;
+        }
+        data.writeBoolean(ended);
+        if (ended) {
+            data.writeLong(endSeed);
+            data.writeInt(endScore);
+            data.writeInt(endLevel);
+            data.writeInt(endLives);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a recording from a stream.
+     *
+     * @param in The stream to read from.
+     * @return The recording.
+     * @throws IOException If the stream cannot be read or does not hold a recording.
+     */
+    public static InputRecorder read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        InputRecorder recording = new InputRecorder();
+        recording.begin(data.readLong(), data.readInt(), GameConfig.read(data));
+        int ticks = data.readInt();
+        recording.inputs = new byte[Math.max(ticks, 1)];
+        while (recording.ticks < ticks) {
+            byte input = data.readByte();
+            int run = readVarInt(data);
+            if (run <= 0 || run > ticks - recording.ticks) {
+                throw new IOException("Corrupt input run of " + run + " ticks");
+            }
+            Arrays.fill(recording.inputs, recording.ticks, recording.ticks + run, input);
+            recording.ticks += run;
+        }
+        if (data.readBoolean()) {
+            recording.end(data.readLong(), data.readInt(), data.readInt(), data.readInt());
+        }
+        return recording;
+    }
+
+    /**
+     * Saves the recording to a file, creating its parent directories if needed.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Loads a recording from a file.
+     *
+     * @param path The file to read.
+     * @return The recording.
+     * @throws IOException If the file cannot be read or does not hold a recording.
+     */
+    public static InputRecorder load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Writes a positive int using 7 bits per byte, so that short runs take a single byte.
+     *
+     * @param data  The stream to write to.
+     * @param value The value to write.
+     * @throws IOException If the stream cannot be written.
+     */
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by {@link #writeVarInt(DataOutputStream, int)}.
+     *
+     * @param data The stream to read from.
+     * @return The value read.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static int readVarInt(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed run length");
+    }
+
+    /**
+     * Gets the input of a recorded tick.
+     *
+     * @param tick The index of the tick.
+     * @return The {@link Input} bits of the tick.
+     */
+    public int getInput(int tick) {
+        return inputs[tick] & 0xFF;
+    }
+
+    /**
+     * Gets the number of ticks recorded.
+     *
+     * @return The number of ticks.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the state of the random source when the game started.
+     *
+     * @return The starting random state.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the level the game started at.
+     *
+     * @return The starting level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the rules of the game.
+     *
+     * @return A copy of the rules of the game.
+     */
+    public GameConfig getConfig() {
+        return config.copy();
+    }
+
+    /**
+     * Checks if the game ended and its outcome was recorded.
+     *
+     * @return True if the outcome is known, false otherwise.
+     */
+    public boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * Gets the state of the random source when the game ended.
+     *
+     * @return The final random state.
+     */
+    public long getEndSeed() {
+        return endSeed;
+    }
+
+    /**
+     * Gets the final score of the game.
+     *
+     * @return The final score.
+     */
+    public int getEndScore() {
+        return endScore;
+    }
+
+    /**
+     * Gets the final level of the game.
+     *
+     * @return The final level.
+     */
+    public int getEndLevel() {
+        return endLevel;
+    }
+
+    /**
+     * Gets the lives remaining at the end of the game.
+     *
+     * @return The lives remaining.
+     */
+    public int getEndLives() {
+        return endLives;
+    }
+}
@@ -0,0 +1,145 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.Arrays;
+
+/**
+ * The listeners subscribed to the sounds and events of a {@link World}, notified in the order they were added. The
+ * listeners are kept in an array copied when one is added or removed, which is rare, so that raising an event does
+ * not allocate. The list can be muted while ticks are replayed, so that nothing is heard twice.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+final class ListenerList implements WorldListener {
+
+    /**
+     * The listeners, in the order they were added.
+     */
+    private WorldListener[] listeners = new WorldListener[0];
+
+    /**
+     * Flag indicating whether the listeners are left out of the events raised.
+     */
+    private boolean muted = false;
+
+    /**
+     * Subscribes a listener to the events, after the listeners already subscribed.
+     *
+     * @param listener The listener to notify.
+     */
+    void add(WorldListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Unsubscribes a listener from the events, if it is subscribed.
+     *
+     * @param listener The listener to stop notifying.
+     */
+    void remove(WorldListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                WorldListener[] kept = new WorldListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, kept, 0, i);
+                System.arraycopy(listeners, i + 1, kept, i, kept.length - i);
+                listeners = kept;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets whether the listeners are left out of the events raised.
+     *
+     * @param muted True to stop notifying the listeners, false to notify them again.
+     */
+    void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    /**
+     * Notifies every listener that a sound should be played, unless muted.
+     *
+     * @param sound The name of the sound.
+     */
+    @Override
+    public void onSound(String sound) {
+        if (!muted) {
+            for (WorldListener listener : listeners) {
+                listener.onSound(sound);
+            }
+        }
+    }
+
+    /**
+     * Notifies every listener that a level started, unless muted.
+     *
+     * @param level The level that started.
+     */
+    @Override
+    public void onLevelStarted(int level) {
+        if (!muted) {
+            for (WorldListener listener : listeners) {
+                listener.onLevelStarted(level);
+            }
+        }
+    }
+
+    /**
+     * Notifies every listener that an enemy was killed, unless muted.
+     *
+     * @param score The score after the kill.
+     */
+    @Override
+    public void onEnemyKilled(int score) {
+        if (!muted) {
+            for (WorldListener listener : listeners) {
+                listener.onEnemyKilled(score);
+            }
+        }
+    }
+
+    /**
+     * Notifies every listener that the spaceship was hit, unless muted.
+     *
+     * @param lives The number of lives remaining after the hit.
+     */
+    @Override
+    public void onPlayerHit(int lives) {
+        if (!muted) {
+            for (WorldListener listener : listeners) {
+                listener.onPlayerHit(lives);
+            }
+        }
+    }
+
+    /**
+     * Notifies every listener that a level was cleared, unless muted.
+     *
+     * @param level The level that was cleared.
+     */
+    @Override
+    public void onLevelCleared(int level) {
+        if (!muted) {
+            for (WorldListener listener : listeners) {
+                listener.onLevelCleared(level);
+            }
+        }
+    }
+
+    /**
+     * Notifies every listener that the game ended, unless muted.
+     *
+     * @param won   True if every level was cleared, false if the player lost.
+     * @param score The final score.
+     */
+    @Override
+    public void onGameOver(boolean won, int score) {
+        if (!muted) {
+            for (WorldListener listener : listeners) {
+                listener.onGameOver(won, score);
+            }
+        }
+    }
+}
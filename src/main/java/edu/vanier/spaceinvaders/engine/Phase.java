@@ -0,0 +1,45 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * The phases of a frame timed by the {@link FrameProfiler}.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public enum Phase {
+
+    /**
+     * Moving the spaceship and firing from the player's input.
+     */
+    INPUT,
+
+    /**
+     * Moving the invader formation and letting invaders fire.
+     */
+    ENEMY_SWEEP,
+
+    /**
+     * Moving bullets and resolving their collisions.
+     */
+    COLLISION,
+
+    /**
+     * Shrinking explosions and removing dead entities.
+     */
+    CLEANUP,
+
+    /**
+     * Adding the entities spawned during the tick to the world.
+     */
+    SPAWN,
+
+    /**
+     * Drawing the world.
+     */
+    RENDER;
+
+    /**
+     * The phases in declaration order, cached to avoid copying the array returned by {@link #values()}.
+     */
+    public static final Phase[] ALL = values();
+}
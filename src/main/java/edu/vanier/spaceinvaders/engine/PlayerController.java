@@ -0,0 +1,27 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * Chooses the input of a player for each tick from the state of the world, so that games can be played without
+ * anyone at the keyboard. A controller is fed the world before every tick and may keep its own state between ticks,
+ * so each player needs a controller of their own.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public interface PlayerController {
+
+    /**
+     * Chooses the input of a player for the next tick.
+     *
+     * @param world  The world about to be ticked, which must not be changed.
+     * @param player The index of the player.
+     * @return The {@link Input} bits of the player.
+     */
+    int decide(World world, int player);
+
+    /**
+     * Forgets the state kept for the previous game, called when a new game starts.
+     */
+    default void reset() {
+    }
+}
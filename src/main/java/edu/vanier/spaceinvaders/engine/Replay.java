@@ -0,0 +1,76 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * Re-drives a {@link World} from an {@link InputRecorder} as fast as possible. The world's random source is restored
+ * and rules to the state recorded at the start of the game and every tick is fed the recorded input with the fixed step of
+ * {@link World#FRAME}, so the replayed game plays out exactly like the recorded one.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public final class Replay {
+
+    /**
+     * Prevents instantiation of the utility class.
+     */
+    private Replay() {
+    }
+
+    /**
+     * Creates a world ready to replay the given recording.
+     *
+     * @param recording The recording to replay.
+     * @return A new world.
+     */
+    public static World newWorld(InputRecorder recording) {
+        return new World(World.DEFAULT_CAPACITY, recording.getSeed());
+    }
+
+    /**
+     * Restarts a world in the state recorded at the start of the game and plays every recorded tick.
+     *
+     * @param world     The world to drive.
+     * @param recording The recording to replay.
+     * @return The number of ticks played.
+     */
+    public static int run(World world, InputRecorder recording) {
+        return run(world, recording, recording.getTicks());
+    }
+
+    /**
+     * Restarts a world in the state recorded at the start of the game and plays the first recorded ticks.
+     *
+     * @param world     The world to drive.
+     * @param recording The recording to replay.
+     * @param maxTicks  The maximum number of ticks to play.
+     * @return The number of ticks played.
+     */
+    public static int run(World world, InputRecorder recording, int maxTicks) {
+        world.getRandom().setState(recording.getSeed());
+        world.setConfig(recording.getConfig());
+        world.start(recording.getLevel());
+        int ticks = Math.min(recording.getTicks(), maxTicks);
+        for (int i = 0; i < ticks; i++) {
+            world.setInput(recording.getInput(i));
+            world.tick(World.FRAME);
+        }
+        return ticks;
+    }
+
+    /**
+     * Checks if a replayed world ended the same way as the recorded game. Recordings of games that did not end
+     * always match.
+     *
+     * @param world     The world after replaying the recording.
+     * @param recording The recording replayed.
+     * @return True if the score, level, lives and random state match the recorded outcome, false otherwise.
+     */
+    public static boolean matches(World world, InputRecorder recording) {
+        return !recording.isEnded()
+                || world.isGameOver()
+                && world.getScore() == recording.getEndScore()
+                && world.getLevel() == recording.getEndLevel()
+                && world.getLives() == recording.getEndLives()
+                && world.getRandom().getState() == recording.getEndSeed();
+    }
+}
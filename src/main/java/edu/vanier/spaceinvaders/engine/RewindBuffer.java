@@ -0,0 +1,382 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Keeps the last ticks of a {@link World} so that the game can be paused and scrubbed back and forth through them,
+ * to inspect a stutter or a wrong collision a few frames after it happened. Every tick stores its input, its duration,
+ * the time spent in each {@link Phase}, the entities it updated and the bytes it allocated in preallocated arrays
+ * used as a ring, and every so often the whole world is saved into a keyframe with {@link World#save}. Since ticks are
+ * deterministic, the state after any recorded tick is rebuilt by restoring the closest keyframe before it and
+ * replaying the recorded input from there, so recording costs a few array writes per tick instead of a save per tick.
+ * The phases are timed from the same clock reads as the {@link FrameProfiler} of the world, if it has one.
+ *
+ * <p>Keyframes are at least {@link #DEFAULT_KEYFRAME_INTERVAL} ticks apart, and further apart when saving the world
+ * is slow compared to ticking it, so that they never cost more than 1 / {@link #KEYFRAME_BUDGET} of the tick time:
+ * large worlds are rewound more slowly rather than played more slowly.</p>
+ *
+ * <p>A buffer is attached with {@link World#setRewind(RewindBuffer)}, and is cleared whenever a game is started or
+ * restored. Like the world, it must only be used by the thread ticking the world.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class RewindBuffer {
+
+    /**
+     * The number of ticks between two keyframes, one second of the game.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+    /**
+     * The ratio of the time spent ticking between two keyframes to the time spent saving a keyframe.
+     */
+    public static final int KEYFRAME_BUDGET = 50;
+
+    /**
+     * The phases timed during a tick, every phase but rendering.
+     */
+    private static final int PHASES = Phase.RENDER.ordinal();
+
+    /**
+     * The number of ticks kept.
+     */
+    private final int capacity;
+
+    /**
+     * The smallest number of ticks between two keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * The input, duration in nanoseconds, entities updated and bytes allocated of each tick kept, indexed by tick
+     * modulo the capacity.
+     */
+    private final int[] inputs;
+    private final long[] durations;
+    private final int[] entities;
+    private final long[] allocations;
+
+    /**
+     * The time spent in each phase of each tick kept, in nanoseconds, {@link #PHASES} entries per tick.
+     */
+    private final long[] phaseNanos;
+
+    /**
+     * The saved worlds, reused from the oldest when a keyframe is taken.
+     */
+    private final ByteBuffer[] keyframes;
+
+    /**
+     * The tick each keyframe was taken after, or -1 if the keyframe is unused.
+     */
+    private final long[] keyframeTicks;
+
+    /**
+     * The time step of the recorded ticks in seconds.
+     */
+    private double step = World.FRAME;
+
+    /**
+     * The number of ticks recorded since the game started, also the number of the next tick.
+     */
+    private long newest = 0;
+
+    /**
+     * The tick after which the state of the world is, which is {@link #newest} unless the world was rewound.
+     */
+    private long position = 0;
+
+    /**
+     * The index of the tick being recorded in the arrays of ticks, the number of the tick modulo the capacity.
+     */
+    private int slot = 0;
+
+    /**
+     * The number of ticks since the last keyframe, the time they took and the time taken to save the last keyframe,
+     * in nanoseconds.
+     */
+    private int ticksSinceKeyframe = 0;
+    private long nanosSinceKeyframe = 0;
+    private long keyframeNanos = 0;
+
+    /**
+     * The time the current tick started and the time its last phase ended, in nanoseconds.
+     */
+    private long tickStart;
+    private long markTime;
+
+    /**
+     * Flag indicating whether recorded ticks are being replayed, during which nothing is recorded.
+     */
+    private boolean replaying = false;
+
+    /**
+     * Constructs a buffer keeping the given number of ticks, with a keyframe every {@link #DEFAULT_KEYFRAME_INTERVAL}
+     * ticks.
+     *
+     * @param capacity The number of ticks kept.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public RewindBuffer(int capacity) {
+        this(capacity, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Constructs a buffer keeping the given number of ticks.
+     *
+     * @param capacity         The number of ticks kept.
+     * @param keyframeInterval The smallest number of ticks between two keyframes. Shorter intervals make seeking
+     *                         faster and recording slower.
+     * @throws IllegalArgumentException If the capacity or the interval is not positive.
+     */
+    public RewindBuffer(int capacity, int keyframeInterval) {
+        if (capacity <= 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("capacity and keyframe interval must be positive");
+        }
+        this.capacity = capacity;
+        this.keyframeInterval = keyframeInterval;
+        inputs = new int[capacity];
+        durations = new long[capacity];
+        entities = new int[capacity];
+        allocations = new long[capacity];
+        phaseNanos = new long[capacity * PHASES];
+        // One more keyframe than the ticks span so that the oldest tick kept has one before it at the smallest interval
+        int keyframeCount = (capacity + keyframeInterval - 1) / keyframeInterval + 1;
+        keyframes = new ByteBuffer[keyframeCount];
+        keyframeTicks = new long[keyframeCount];
+        Arrays.fill(keyframeTicks, -1);
+    }
+
+    /**
+     * Forgets every tick and takes a keyframe of the world, which just started or was restored.
+     *
+     * @param world The world, between two ticks.
+     */
+    void start(World world) {
+        if (replaying) {
+            return;
+        }
+        Arrays.fill(keyframeTicks, -1);
+        newest = 0;
+        position = 0;
+        slot = 0;
+        saveKeyframe(world);
+    }
+
+    /**
+     * Starts recording a tick.
+     *
+     * @param input The input of the first player for the tick.
+     * @param now   The current time in nanoseconds.
+     */
+    void begin(int input, long now) {
+        if (replaying) {
+            return;
+        }
+        inputs[slot] = input;
+        tickStart = now;
+        markTime = now;
+    }
+
+    /**
+     * Ends a phase of the tick being recorded. Every phase ends once per tick.
+     *
+     * @param phase The phase that just ended.
+     * @param now   The current time in nanoseconds.
+     */
+    void mark(Phase phase, long now) {
+        if (replaying || phase.ordinal() >= PHASES) {
+            return;
+        }
+        phaseNanos[slot * PHASES + phase.ordinal()] = now - markTime;
+        markTime = now;
+    }
+
+    /**
+     * Ends recording a tick, taking a keyframe if one is due. The duration of the tick is the sum of its phases, so
+     * that no more clock reads are needed than the profiler already makes.
+     *
+     * @param world        The world, whose tick is over.
+     * @param dt           The time step of the tick in seconds.
+     * @param tickEntities The number of entities the tick updated.
+     */
+    void end(World world, double dt, int tickEntities) {
+        if (replaying) {
+            return;
+        }
+        long duration = markTime - tickStart;
+        durations[slot] = duration;
+        entities[slot] = tickEntities;
+        allocations[slot] = world.getTickAllocatedBytes();
+        step = dt;
+        newest++;
+        position = newest;
+        slot = slot + 1 == capacity ? 0 : slot + 1;
+
+        // Keep a keyframe within the ticks kept even if saving is slow
+        ticksSinceKeyframe++;
+        nanosSinceKeyframe += duration;
+        if (ticksSinceKeyframe >= keyframeInterval && (nanosSinceKeyframe >= keyframeNanos * KEYFRAME_BUDGET
+                || ticksSinceKeyframe >= capacity / 2)) {
+            saveKeyframe(world);
+        }
+    }
+
+    /**
+     * Saves the world after the newest tick into an unused or the oldest keyframe, growing the keyframe only if the
+     * world outgrew it.
+     *
+     * @param world The world, between two ticks.
+     */
+    private void saveKeyframe(World world) {
+        int index = 0;
+        for (int i = 1; i < keyframes.length; i++) {
+            if (keyframeTicks[i] < keyframeTicks[index]) {
+                index = i;
+            }
+        }
+        long start = System.nanoTime();
+        int size = world.getSaveSize();
+        if (keyframes[index] == null || keyframes[index].capacity() < size) {
+            keyframes[index] = ByteBuffer.allocate(size + size / 2);
+        }
+        ByteBuffer keyframe = keyframes[index];
+        keyframe.clear();
+        world.save(keyframe);
+        keyframe.flip();
+        keyframeTicks[index] = newest;
+        keyframeNanos = System.nanoTime() - start;
+        ticksSinceKeyframe = 0;
+        nanosSinceKeyframe = 0;
+    }
+
+    /**
+     * Rebuilds the state of the world after a recorded tick, by restoring the closest keyframe before it, or
+     * carrying on from the current state when it is closer, and replaying the recorded input. Sounds and events are
+     * not raised and no input is recorded while replaying.
+     *
+     * @param world  The world, between two ticks.
+     * @param target The tick to rebuild the state after, clamped between {@link #getOldest()} and {@link #getNewest()}.
+     * @return The tick the world is now at.
+     */
+    public long seek(World world, long target) {
+        target = Math.max(getOldest(), Math.min(newest, target));
+        int closest = -1;
+        for (int i = 0; i < keyframes.length; i++) {
+            if (keyframeTicks[i] >= 0 && keyframeTicks[i] <= target
+                    && (closest < 0 || keyframeTicks[i] > keyframeTicks[closest])) {
+                closest = i;
+            }
+        }
+        if (closest < 0) {
+            return position;
+        }
+
+        // The ticks replayed were recorded when they were first played
+        FrameProfiler profiler = world.getProfiler();
+        InputRecorder recorder = world.getRecorder();
+        world.setListenersMuted(true);
+        world.setProfiler(null);
+        world.setRecorder(null);
+        replaying = true;
+        try {
+            if (position > target || keyframeTicks[closest] > position) {
+                ByteBuffer keyframe = keyframes[closest];
+                world.restoreState(keyframe.duplicate());
+                position = keyframeTicks[closest];
+            }
+            while (position < target) {
+                world.setInput(inputs[(int) (position % capacity)]);
+                world.tick(step);
+                position++;
+            }
+        } finally {
+            replaying = false;
+            world.setRecorder(recorder);
+            world.setProfiler(profiler);
+            world.setListenersMuted(false);
+        }
+        return position;
+    }
+
+    /**
+     * Forgets the ticks after the one the world was rewound to, so that recording carries on from there.
+     */
+    public void truncate() {
+        if (position == newest) {
+            return;
+        }
+        long lastKeyframe = 0;
+        for (int i = 0; i < keyframes.length; i++) {
+            if (keyframeTicks[i] > position) {
+                keyframeTicks[i] = -1;
+            }
+            lastKeyframe = Math.max(lastKeyframe, keyframeTicks[i]);
+        }
+        newest = position;
+        slot = (int) (position % capacity);
+        ticksSinceKeyframe = (int) (position - lastKeyframe);
+        nanosSinceKeyframe = 0;
+    }
+
+    /**
+     * Gets the oldest tick the world can be rewound to.
+     *
+     * @return The oldest tick with a keyframe at or before it whose following input is still kept.
+     */
+    public long getOldest() {
+        long oldest = newest;
+        for (long tick : keyframeTicks) {
+            if (tick >= 0 && tick >= newest - capacity) {
+                oldest = Math.min(oldest, tick);
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Gets the number of ticks recorded since the game started.
+     *
+     * @return The newest tick.
+     */
+    public long getNewest() {
+        return newest;
+    }
+
+    /**
+     * Gets the tick the world is at.
+     *
+     * @return The tick, {@link #getNewest()} unless the world was rewound.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Formats the tick that led to the current state of the world, with its timings, for the HUD and the logs.
+     *
+     * @param world The world, at the current position.
+     * @return A description of the tick.
+     */
+    public String describe(World world) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Rewind: tick %d of %d (%.2f s ago)", position, newest,
+                (newest - position) * step));
+        if (position > 0 && position > newest - capacity) {
+            int index = (int) ((position - 1) % capacity);
+            text.append(String.format(Locale.ROOT, "%ntick %.1f us:", durations[index] / 1e3));
+            for (int phase = 0; phase < PHASES; phase++) {
+                text.append(String.format(Locale.ROOT, " %s %.1f", Phase.ALL[phase].name().toLowerCase(Locale.ROOT),
+                        phaseNanos[index * PHASES + phase] / 1e3));
+            }
+            text.append(String.format(Locale.ROOT, "%n%d entities, %d bytes allocated, input %s", entities[index],
+                    allocations[index], Input.describe(inputs[index])));
+        }
+        text.append(String.format(Locale.ROOT, "%nlevel %d, score %d, lives %d", world.getLevel(), world.getScore(),
+                world.getSession().getLives()));
+        return text.toString();
+    }
+}
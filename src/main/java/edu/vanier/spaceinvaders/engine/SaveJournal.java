@@ -0,0 +1,497 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of saved worlds and finished games, mapped into memory. A save writes the state of the world
+ * straight into the mapped file with {@link World#save}, so quick-saving costs one pass over the entities and no
+ * system call, and restoring any save still in the file reads it back in place. The file is grown by remapping a
+ * larger region whenever a record does not fit.
+ *
+ * <p>Each record is its length, a type, a timestamp, the payload and a checksum, and its length is written last, so
+ * a record torn by a crash is never read back: opening the file stops at the first incomplete record, and the latest
+ * complete save is the state to recover. Every record is forced to the disk once complete, so it survives a power
+ * loss as well as a crash of the game. The outcome of every finished game is a record too, from which the high-score
+ * table is rebuilt when the file is opened.</p>
+ *
+ * <p>Once the records grow past {@link #COMPACT_BYTES} by default, the journal is rewritten with the latest save and the high
+ * scores only. A mapped file cannot be replaced or shrunk on every platform, so the compacted records are first
+ * written to a separate file, then copied over the start of the journal, whose space is reused by the next records.
+ * A compaction interrupted by a crash is finished from that file when the journal is opened again.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class SaveJournal implements Closeable {
+
+    /**
+     * The number written at the start of every journal, "SIJL".
+     */
+    private static final int MAGIC = 0x53494A4C;
+
+    /**
+     * The version of the format of the journal.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The number of bytes of the header of the file: the magic number, the version and room for later use.
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * The number of bytes of a record besides its payload: the length, type, timestamp and checksum.
+     */
+    private static final int RECORD_BYTES = 4 + 1 + 8 + 4;
+
+    /**
+     * The types of records.
+     */
+    private static final byte SAVE = 1;
+    private static final byte SCORE = 2;
+
+    /**
+     * The number of bytes of the payload of a score record: the score, the level and whether the game was won.
+     */
+    private static final int SCORE_BYTES = 4 + 4 + 1;
+
+    /**
+     * The size of the region mapped when a journal is created, in bytes.
+     */
+    private static final int INITIAL_BYTES = 1 << 20;
+
+    /**
+     * The size of the records in bytes past which the journal is compacted.
+     */
+    public static final int COMPACT_BYTES = 32 << 20;
+
+    /**
+     * The number of games kept in the high-score table.
+     */
+    public static final int MAX_HIGH_SCORES = 10;
+
+    /**
+     * The path of the journal.
+     */
+    private final Path path;
+
+    /**
+     * The path of the compacted records while they are written, and once they are complete and being copied.
+     */
+    private final Path compacting;
+    private final Path compacted;
+
+    /**
+     * The channel of the open file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The region of the file mapped into memory, from its start.
+     */
+    private MappedByteBuffer map;
+
+    /**
+     * The position where the next record is appended.
+     */
+    private int end;
+
+    /**
+     * The size of the records in bytes past which the journal is compacted.
+     */
+    private final int compactBytes;
+
+    /**
+     * The size of the records after the last compaction, so that a journal whose latest save alone is large is not
+     * compacted on every save.
+     */
+    private int compactedEnd = 0;
+
+    /**
+     * The positions of the save records, oldest first, the first {@link #saveCount} of which are in use.
+     */
+    private int[] saves = new int[16];
+    private int saveCount = 0;
+
+    /**
+     * The best games recorded, best first.
+     */
+    private final List<HighScore> highScores = new ArrayList<>();
+
+    /**
+     * The checksum computed over each record.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens the journal at the given path, creating it if it does not exist, and reads its saves and high scores.
+     *
+     * @param path The path of the journal.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    public SaveJournal(Path path) throws IOException {
+        this(path, COMPACT_BYTES);
+    }
+
+    /**
+     * Opens the journal at the given path, compacting it past the given size instead of {@link #COMPACT_BYTES}.
+     *
+     * @param path         The path of the journal.
+     * @param compactBytes The size of the records in bytes past which the journal is compacted.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    SaveJournal(Path path, int compactBytes) throws IOException {
+        this.path = path;
+        this.compactBytes = compactBytes;
+        compacting = path.resolveSibling(path.getFileName() + ".tmp");
+        compacted = path.resolveSibling(path.getFileName() + ".compact");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // Finish a compaction interrupted while copying, nothing being mapped yet
+        Files.deleteIfExists(compacting);
+        if (Files.exists(compacted)) {
+            Files.copy(compacted, path, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(compacted);
+        }
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_BYTES));
+        if (created) {
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.force(0, HEADER_BYTES);
+        } else if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a save journal");
+        }
+        scan();
+        compactIfNeeded();
+    }
+
+    /**
+     * Reads the saves and high scores of the journal, finding the end of its last complete record.
+     */
+    private void scan() {
+        saveCount = 0;
+        highScores.clear();
+        end = HEADER_BYTES;
+        while (end + 4 <= map.capacity()) {
+            int length = map.getInt(end);
+            if (length < RECORD_BYTES - 4 || end + 4 + length > map.capacity() || !checksumMatches(end, length)) {
+                break;
+            }
+            byte type = map.get(end + 4);
+            if (type == SAVE) {
+                addSave(end);
+            } else if (type == SCORE) {
+                addHighScore(readHighScore(end));
+            }
+            end += 4 + length;
+        }
+        // Forget a record torn by a crash so that it is overwritten by the next one
+        if (end + 4 <= map.capacity()) {
+            map.putInt(end, 0);
+        }
+    }
+
+    /**
+     * Compacts the journal if its records grew past the size of compaction and to twice their size after the last
+     * compaction.
+     *
+     * @throws IOException If the journal cannot be compacted.
+     */
+    private void compactIfNeeded() throws IOException {
+        if (end > compactBytes && end / 2 > compactedEnd) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the journal with its latest save and its high scores only. The records are written and forced to a
+     * separate file, which is renamed once complete, then copied over the start of the mapped journal.
+     *
+     * @throws IOException If the journal cannot be compacted.
+     */
+    private void compact() throws IOException {
+        int size = HEADER_BYTES + highScores.size() * (RECORD_BYTES + SCORE_BYTES) + 4;
+        int latest = saveCount > 0 ? saves[saveCount - 1] : -1;
+        if (latest >= 0) {
+            size += 4 + map.getInt(latest);
+        }
+        ByteBuffer records = ByteBuffer.allocate(size);
+        records.putInt(0, MAGIC);
+        records.putInt(4, VERSION);
+        int position = HEADER_BYTES;
+        for (int i = 0; i < highScores.size(); i++) {
+            HighScore score = highScores.get(i);
+            writeHighScore(records, position + 13, score);
+            position = commit(records, position, SCORE, score.getTime(), SCORE_BYTES);
+        }
+        if (latest >= 0) {
+            int payload = map.getInt(latest) - (RECORD_BYTES - 4);
+            records.put(position + 13, map, latest + 13, payload);
+            position = commit(records, position, SAVE, map.getLong(latest + 5), payload);
+        }
+
+        try (FileChannel out = FileChannel.open(compacting, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (records.hasRemaining()) {
+                out.write(records);
+            }
+            out.force(true);
+        }
+        Files.move(compacting, compacted, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        map.put(0, records, 0, size);
+        map.force(0, size);
+        Files.delete(compacted);
+        scan();
+        compactedEnd = end;
+    }
+
+    /**
+     * Saves the state of a world, which must not be ticking.
+     *
+     * @param world The world to save.
+     * @return The number of bytes written.
+     * @throws IOException If the journal cannot grow.
+     */
+    public synchronized int save(World world) throws IOException {
+        int position = reserve(world.getSaveSize());
+        ByteBuffer out = map.duplicate();
+        out.position(position + 13);
+        world.save(out);
+        int bytes = out.position() - position + 4;
+        append(position, SAVE, System.currentTimeMillis(), bytes - RECORD_BYTES);
+        addSave(position);
+        compactIfNeeded();
+        return bytes;
+    }
+
+    /**
+     * Restores a world to a save.
+     *
+     * @param world The world to restore, which must not be ticking.
+     * @param back  The number of saves to go back past the latest, 0 for the latest.
+     * @return True if the world was restored, false if there is no such save.
+     */
+    public synchronized boolean restore(World world, int back) {
+        if (back < 0 || back >= saveCount) {
+            return false;
+        }
+        int position = saves[saveCount - 1 - back];
+        ByteBuffer in = map.duplicate();
+        in.limit(position + 4 + map.getInt(position) - 4);
+        in.position(position + 13);
+        world.restore(in);
+        return true;
+    }
+
+    /**
+     * Records the outcome of a finished game.
+     *
+     * @param score The outcome of the game.
+     * @return The rank of the game in the high-score table, from 0, or -1 if it is not in the table.
+     * @throws IOException If the journal cannot grow.
+     */
+    public synchronized int recordScore(HighScore score) throws IOException {
+        int position = reserve(SCORE_BYTES);
+        writeHighScore(map, position + 13, score);
+        append(position, SCORE, score.getTime(), SCORE_BYTES);
+        int rank = addHighScore(score);
+        compactIfNeeded();
+        return rank;
+    }
+
+    /**
+     * Completes a record at the end of the journal whose payload was written, and forces it to the disk.
+     *
+     * @param position The position of the record, as reserved.
+     * @param type     The type of the record.
+     * @param time     The timestamp of the record.
+     * @param payload  The number of bytes of the payload.
+     */
+    private void append(int position, byte type, long time, int payload) {
+        end = commit(map, position, type, time, payload);
+        // The empty length after the record is forced too, so that a stale record is never read back after it
+        map.force(position, end + 4 - position);
+    }
+
+    /**
+     * Makes room for a record at the end of the journal, remapping a larger region if needed.
+     *
+     * @param payload The largest number of bytes of the payload.
+     * @return The position of the record.
+     * @throws IOException If the journal cannot grow.
+     */
+    private int reserve(int payload) throws IOException {
+        long needed = (long) end + RECORD_BYTES + payload + 4;
+        if (needed > Integer.MAX_VALUE) {
+            throw new IOException("The save journal is full");
+        }
+        if (needed > map.capacity()) {
+            long size = Math.min(Integer.MAX_VALUE, Math.max(needed, (long) map.capacity() * 2));
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        return end;
+    }
+
+    /**
+     * Completes a record whose payload was written, writing its length last so that it becomes visible at once.
+     *
+     * @param buffer   The buffer holding the record.
+     * @param position The position of the record.
+     * @param type     The type of the record.
+     * @param time     The timestamp of the record.
+     * @param payload  The number of bytes of the payload.
+     * @return The position after the record.
+     */
+    private int commit(ByteBuffer buffer, int position, byte type, long time, int payload) {
+        int length = RECORD_BYTES - 4 + payload;
+        buffer.put(position + 4, type);
+        buffer.putLong(position + 5, time);
+        buffer.putInt(position + 13 + payload, checksum(buffer, position, length));
+        buffer.putInt(position + 4 + length, 0);
+        buffer.putInt(position, length);
+        return position + 4 + length;
+    }
+
+    /**
+     * Computes the checksum of the type, timestamp and payload of a record.
+     *
+     * @param buffer   The buffer holding the record.
+     * @param position The position of the record.
+     * @param length   The length of the record, not counting the length itself.
+     * @return The checksum.
+     */
+    private int checksum(ByteBuffer buffer, int position, int length) {
+        ByteBuffer covered = buffer.duplicate();
+        covered.limit(position + length);
+        covered.position(position + 4);
+        crc.reset();
+        crc.update(covered);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks whether a record is complete.
+     *
+     * @param position The position of the record.
+     * @param length   The length of the record, not counting the length itself.
+     * @return True if the checksum written matches the record.
+     */
+    private boolean checksumMatches(int position, int length) {
+        return map.getInt(position + length) == checksum(map, position, length);
+    }
+
+    /**
+     * Remembers the position of a save record.
+     *
+     * @param position The position of the record.
+     */
+    private void addSave(int position) {
+        if (saveCount == saves.length) {
+            saves = Arrays.copyOf(saves, saveCount * 2);
+        }
+        saves[saveCount++] = position;
+    }
+
+    /**
+     * Writes the outcome of a game as the payload of a score record.
+     *
+     * @param buffer   The buffer to write to.
+     * @param position The position of the payload.
+     * @param score    The outcome of the game.
+     */
+    private static void writeHighScore(ByteBuffer buffer, int position, HighScore score) {
+        buffer.putInt(position, score.getScore());
+        buffer.putInt(position + 4, score.getLevel());
+        buffer.put(position + 8, (byte) (score.isWon() ? 1 : 0));
+    }
+
+    /**
+     * Reads the outcome of a game from a score record.
+     *
+     * @param position The position of the record.
+     * @return The outcome of the game.
+     */
+    private HighScore readHighScore(int position) {
+        return new HighScore(map.getInt(position + 13), map.getInt(position + 17), map.get(position + 21) != 0,
+                map.getLong(position + 5));
+    }
+
+    /**
+     * Adds a game to the high-score table if it is good enough.
+     *
+     * @param score The outcome of the game.
+     * @return The rank of the game in the table, from 0, or -1 if it is not in the table.
+     */
+    private int addHighScore(HighScore score) {
+        int rank = 0;
+        while (rank < highScores.size() && highScores.get(rank).getScore() >= score.getScore()) {
+            rank++;
+        }
+        if (rank >= MAX_HIGH_SCORES) {
+            return -1;
+        }
+        highScores.add(rank, score);
+        if (highScores.size() > MAX_HIGH_SCORES) {
+            highScores.remove(MAX_HIGH_SCORES);
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the best games recorded.
+     *
+     * @return At most {@link #MAX_HIGH_SCORES} games, best first.
+     */
+    public synchronized List<HighScore> getHighScores() {
+        return List.copyOf(highScores);
+    }
+
+    /**
+     * Gets the number of saves in the journal.
+     *
+     * @return The number of saves.
+     */
+    public synchronized int getSaveCount() {
+        return saveCount;
+    }
+
+    /**
+     * Gets the number of bytes used by the records of the journal.
+     *
+     * @return The size of the journal.
+     */
+    public synchronized int getSize() {
+        return end;
+    }
+
+    /**
+     * Writes the mapped region back to the file and closes it. The region stays mapped until it is garbage collected.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            map.force();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * A player sweeping across the screen while shooting, moving left then right for a fixed number of ticks each way
+ * whatever happens in the world. Its input depends only on the number of ticks played, so it exercises the same
+ * paths in every game.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class ScriptedController implements PlayerController {
+
+    /**
+     * The default number of ticks spent moving in each direction.
+     */
+    public static final int DEFAULT_PERIOD = 90;
+
+    /**
+     * The number of ticks spent moving in each direction.
+     */
+    private final int period;
+
+    /**
+     * The number of ticks played in the current game.
+     */
+    private long ticks = 0;
+
+    /**
+     * Constructs a player sweeping for {@link #DEFAULT_PERIOD} ticks each way.
+     */
+    public ScriptedController() {
+        this(DEFAULT_PERIOD);
+    }
+
+    /**
+     * Constructs a player sweeping for the given number of ticks each way.
+     *
+     * @param period The number of ticks spent moving in each direction.
+     * @throws IllegalArgumentException If the period is below 1.
+     */
+    public ScriptedController(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("period must be at least 1");
+        }
+        this.period = period;
+    }
+
+    /**
+     * Shoots while moving in the direction of the current sweep.
+     *
+     * @param world  The world about to be ticked.
+     * @param player The index of the player.
+     * @return The {@link Input} bits of the player.
+     */
+    @Override
+    public int decide(World world, int player) {
+        return Input.SHOOT | ((ticks++ / period) % 2 == 0 ? Input.LEFT : Input.RIGHT);
+    }
+
+    /**
+     * Starts the next game with a sweep to the left.
+     */
+    @Override
+    public void reset() {
+        ticks = 0;
+    }
+}
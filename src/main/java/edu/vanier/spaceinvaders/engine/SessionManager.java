@@ -0,0 +1,193 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays many {@link HeadlessSession}s side by side on a fixed number of worker threads, for bots to train against
+ * and to load test the engine. Workers take sessions in turn from a shared cursor and run at most a slice of ticks of
+ * each before moving on, so a session playing as fast as possible cannot starve the others, and a worker that finds
+ * nothing due in a whole pass sleeps briefly instead of spinning.
+ *
+ * <p>Each session ticks its own world on the worker that picked it, so a tick has the same outcome as on the
+ * simulation thread, and sessions can be added while the manager runs.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class SessionManager {
+
+    /**
+     * The default largest number of ticks a worker runs for a session before moving on to the next one.
+     */
+    public static final int DEFAULT_SLICE = 8;
+
+    /**
+     * The time a worker sleeps when no session was due in a whole pass, in nanoseconds.
+     */
+    private static final long IDLE_NANOS = 500_000;
+
+    /**
+     * The number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * The largest number of ticks run for a session before moving on.
+     */
+    private final int slice;
+
+    /**
+     * The sessions played, replaced whole when a session is added so that workers read it without locking.
+     */
+    private volatile HeadlessSession[] sessions = new HeadlessSession[0];
+
+    /**
+     * The position of the next session to run, increasing forever and taken modulo the number of sessions.
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * The number of ticks run by every session together.
+     */
+    private final AtomicLong ticks = new AtomicLong();
+
+    /**
+     * The worker threads, empty before the manager is started.
+     */
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * Flag indicating whether the workers should keep running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * Constructs a manager running sessions on the given number of worker threads.
+     *
+     * @param threads The number of worker threads.
+     * @param slice   The largest number of ticks run for a session before moving on.
+     * @throws IllegalArgumentException If the number of threads or the slice is below 1.
+     */
+    public SessionManager(int threads, int slice) {
+        if (threads < 1 || slice < 1) {
+            throw new IllegalArgumentException("threads and slice must be at least 1");
+        }
+        this.threads = threads;
+        this.slice = slice;
+    }
+
+    /**
+     * Adds a session to play, at once if the manager is running.
+     *
+     * @param session The session.
+     */
+    public synchronized void add(HeadlessSession session) {
+        HeadlessSession[] grown = Arrays.copyOf(sessions, sessions.length + 1);
+        grown[sessions.length] = session;
+        sessions = grown;
+    }
+
+    /**
+     * Starts the worker threads.
+     *
+     * @throws IllegalStateException If the manager was already started.
+     */
+    public synchronized void start() {
+        if (!workers.isEmpty()) {
+            throw new IllegalStateException("Session manager already started");
+        }
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::work, "session-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops the worker threads once they finish the slice they are running.
+     */
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs sessions in turn until the manager is stopped.
+     */
+    private void work() {
+        int idle = 0;
+        while (running) {
+            HeadlessSession[] sessions = this.sessions;
+            if (sessions.length == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            HeadlessSession session = sessions[(int) (cursor.getAndIncrement() % sessions.length)];
+            int ran = session.run(System.nanoTime(), slice);
+            if (ran > 0) {
+                ticks.addAndGet(ran);
+                idle = 0;
+            } else if (++idle >= sessions.length) {
+                // Nothing was due in a whole pass, wait for the budgets to allow more ticks
+                LockSupport.parkNanos(IDLE_NANOS);
+                idle = 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of ticks run by every session together, so that comparing it between two points in time gives
+     * the aggregate tick rate.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * Gets the sessions played.
+     *
+     * @return The sessions, in order of addition.
+     */
+    public List<HeadlessSession> getSessions() {
+        return List.of(sessions);
+    }
+
+    /**
+     * Counts the sessions that have not spent their number of ticks.
+     *
+     * @return The number of active sessions.
+     */
+    public int countActive() {
+        int active = 0;
+        for (HeadlessSession session : sessions) {
+            if (!session.isFinished()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+}
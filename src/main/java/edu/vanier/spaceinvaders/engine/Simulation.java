@@ -0,0 +1,50 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * A game running away from the JavaFX application thread, which only draws its latest {@link Snapshot} and sends it
+ * key presses. The game is either simulated locally by a {@link SimulationThread} or remotely by a game server, so
+ * the interface does not need to know where the world lives.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public interface Simulation {
+
+    /**
+     * Starts running the game.
+     *
+     * @throws IllegalStateException If the game was already started.
+     */
+    void start();
+
+    /**
+     * Stops running the game.
+     */
+    void stop();
+
+    /**
+     * Asks for a new game once the current one is over.
+     */
+    void restart();
+
+    /**
+     * Gets the newest snapshot of the game. Must only be called by the rendering thread.
+     *
+     * @return The newest snapshot, valid until the next call.
+     */
+    Snapshot latest();
+
+    /**
+     * Gets the queue carrying key presses to the game. Must only be fed by the rendering thread.
+     *
+     * @return The input queue.
+     */
+    InputQueue getInput();
+
+    /**
+     * Gets the time between two snapshots.
+     *
+     * @return The length of a tick in nanoseconds.
+     */
+    long getStepNanos();
+}
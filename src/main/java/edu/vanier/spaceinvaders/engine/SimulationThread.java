@@ -0,0 +1,259 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a {@link World} on its own thread, away from the JavaFX application thread. The thread ticks the world with
+ * the fixed step of a {@link GameLoop}, sleeping between ticks, and publishes a {@link Snapshot} after each batch of
+ * ticks; the rendering thread only draws the latest snapshot and sends key presses through an {@link InputQueue}, so
+ * a slow tick never delays a frame and a slow frame never delays a tick. The thread sleeps while the game is over
+ * until a restart is requested. Work that must see the world between two ticks, such as saving or restoring it, is
+ * posted to the thread with {@link #post(Consumer)}, which also runs while the world is paused.
+ *
+ * <p>Once started, the world belongs to the simulation thread: its listeners are called on that thread, and it must not
+ * be read or changed elsewhere until the game is over or the thread is stopped.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class SimulationThread implements Simulation, Runnable {
+
+    /**
+     * The logger for the simulation thread.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SimulationThread.class);
+
+    /**
+     * The world being simulated.
+     */
+    private final World world;
+
+    /**
+     * The loop ticking the world with a fixed time step.
+     */
+    private final GameLoop loop;
+
+    /**
+     * The length of a tick in nanoseconds.
+     */
+    private final long stepNanos;
+
+    /**
+     * The key presses waiting to reach the world.
+     */
+    private final InputQueue input = new InputQueue();
+
+    /**
+     * The snapshots handed to the rendering thread.
+     */
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+
+    /**
+     * Flag indicating whether the rendering thread asked for a new game.
+     */
+    private final AtomicBoolean restartRequested = new AtomicBoolean();
+
+    /**
+     * The tasks waiting to run on the simulation thread between two ticks.
+     */
+    private final Queue<Consumer<World>> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Flag indicating whether the world is paused, so that only posted tasks change it.
+     */
+    private volatile boolean paused = false;
+
+    /**
+     * Flag indicating whether the thread should keep running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * The thread running the simulation, or null before it is started.
+     */
+    private Thread thread;
+
+    /**
+     * Constructs a simulation of the given world, adding the given listener to the listeners of its notifications,
+     * which are called on the simulation thread.
+     *
+     * @param world    The world to simulate.
+     * @param listener The listener notified of sounds and of the events of the game.
+     */
+    public SimulationThread(World world, WorldListener listener) {
+        this.world = world;
+        this.loop = new GameLoop(world);
+        this.stepNanos = (long) (World.FRAME * 1e9);
+        world.addListener(listener);
+    }
+
+    /**
+     * Publishes the current state of the world and starts the simulation thread.
+     *
+     * @throws IllegalStateException If the thread was already started.
+     */
+    @Override
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Simulation already started");
+        }
+        snapshots.publish(world, System.nanoTime(), loop.getTicks());
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the simulation thread and waits briefly for it to finish its tick.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Asks the simulation thread to start a new game.
+     */
+    @Override
+    public void restart() {
+        restartRequested.set(true);
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Pauses or resumes the world. While paused, the thread sleeps until a task is posted or the world is resumed,
+     * and the time spent paused is not simulated.
+     *
+     * @param paused True to pause the world, false to resume it.
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Checks whether the world is paused.
+     *
+     * @return True if the world is paused.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Runs a task on the simulation thread before the next tick, even while the game is over, and publishes the
+     * state of the world it leaves. The task may save, restore or change the world freely.
+     *
+     * @param task The task, given the world.
+     */
+    public void post(Consumer<World> task) {
+        tasks.add(task);
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Runs the tasks posted since the last tick and publishes the state of the world they leave.
+     */
+    private void runTasks() {
+        Consumer<World> task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.accept(world);
+            } catch (RuntimeException ex) {
+                logger.warn("A task posted to the simulation failed", ex);
+            }
+        }
+        snapshots.publish(world, System.nanoTime(), loop.getTicks());
+    }
+
+    /**
+     * Ticks the world on schedule until the thread is stopped.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                if (restartRequested.getAndSet(false)) {
+                    world.restart();
+                    loop.reset();
+                    snapshots.publish(world, System.nanoTime(), loop.getTicks());
+                }
+                if (!tasks.isEmpty()) {
+                    runTasks();
+                }
+                world.setInput(input.drain(world.getInput()));
+
+                // Sleep until a new game is requested, or until the world is resumed
+                if (world.isGameOver() || paused) {
+                    loop.reset();
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                long ticks = loop.getTicks();
+                double alpha = loop.advance(now);
+                if (loop.getTicks() != ticks) {
+                    snapshots.publish(world, now - (long) (alpha * stepNanos), loop.getTicks());
+                }
+                // Sleep until the next tick is due
+                LockSupport.parkNanos(this, (long) ((1 - alpha) * stepNanos));
+            }
+        } catch (RuntimeException ex) {
+            logger.error("The simulation stopped after {} ticks", loop.getTicks(), ex);
+            running = false;
+        }
+    }
+
+    /**
+     * Gets the newest snapshot of the world. Must only be called by the rendering thread.
+     *
+     * @return The newest snapshot, valid until the next call.
+     */
+    @Override
+    public Snapshot latest() {
+        return snapshots.latest();
+    }
+
+    /**
+     * Gets the queue carrying key presses to the world. Must only be fed by the rendering thread.
+     *
+     * @return The input queue.
+     */
+    @Override
+    public InputQueue getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the length of a tick.
+     *
+     * @return The length of a tick in nanoseconds.
+     */
+    @Override
+    public long getStepNanos() {
+        return stepNanos;
+    }
+}
@@ -0,0 +1,415 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.util.Arrays;
+
+/**
+ * A copy of everything needed to draw a {@link World} after a tick: the position at the start and the end of the
+ * tick, the size, scale and image of every entity, grouped by kind, and the score, lives and level shown by the
+ * labels. The simulation thread captures snapshots and the JavaFX thread draws them, so rendering never reads the
+ * world while it is being ticked. A snapshot can also be filled entity by entity with {@link #begin()},
+ * {@link #add} and {@link #finish}, for worlds simulated elsewhere such as on a game server.
+ *
+ * <p>Snapshots are reused rather than allocated: {@link #capture(World, long, long, long)} overwrites the columns and
+ * only grows them when the world holds more entities than ever before.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class Snapshot {
+
+    /**
+     * The index of the first entity of each kind, indexed by {@link EntityKind#ordinal()}, followed by the total
+     * number of entities.
+     */
+    private final int[] starts = new int[EntityKind.ALL.length + 1];
+
+    /**
+     * The position of each entity at the start and at the end of the tick.
+     */
+    private double[] previousX = new double[0];
+    private double[] previousY = new double[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+
+    /**
+     * The size and scale of each entity.
+     */
+    private float[] width = new float[0];
+    private float[] height = new float[0];
+    private float[] scale = new float[0];
+
+    /**
+     * The name of the image used to draw each entity.
+     */
+    private String[] image = new String[0];
+
+    /**
+     * The number of the snapshot, increasing with each capture.
+     */
+    private long sequence = 0;
+
+    /**
+     * The time in nanoseconds at which the captured tick ended, used to interpolate between snapshots.
+     */
+    private long time = 0;
+
+    /**
+     * The number of ticks run by the world when the snapshot was captured.
+     */
+    private long ticks = 0;
+
+    /**
+     * The score, lives and level of the game.
+     */
+    private int score;
+    private int lives;
+    private int level;
+
+    /**
+     * The number of levels started since the game was launched, so that a restarted level is told apart from the
+     * one before it.
+     */
+    private long levelStarts;
+
+    /**
+     * Flags indicating whether the game is over and whether every level was cleared.
+     */
+    private boolean gameOver;
+    private boolean won;
+
+    /**
+     * The number of entities added since {@link #begin()}, and the first kind whose start is not set yet.
+     */
+    private int filled;
+    private int nextKind;
+
+    /**
+     * Copies the state of the world into the snapshot.
+     *
+     * @param world    The world to copy.
+     * @param sequence The number of the snapshot.
+     * @param time     The time in nanoseconds at which the last tick ended.
+     * @param ticks    The number of ticks run by the world.
+     */
+    void capture(World world, long sequence, long time, long ticks) {
+        EntityStore store = world.getStore();
+        int total = 0;
+        for (EntityKind kind : EntityKind.ALL) {
+            total += world.getEntities(kind).size();
+        }
+        ensureCapacity(total);
+
+        int index = 0;
+        for (EntityKind kind : EntityKind.ALL) {
+            starts[kind.ordinal()] = index;
+            EntityArray entities = world.getEntities(kind);
+            // Invaders are stored relative to the formation, so add its offset to place them on screen
+            Formation formation = world.getFormation();
+            boolean enemy = kind == EntityKind.ENEMY;
+            double offsetX = enemy ? formation.getOffsetX() : 0;
+            double offsetY = enemy ? formation.getOffsetY() : 0;
+            double previousOffsetX = enemy ? formation.getPreviousOffsetX() : 0;
+            double previousOffsetY = enemy ? formation.getPreviousOffsetY() : 0;
+            for (int i = 0; i < entities.size(); i++) {
+                int entity = entities.get(i);
+                previousX[index] = store.getX(entity, 0) + previousOffsetX;
+                previousY[index] = store.getY(entity, 0) + previousOffsetY;
+                x[index] = store.getX(entity) + offsetX;
+                y[index] = store.getY(entity) + offsetY;
+                width[index] = (float) store.getWidth(entity);
+                height[index] = (float) store.getHeight(entity);
+                scale[index] = (float) store.getScale(entity);
+                image[index] = store.getImage(entity);
+                index++;
+            }
+        }
+        starts[EntityKind.ALL.length] = index;
+        // Drop references to images no longer drawn
+        Arrays.fill(image, index, image.length, null);
+
+        this.sequence = sequence;
+        this.time = time;
+        this.ticks = ticks;
+        GameSession session = world.getSession();
+        levelStarts = session.getLevelStarts();
+        score = session.getScore();
+        lives = session.getLives();
+        level = session.getLevel();
+        gameOver = session.isGameOver();
+        won = session.isWon();
+    }
+
+    /**
+     * Starts filling the snapshot entity by entity, dropping the entities it held. Entities must be added grouped by
+     * kind, in the order of {@link EntityKind#ALL}.
+     */
+    public void begin() {
+        filled = 0;
+        nextKind = 0;
+    }
+
+    /**
+     * Adds an entity to the snapshot being filled.
+     *
+     * @param kind      The kind of the entity, not before the kind of the previous entity added.
+     * @param previousX The x-coordinate of the entity at the start of the tick.
+     * @param previousY The y-coordinate of the entity at the start of the tick.
+     * @param x         The x-coordinate of the entity at the end of the tick.
+     * @param y         The y-coordinate of the entity at the end of the tick.
+     * @param width     The width of the entity.
+     * @param height    The height of the entity.
+     * @param scale     The scale of the entity.
+     * @param image     The name of the image used to draw the entity.
+     * @throws IllegalArgumentException If the entity is added after entities of a later kind.
+     */
+    public void add(EntityKind kind, double previousX, double previousY, double x, double y, float width, float height,
+            float scale, String image) {
+        if (kind.ordinal() < nextKind - 1) {
+            throw new IllegalArgumentException(kind + " added after a later kind");
+        }
+        while (nextKind <= kind.ordinal()) {
+            starts[nextKind++] = filled;
+        }
+        ensureCapacity(filled + 1);
+        this.previousX[filled] = previousX;
+        this.previousY[filled] = previousY;
+        this.x[filled] = x;
+        this.y[filled] = y;
+        this.width[filled] = width;
+        this.height[filled] = height;
+        this.scale[filled] = scale;
+        this.image[filled] = image;
+        filled++;
+    }
+
+    /**
+     * Completes the snapshot being filled with the state of the game.
+     *
+     * @param time        The time in nanoseconds at which the tick ended.
+     * @param ticks       The number of ticks run by the world.
+     * @param levelStarts The number of levels started since the game was launched.
+     * @param score       The score.
+     * @param lives       The number of lives remaining.
+     * @param level       The level.
+     * @param gameOver    True if the game is over.
+     * @param won         True if every level was cleared.
+     */
+    public void finish(long time, long ticks, long levelStarts, int score, int lives, int level, boolean gameOver,
+            boolean won) {
+        while (nextKind <= EntityKind.ALL.length) {
+            starts[nextKind++] = filled;
+        }
+        Arrays.fill(image, filled, image.length, null);
+        this.time = time;
+        this.ticks = ticks;
+        this.levelStarts = levelStarts;
+        this.score = score;
+        this.lives = lives;
+        this.level = level;
+        this.gameOver = gameOver;
+        this.won = won;
+    }
+
+    /**
+     * Sets the number of the snapshot once it is complete.
+     *
+     * @param sequence The number of the snapshot.
+     */
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Grows the columns so that they hold at least the given number of entities.
+     *
+     * @param length The number of entities.
+     */
+    private void ensureCapacity(int length) {
+        if (x.length >= length) {
+            return;
+        }
+        int capacity = Math.max(length, x.length * 2);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        scale = Arrays.copyOf(scale, capacity);
+        image = Arrays.copyOf(image, capacity);
+    }
+
+    /**
+     * Gets the index of the first entity of the given kind.
+     *
+     * @param kind The kind of entities.
+     * @return The index of the first entity of the kind.
+     */
+    public int start(EntityKind kind) {
+        return starts[kind.ordinal()];
+    }
+
+    /**
+     * Gets the index after the last entity of the given kind.
+     *
+     * @param kind The kind of entities.
+     * @return The index after the last entity of the kind.
+     */
+    public int end(EntityKind kind) {
+        return starts[kind.ordinal() + 1];
+    }
+
+    /**
+     * Gets the number of entities of the given kind.
+     *
+     * @param kind The kind of entities.
+     * @return The number of entities of the kind.
+     */
+    public int count(EntityKind kind) {
+        return end(kind) - start(kind);
+    }
+
+    /**
+     * Gets the x-coordinate of an entity interpolated between the start and the end of the tick.
+     *
+     * @param index The index of the entity.
+     * @param alpha The fraction of the tick elapsed, between 0 and 1.
+     * @return The interpolated x-coordinate.
+     */
+    public double getX(int index, double alpha) {
+        return previousX[index] + (x[index] - previousX[index]) * alpha;
+    }
+
+    /**
+     * Gets the y-coordinate of an entity interpolated between the start and the end of the tick.
+     *
+     * @param index The index of the entity.
+     * @param alpha The fraction of the tick elapsed, between 0 and 1.
+     * @return The interpolated y-coordinate.
+     */
+    public double getY(int index, double alpha) {
+        return previousY[index] + (y[index] - previousY[index]) * alpha;
+    }
+
+    /**
+     * Gets the width of an entity.
+     *
+     * @param index The index of the entity.
+     * @return The width.
+     */
+    public double getWidth(int index) {
+        return width[index];
+    }
+
+    /**
+     * Gets the height of an entity.
+     *
+     * @param index The index of the entity.
+     * @return The height.
+     */
+    public double getHeight(int index) {
+        return height[index];
+    }
+
+    /**
+     * Gets the scale of an entity.
+     *
+     * @param index The index of the entity.
+     * @return The scale.
+     */
+    public double getScale(int index) {
+        return scale[index];
+    }
+
+    /**
+     * Gets the name of the image used to draw an entity.
+     *
+     * @param index The index of the entity.
+     * @return The image name, without directory or extension.
+     */
+    public String getImage(int index) {
+        return image[index];
+    }
+
+    /**
+     * Gets the number of the snapshot. Later captures have larger numbers.
+     *
+     * @return The number of the snapshot.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the time at which the captured tick ended.
+     *
+     * @return The time in nanoseconds, as given by {@link System#nanoTime()}.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the number of ticks run by the world when the snapshot was captured.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the score of the game.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the lives remaining.
+     *
+     * @return The lives remaining.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the current level.
+     *
+     * @return The level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the number of levels started since the game was launched.
+     *
+     * @return The number of levels started.
+     */
+    public long getLevelStarts() {
+        return levelStarts;
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Checks if the game ended because every level was cleared.
+     *
+     * @return True if the player won, false otherwise.
+     */
+    public boolean isWon() {
+        return won;
+    }
+}
@@ -0,0 +1,79 @@
+package edu.vanier.spaceinvaders.engine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands {@link Snapshot}s from the simulation thread to the rendering thread without locks, using three snapshots
+ * that are never shared: the writer fills the back snapshot, the reader draws the front snapshot, and the latest
+ * complete snapshot waits in the middle. Publishing swaps the back snapshot with the middle one and reading swaps the
+ * front snapshot with the middle one if it is newer, so neither thread ever waits for the other and the reader always
+ * gets the newest snapshot published, skipping any it was too slow to draw.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class SnapshotBuffer {
+
+    /**
+     * The snapshot being filled by the writer.
+     */
+    private Snapshot back = new Snapshot();
+
+    /**
+     * The latest snapshot published, or the snapshot the reader gave back.
+     */
+    private final AtomicReference<Snapshot> middle = new AtomicReference<>(new Snapshot());
+
+    /**
+     * The snapshot being drawn by the reader.
+     */
+    private Snapshot front = new Snapshot();
+
+    /**
+     * The number of snapshots published.
+     */
+    private long published = 0;
+
+    /**
+     * Captures the state of the world into the back snapshot and publishes it. Must only be called by the writer.
+     *
+     * @param world The world to capture.
+     * @param time  The time in nanoseconds at which the last tick ended.
+     * @param ticks The number of ticks run by the world.
+     */
+    public void publish(World world, long time, long ticks) {
+        back.capture(world, ++published, time, ticks);
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Gets the back snapshot, to be filled with {@link Snapshot#begin()} and the methods following it and then
+     * published with {@link #publish()}. Must only be called by the writer.
+     *
+     * @return The snapshot to fill.
+     */
+    public Snapshot acquire() {
+        return back;
+    }
+
+    /**
+     * Publishes the back snapshot once it was filled. Must only be called by the writer.
+     */
+    public void publish() {
+        back.setSequence(++published);
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Gets the newest snapshot published. The snapshot stays valid until the next call. Must only be called by the
+     * reader.
+     *
+     * @return The newest snapshot, or an empty snapshot if nothing was published yet.
+     */
+    public Snapshot latest() {
+        if (middle.get().getSequence() > front.getSequence()) {
+            front = middle.getAndSet(front);
+        }
+        return front;
+    }
+}
@@ -0,0 +1,271 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.utils.AllocationMeter;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the per-entity loops of a tick in chunks on a {@link ForkJoinPool}. A loop over {@code size} entities is split
+ * into consecutive chunks of at most {@link #getChunkSize()} entities and handed to the pool, where a worker forks
+ * the chunks but the first, runs the first itself and joins the others, while the calling thread waits for the loop
+ * to complete. Loops smaller than a chunk, or every loop when the executor has a single thread, run directly on the
+ * calling thread.
+ *
+ * <p>The chunks of a loop only write to their own entities and to per-entity result slots; anything touching shared
+ * state, such as spawning bullets or changing the score, is merged afterward on the calling thread in entity order.
+ * A tick therefore has the same outcome whatever the number of threads. The fork/join tasks are reused from tick to
+ * tick, so once the executor has seen its largest loop, running a loop only allocates the few bytes the pool needs
+ * for the calling thread to wait on it, and nothing on a single thread.</p>
+ *
+ * <p>While allocations are measured, each chunk reads the allocation meter of the worker running it around its loop,
+ * so that the bytes allocated by a tick can count the workers as well as the calling thread.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class TickExecutor {
+
+    /**
+     * The default number of entities per chunk, large enough that a chunk outweighs the cost of forking it.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 2048;
+
+    /**
+     * The body of a loop, run once per chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkTask {
+
+        /**
+         * Runs the loop over a chunk of entities.
+         *
+         * @param chunk The index of the chunk.
+         * @param from  The index of the first entity of the chunk.
+         * @param to    The index after the last entity of the chunk.
+         */
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * The pool running the chunks, or null if loops run on the calling thread.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The maximum number of entities per chunk.
+     */
+    private final int chunkSize;
+
+    /**
+     * The reusable task of each chunk.
+     */
+    private Chunk[] chunks = new Chunk[0];
+
+    /**
+     * The reusable task forking the chunks of a loop and waiting for them.
+     */
+    private final Fork fork = new Fork();
+
+    /**
+     * Flag indicating whether the chunks running on the pool measure their allocations.
+     */
+    private boolean measuringAllocations = false;
+
+    /**
+     * The number of bytes allocated by the chunks run on the threads of the pool while allocations were measured.
+     */
+    private long workerAllocatedBytes = 0;
+
+    /**
+     * Constructs an executor running loops on the calling thread only.
+     */
+    public TickExecutor() {
+        this(1, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an executor running loops on the given number of threads.
+     *
+     * @param threads   The number of threads of the pool, or 1 to run every loop on the calling thread.
+     * @param chunkSize The maximum number of entities per chunk.
+     * @throws IllegalArgumentException If the number of threads or the chunk size is below 1.
+     */
+    public TickExecutor(int threads, int chunkSize) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("threads and chunk size must be at least 1");
+        }
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the number of chunks a loop over the given number of entities is split into.
+     *
+     * @param size The number of entities.
+     * @return The number of chunks.
+     */
+    public int chunks(int size) {
+        return Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * Runs a loop over the given number of entities and waits for every chunk to complete.
+     *
+     * @param size The number of entities.
+     * @param task The body of the loop.
+     */
+    public void forEach(int size, ChunkTask task) {
+        int count = chunks(size);
+        if (pool == null || count == 1) {
+            for (int chunk = 0; chunk < count; chunk++) {
+                task.run(chunk, chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize));
+            }
+            return;
+        }
+
+        if (chunks.length < count) {
+            int old = chunks.length;
+            chunks = Arrays.copyOf(chunks, count);
+            for (int i = old; i < count; i++) {
+                chunks[i] = new Chunk();
+            }
+        }
+        Thread caller = measuringAllocations ? Thread.currentThread() : null;
+        for (int chunk = 0; chunk < count; chunk++) {
+            Chunk action = chunks[chunk];
+            action.reinitialize();
+            action.caller = caller;
+            action.task = task;
+            action.chunk = chunk;
+            action.from = chunk * chunkSize;
+            action.to = Math.min(size, (chunk + 1) * chunkSize);
+        }
+        fork.reinitialize();
+        fork.count = count;
+        pool.invoke(fork);
+        for (int chunk = 0; chunk < count; chunk++) {
+            chunks[chunk].task = null;
+            workerAllocatedBytes += chunks[chunk].allocated;
+            chunks[chunk].allocated = 0;
+        }
+    }
+
+    /**
+     * Sets whether the chunks running on the threads of the pool measure the bytes they allocate.
+     *
+     * @param measuringAllocations True to measure the allocations of the workers, false to leave them out.
+     */
+    public void setMeasuringAllocations(boolean measuringAllocations) {
+        this.measuringAllocations = measuringAllocations;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the chunks run on the threads of the pool while allocations were
+     * measured. Subtracting two readings gives the bytes the workers allocated in between; the calling thread is
+     * measured with {@link AllocationMeter#allocatedBytes()}.
+     *
+     * @return The number of bytes allocated by the workers.
+     */
+    public long getWorkerAllocatedBytes() {
+        return workerAllocatedBytes;
+    }
+
+    /**
+     * Gets the number of threads loops run on.
+     *
+     * @return The number of threads of the pool, or 1 if loops run on the calling thread.
+     */
+    public int getThreads() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    /**
+     * Gets the maximum number of entities per chunk.
+     *
+     * @return The chunk size.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Stops the threads of the pool. Loops must not be run afterward.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The task running one chunk of a loop.
+     */
+    @SuppressWarnings("serial")
+    private static class Chunk extends RecursiveAction {
+
+        /**
+         * The body of the loop.
+         */
+        private ChunkTask task;
+
+        /**
+         * The index of the chunk and the range of entities it covers.
+         */
+        private int chunk;
+        private int from;
+        private int to;
+
+        /**
+         * The thread that started the loop, which measures its own allocations, or null if allocations are not
+         * measured.
+         */
+        private Thread caller;
+
+        /**
+         * The number of bytes allocated by the chunk on a thread of the pool.
+         */
+        private long allocated;
+
+        /**
+         * Runs the loop over the chunk, measuring its allocations unless it runs on the thread that started the loop.
+         */
+        @Override
+        protected void compute() {
+            if (caller == null || caller == Thread.currentThread()) {
+                task.run(chunk, from, to);
+                return;
+            }
+            long before = AllocationMeter.allocatedBytes();
+            task.run(chunk, from, to);
+            allocated = AllocationMeter.allocatedBytes() - before;
+        }
+    }
+
+    /**
+     * The task run by a worker of the pool for each loop, forking every chunk but the first, running the first itself
+     * and waiting for the others.
+     */
+    @SuppressWarnings("serial")
+    private class Fork extends RecursiveAction {
+
+        /**
+         * The number of chunks of the loop.
+         */
+        private int count;
+
+        /**
+         * Runs the chunks of the loop.
+         */
+        @Override
+        protected void compute() {
+            for (int chunk = count - 1; chunk > 0; chunk--) {
+                chunks[chunk].fork();
+            }
+            chunks[0].compute();
+            for (int chunk = 1; chunk < count; chunk++) {
+                chunks[chunk].join();
+            }
+        }
+    }
+}
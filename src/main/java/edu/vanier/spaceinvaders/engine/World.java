@@ -0,0 +1,1493 @@
+package edu.vanier.spaceinvaders.engine;
+
+import edu.vanier.spaceinvaders.models.EntityKind;
+import edu.vanier.spaceinvaders.utils.AllocationMeter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The World class is the headless simulation core of the game. It owns every entity along with the score, lives and
+ * level, and advances them with {@link #tick(double)}. It has no dependency on the JavaFX toolkit, so it can be stepped
+ * thousands of times per second in tests and benchmarks; the controller only syncs its state into the scene graph.
+ * The per-entity loops of a tick can be split across threads by a {@link TickExecutor}; their effects on shared state
+ * are merged in entity order, so a tick plays out the same on any number of threads.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class World {
+
+    /**
+     * The width of the game screen.
+     */
+    public static final double WIDTH = 800;
+
+    /**
+     * The height of the game screen.
+     */
+    public static final double HEIGHT = 1000;
+
+    /**
+     * The duration of one frame in seconds, which is also the fixed time step of the simulation. Speeds are
+     * expressed in pixels per frame, as they were when the game moved sprites once per animation frame.
+     */
+    public static final double FRAME = 1.0 / 60;
+
+    /**
+     * The last level of the default game, and the last level with its own images, sounds and speed. Later levels of
+     * longer games look and play like this one, with larger waves when the number of rows depends on the level.
+     */
+    public static final int MAX_LEVEL = 3;
+
+    /**
+     * The default number of entities the store holds before growing.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The version of the format written by {@link #save}, changed whenever the format changes.
+     */
+    public static final int SAVE_VERSION = 1;
+
+    /**
+     * The largest number of players sharing a game, each with a spaceship.
+     */
+    public static final int MAX_PLAYERS = 4;
+
+    /**
+     * The horizontal distance between the spaceships of adjacent players when a level starts.
+     */
+    private static final double SHIP_SPACING = 80;
+
+    /**
+     * Cool-down in seconds between shots that user can fire.
+     */
+    private static final double COOL_DOWN = 0.4;
+
+    /**
+     * The horizontal and vertical distance between invaders of a small formation.
+     */
+    private static final double FORMATION_SPACING_X = 100;
+    private static final double FORMATION_SPACING_Y = 50;
+
+    /**
+     * The horizontal and vertical extent of the largest formation. Larger waves are packed closer together to fit.
+     */
+    private static final double FORMATION_WIDTH = 400;
+    private static final double FORMATION_HEIGHT = 400;
+
+    /**
+     * The image names of the invaders, chosen at random for each invader.
+     */
+    private static final String[] INTRUDER_IMAGES = {"intruder1", "intruder2", "intruder3", "intruder4", "intruder5"};
+
+    /**
+     * The columns holding every entity of the world, referenced by handle from the buckets.
+     */
+    private final EntityStore store;
+
+    /**
+     * The handles of the entities currently in the world, bucketed by kind and indexed by {@link EntityKind#ordinal()}.
+     */
+    private final EntityArray[] buckets = new EntityArray[EntityKind.ALL.length];
+
+    /**
+     * The buckets of the kinds iterated by the frame loop.
+     */
+    private final EntityArray enemies;
+    private final EntityArray playerBullets;
+    private final EntityArray enemyBullets;
+    private final EntityArray explosions;
+
+    /**
+     * Entities spawned during the current tick, added to the world once the tick completes.
+     */
+    private final EntityArray spawned = new EntityArray(64);
+
+    /**
+     * The formation moving the living enemies as one block and finding the enemies hit by bullets.
+     */
+    private final Formation formation = new Formation();
+
+    /**
+     * The random source used for enemy images and enemy fire.
+     */
+    private final GameRandom random;
+
+    /**
+     * The recorder capturing the input of every tick, or null if input is not recorded.
+     */
+    private InputRecorder recorder;
+
+    /**
+     * The executor running the per-entity loops of a tick, on the calling thread unless set otherwise.
+     */
+    private TickExecutor executor = new TickExecutor();
+
+    /**
+     * The bodies of the parallel loops of a tick, created once so that running them does not allocate.
+     */
+    private final TickExecutor.ChunkTask savePositionsTask = this::savePositions;
+    private final TickExecutor.ChunkTask decideFireTask = this::decideFire;
+    private final TickExecutor.ChunkTask moveEnemyBulletsTask = this::moveEnemyBullets;
+    private final TickExecutor.ChunkTask movePlayerBulletsTask = this::movePlayerBullets;
+
+    /**
+     * The time step of the current tick, read by the loops.
+     */
+    private double tickDt;
+
+    /**
+     * The seed from which each enemy draws its chance of shooting this tick.
+     */
+    private long fireSeed;
+
+    /**
+     * The per-enemy shooting decisions and the positions the shots leave from, indexed like the enemies.
+     */
+    private boolean[] fires = new boolean[64];
+    private double[] fireX = new double[64];
+    private double[] fireY = new double[64];
+
+    /**
+     * The player whose spaceship each enemy bullet hits, or -1, indexed like the enemy bullets.
+     */
+    private int[] shipHits = new int[64];
+
+    /**
+     * The formation slot of the enemy hit by each player bullet, or -1, indexed like the player bullets.
+     */
+    private int[] bulletHits = new int[64];
+
+    /**
+     * The listeners notified of sounds and of the events of the game, shared with the session.
+     */
+    private final ListenerList listeners;
+
+    /**
+     * The profiler timing the phases of each tick, or null if ticks are not profiled.
+     */
+    private FrameProfiler profiler;
+
+    /**
+     * The buffer keeping the last ticks for rewinding, or null if ticks are not kept.
+     */
+    private RewindBuffer rewind;
+
+    /**
+     * The number of players, each controlling a spaceship.
+     */
+    private int players = 1;
+
+    /**
+     * The handle of the spaceship entity of each player.
+     */
+    private final int[] ships = new int[MAX_PLAYERS];
+
+    /**
+     * The elapsed time for controlling enemy shooting cool down.
+     */
+    private double elapsedTime = 0;
+
+    /**
+     * Time in seconds since the previous shot of each spaceship.
+     */
+    private final double[] timesSinceShot = new double[MAX_PLAYERS];
+
+    /**
+     * The input state of each player applied by the next tick, a combination of the {@link Input} bits.
+     */
+    private final int[] inputs = new int[MAX_PLAYERS];
+
+    /**
+     * Flags indicating whether each player switched their type of bullet.
+     */
+    private final boolean[] rockets = new boolean[MAX_PLAYERS];
+
+    /**
+     * Flag indicating the direction of enemy movement.
+     */
+    private boolean movingRight = true;
+
+    /**
+     * The rules of the game.
+     */
+    private GameConfig config = new GameConfig();
+
+    /**
+     * The rules of the game as written by {@link #save}, or null if they changed since the last save.
+     */
+    private byte[] savedRules;
+
+    /**
+     * Flag indicating whether the formation reached the bottom of the screen during the current tick.
+     */
+    private boolean overrun = false;
+
+    /**
+     * The total number of entities updated by every tick so far.
+     */
+    private long processedEntities = 0;
+
+    /**
+     * Flag indicating whether a tick is in progress, during which spawned entities are deferred.
+     */
+    private boolean ticking = false;
+
+    /**
+     * The score, lives and level of the game being played.
+     */
+    private final GameSession session = new GameSession();
+
+    /**
+     * The names of the explosion sound and the laser and rocket images and sounds of the current level.
+     */
+    private String explosionSound;
+    private String laserName;
+    private String rocketName;
+
+    /**
+     * The number of bytes allocated on the heap by the last tick.
+     */
+    private long tickAllocatedBytes = 0;
+
+    /**
+     * Constructs a world whose store holds {@link #DEFAULT_CAPACITY} entities before growing, seeded from the clock.
+     */
+    public World() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a world whose store holds the given number of entities before growing, seeded from the clock.
+     *
+     * @param capacity The initial capacity of the entity store.
+     */
+    public World(int capacity) {
+        this(capacity, System.nanoTime());
+    }
+
+    /**
+     * Constructs a world whose store holds the given number of entities before growing. Two worlds built with the
+     * same seed and fed the same input play out identically.
+     *
+     * @param capacity The initial capacity of the entity store.
+     * @param seed     The seed of the random source.
+     */
+    public World(int capacity, long seed) {
+        random = new GameRandom(seed);
+        store = new EntityStore(capacity);
+        listeners = session.getListeners();
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new EntityArray(64);
+        }
+        enemies = bucket(EntityKind.ENEMY);
+        playerBullets = bucket(EntityKind.PLAYER_BULLET);
+        enemyBullets = bucket(EntityKind.ENEMY_BULLET);
+        explosions = bucket(EntityKind.EXPLOSION);
+    }
+
+    /**
+     * Gets the bucket holding the entities of the given kind.
+     *
+     * @param kind The kind of entities.
+     * @return The bucket of the kind.
+     */
+    private EntityArray bucket(EntityKind kind) {
+        return buckets[kind.ordinal()];
+    }
+
+    /**
+     * Resets the score, lives and level and starts the first level.
+     */
+    public void restart() {
+        start(1);
+    }
+
+    /**
+     * Resets the score and lives and starts the given level. If a recorder is attached, a new recording begins from
+     * the current state of the random source.
+     *
+     * @param level The level to start, at least 1.
+     */
+    public void start(int level) {
+        session.start(level, config.getLives());
+        // Start from the state of a new world so that a recording of the game can be replayed from scratch
+        Arrays.fill(rockets, false);
+        elapsedTime = 0;
+        Arrays.fill(timesSinceShot, COOL_DOWN);
+        movingRight = true;
+        if (recorder != null) {
+            recorder.begin(random.getState(), level, config);
+        }
+        startLevel();
+        if (rewind != null) {
+            rewind.start(this);
+        }
+    }
+
+    /**
+     * Sets the size of the invader formation spawned by each level. By default a level spawns 5 columns and
+     * {@code level + 2} rows.
+     *
+     * @param columns The number of columns of invaders.
+     * @param rows    The number of rows of invaders, or 0 to use {@code level + 2} rows.
+     */
+    public void setFormation(int columns, int rows) {
+        config.setColumns(columns);
+        config.setRows(rows);
+        savedRules = null;
+    }
+
+    /**
+     * Sets the rules of the game, taking effect when the next game starts.
+     *
+     * @param config The rules of the game, copied by the world.
+     */
+    public void setConfig(GameConfig config) {
+        this.config = config.copy();
+        savedRules = null;
+    }
+
+    /**
+     * Gets the rules of the game.
+     *
+     * @return A copy of the rules of the game.
+     */
+    public GameConfig getConfig() {
+        return config.copy();
+    }
+
+    /**
+     * Populates the world with the spaceship and the invaders of the current level.
+     */
+    public void startLevel() {
+        for (EntityArray bucket : buckets) {
+            for (int i = 0; i < bucket.size(); i++) {
+                store.free(bucket.get(i));
+            }
+            bucket.clear();
+        }
+        for (int i = 0; i < spawned.size(); i++) {
+            store.free(spawned.get(i));
+        }
+        spawned.clear();
+
+        nameLevelAssets();
+        for (int player = 0; player < players; player++) {
+            spawnShip(player);
+        }
+
+        // Spawn enemies according to level, packing large waves closer together so they fit the screen
+        int columns = config.getColumns();
+        int rows = config.rowsAt(session.getLevel());
+        double spacingX = Math.min(FORMATION_SPACING_X, FORMATION_WIDTH / Math.max(columns - 1, 1));
+        double spacingY = Math.min(FORMATION_SPACING_Y, FORMATION_HEIGHT / Math.max(rows - 1, 1));
+        formation.reset(columns, rows, 90, 150, spacingX, spacingY, 30, 30);
+        int tier = tier();
+        for (int j = 0; j < rows; j++) {
+            for (int i = 0; i < columns; i++) {
+                // Randomize image of enemies, which keep their starting position and move with the formation
+                String image = INTRUDER_IMAGES[random.nextInt(INTRUDER_IMAGES.length)];
+                int enemy = store.create(EntityKind.ENEMY, 90 + i * spacingX, 150 + j * spacingY, 30, 30, image, tier);
+                enemies.add(enemy);
+                formation.place(i, j, enemy);
+            }
+        }
+
+        // Prevent continual shooting after level reset
+        for (int player = 0; player < players; player++) {
+            inputs[player] &= ~(Input.SHOOT | Input.SHOOT_PRESSED);
+        }
+
+        session.levelStarted();
+    }
+
+    /**
+     * Builds the names of the current level's sounds and bullet images once instead of every shot.
+     */
+    private void nameLevelAssets() {
+        int tier = tier();
+        explosionSound = "explosion" + tier;
+        laserName = "laser" + tier;
+        rocketName = "rocket" + tier;
+    }
+
+    /**
+     * Advances the game state by the given time step. Handles spaceship movement, shooting, enemy actions, collisions,
+     * and game over conditions.
+     *
+     * @param dt The time step in seconds.
+     */
+    public void tick(double dt) {
+        if (session.isGameOver()) {
+            return;
+        }
+        // The profiler and the rewind buffer share each read of the clock and of the allocation meter, which are
+        // left out of unobserved ticks
+        boolean observed = profiler != null || rewind != null;
+        long allocatedBefore = 0;
+        executor.setMeasuringAllocations(observed);
+        if (observed) {
+            allocatedBefore = AllocationMeter.allocatedBytes() + executor.getWorkerAllocatedBytes();
+            long now = System.nanoTime();
+            if (profiler != null) {
+                profiler.begin(now);
+            }
+            if (rewind != null) {
+                rewind.begin(inputs[0], now);
+            }
+        }
+        ticking = true;
+
+        // Capture the input of the tick, then consume the one-shot rocket toggles
+        if (recorder != null) {
+            recorder.record(inputs[0]);
+        }
+        for (int player = 0; player < players; player++) {
+            if ((inputs[player] & Input.TOGGLE_ROCKETS) != 0) {
+                rockets[player] = !rockets[player];
+                inputs[player] &= ~Input.TOGGLE_ROCKETS;
+            }
+        }
+
+        // Remember where every entity started so that rendering can interpolate
+        executor.forEach(store.getHighWater(), savePositionsTask);
+        formation.savePosition();
+        int entities = 0;
+        for (EntityArray bucket : buckets) {
+            entities += bucket.size();
+        }
+        processedEntities += entities;
+        if (profiler != null) {
+            profiler.recordEntities(entities);
+        }
+
+        elapsedTime += dt;
+        tickDt = dt;
+
+        // Handle spaceship movement and shooting every frame
+        for (int player = 0; player < players; player++) {
+            timesSinceShot[player] += dt;
+            updateSpaceShip(player, dt);
+            inputs[player] &= ~Input.SHOOT_PRESSED;
+        }
+        mark(Phase.INPUT);
+
+        // Bounce the formation off the wall its leftmost or rightmost enemy passed, moving it down
+        boolean movingDown = false;
+        if (formation.size() > 0) {
+            if (formation.getRight() > WIDTH - 100) {
+                movingRight = false;
+                movingDown = true;
+            } else if (formation.getLeft() < 70) {
+                movingRight = true;
+                movingDown = true;
+            }
+        }
+
+        // Move every enemy at once
+        double speed = tier();
+        formation.move((movingRight ? speed : -speed) / FRAME * dt, movingDown ? 20 * speed : 0);
+
+        // Game is over if enemies reach bottom of the screen
+        if (formation.size() > 0 && formation.getBottom() + 30 > HEIGHT) {
+            overrun = true;
+        }
+
+        // Let enemies decide whether to shoot, then spawn their bullets in order
+        if (elapsedTime > config.getFirePeriod()) {
+            fireSeed = random.nextLong();
+            fires = ensureCapacity(fires, enemies.size());
+            fireX = ensureCapacity(fireX, enemies.size());
+            fireY = ensureCapacity(fireY, enemies.size());
+            executor.forEach(enemies.size(), decideFireTask);
+            for (int i = 0; i < enemies.size(); i++) {
+                if (fires[i]) {
+                    fires[i] = false;
+                    spawnBullet(EntityKind.ENEMY_BULLET, fireX[i] + 20, fireY[i], null);
+                }
+            }
+        }
+        mark(Phase.ENEMY_SWEEP);
+
+        // Calculate intersect for enemies, any spaceship reached by the formation ending the game
+        for (int player = 0; player < players; player++) {
+            if (!config.isInvincible() && findInvader(ships[player]) >= 0) {
+                listeners.onSound(explosionSound);
+                session.playerHit(Integer.MAX_VALUE);
+                break;
+            }
+        }
+
+        // Move enemy bullets and test them against the spaceships, then apply the hits in order
+        shipHits = ensureCapacity(shipHits, enemyBullets.size());
+        executor.forEach(enemyBullets.size(), moveEnemyBulletsTask);
+        for (int i = 0; i < enemyBullets.size(); i++) {
+            if (shipHits[i] >= 0) {
+                int bullet = enemyBullets.get(i);
+                // Update the lives shared by the players
+                if (!config.isInvincible() && session.playerHit(1)) {
+                    store.kill(ships[shipHits[i]]);
+                }
+                store.kill(bullet);
+                explode(bullet);
+            }
+        }
+
+        // Move player bullets and find the enemy each one hits, then apply the kills in order. A bullet whose enemy
+        // was already killed by an earlier bullet this tick looks for another one.
+        bulletHits = ensureCapacity(bulletHits, playerBullets.size());
+        executor.forEach(playerBullets.size(), movePlayerBulletsTask);
+        for (int i = 0; i < playerBullets.size(); i++) {
+            int slot = bulletHits[i];
+            if (slot < 0) {
+                continue;
+            }
+            int bullet = playerBullets.get(i);
+            if (formation.getInvader(slot) < 0) {
+                slot = findSweptInvader(bullet);
+            }
+            if (slot >= 0) {
+                // Remove bullet and enemy
+                store.kill(formation.remove(slot));
+                store.kill(bullet);
+
+                // Increment score
+                session.enemyKilled(10);
+                explode(bullet);
+            }
+        }
+        mark(Phase.COLLISION);
+
+        for (int i = 0; i < explosions.size(); i++) {
+            int explosion = explosions.get(i);
+            // Shrink explosion every frame
+            double scale = store.getScale(explosion) - 0.02 * dt / FRAME;
+            store.setScale(explosion, scale);
+            // Set dead for explosions becoming too small
+            if (scale <= 0) {
+                store.kill(explosion);
+            }
+        }
+
+        // Remove dead entities and add the ones spawned during this tick
+        for (EntityArray bucket : buckets) {
+            compact(bucket);
+        }
+        mark(Phase.CLEANUP);
+        for (int i = 0; i < spawned.size(); i++) {
+            bucket(store.getKind(spawned.get(i))).add(spawned.get(i));
+        }
+        spawned.clear();
+        ticking = false;
+        mark(Phase.SPAWN);
+
+        // Reset timer for enemies shooting
+        if (elapsedTime > config.getFirePeriod()) {
+            elapsedTime = 0;
+        }
+        if (observed) {
+            tickAllocatedBytes = AllocationMeter.allocatedBytes() + executor.getWorkerAllocatedBytes()
+                    - allocatedBefore;
+        }
+
+        // An invincible spaceship cannot lose, so a wave reaching the bottom starts over
+        if (overrun) {
+            overrun = false;
+            if (config.isInvincible()) {
+                startLevel();
+            } else {
+                session.end(false);
+            }
+        }
+
+        // Move on to the next level if all enemies are dead
+        if (!session.isGameOver() && enemies.isEmpty()) {
+            boolean last = !config.isEndless() && session.getLevel() >= config.getLevels();
+            session.levelCleared(last);
+            if (!last) {
+                startLevel();
+            }
+        }
+        if (session.isGameOver() && recorder != null) {
+            recorder.end(random.getState(), session.getScore(), session.getLevel(), session.getLives());
+        }
+        if (rewind != null) {
+            rewind.end(this, dt, entities);
+        }
+    }
+
+    /**
+     * Gets the tier of the current level, which sets the images, sounds and speed. Levels beyond
+     * {@link #MAX_LEVEL} use the tier of the last level.
+     *
+     * @return The tier, between 1 and {@link #MAX_LEVEL}.
+     */
+    private int tier() {
+        return tierOf(session.getLevel());
+    }
+
+    /**
+     * Gets the tier of a level, which sets the images, sounds and speed. Levels beyond {@link #MAX_LEVEL} use the
+     * tier of the last level.
+     *
+     * @param level The level.
+     * @return The tier, between 1 and {@link #MAX_LEVEL}.
+     */
+    private static int tierOf(int level) {
+        return Math.max(1, Math.min(level, MAX_LEVEL));
+    }
+
+    /**
+     * Gets the names of the images drawn during a level, so that they can be loaded before the level starts.
+     *
+     * @param level The level.
+     * @return The image names, without directory or extension.
+     */
+    public static List<String> getImages(int level) {
+        int tier = tierOf(level);
+        List<String> images = new ArrayList<>(List.of("ship" + tier, "laser" + tier, "rocket" + tier, "enemylaser",
+                "Explosion"));
+        images.addAll(Arrays.asList(INTRUDER_IMAGES));
+        return images;
+    }
+
+    /**
+     * Gets the names of the sounds played during a level, so that they can be loaded before the level starts.
+     *
+     * @param level The level.
+     * @return The sound names, without directory or extension.
+     */
+    public static List<String> getSounds(int level) {
+        int tier = tierOf(level);
+        return List.of("explosion" + tier, "laser" + tier, "rocket" + tier);
+    }
+
+    /**
+     * Removes the dead entities of a bucket and frees their slots in the store. Each dead entity is replaced by the
+     * last entity of the bucket, so no entity is shifted.
+     *
+     * @param bucket The bucket to compact.
+     */
+    private void compact(EntityArray bucket) {
+        int i = 0;
+        while (i < bucket.size()) {
+            int entity = bucket.get(i);
+            if (store.isDead(entity)) {
+                store.free(entity);
+                bucket.swapRemove(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Ends a phase of the tick on the profiler and the rewind buffer, if they are attached.
+     *
+     * @param phase The phase that just ended.
+     */
+    private void mark(Phase phase) {
+        if (profiler == null && rewind == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (profiler != null) {
+            profiler.mark(phase, now);
+        }
+        if (rewind != null) {
+            rewind.mark(phase, now);
+        }
+    }
+
+    /**
+     * Marks a bullet as dead once it leaves the screen.
+     *
+     * @param bullet The handle of the bullet to check.
+     */
+    private void cullOffScreen(int bullet) {
+        double y = store.getY(bullet);
+        if (y < 0 || y > HEIGHT) {
+            store.kill(bullet);
+        }
+    }
+
+    /**
+     * Saves the position of a chunk of the slots of the store, so that rendering can interpolate.
+     *
+     * @param chunk The index of the chunk.
+     * @param from  The first slot of the chunk.
+     * @param to    The slot after the last slot of the chunk.
+     */
+    private void savePositions(int chunk, int from, int to) {
+        store.savePositions(from, to);
+    }
+
+    /**
+     * Decides which enemies of a chunk shoot once the fire interval expires. Shots are only flagged here and spawned
+     * afterward in enemy order.
+     *
+     * @param chunk The index of the chunk.
+     * @param from  The index of the first enemy of the chunk.
+     * @param to    The index after the last enemy of the chunk.
+     */
+    private void decideFire(int chunk, int from, int to) {
+        double offsetX = formation.getOffsetX();
+        double offsetY = formation.getOffsetY();
+        for (int i = from; i < to; i++) {
+            // Random probability of shooting. Each enemy draws its own number from the shared seed, so the outcome
+            // does not depend on which thread runs it.
+            if (GameRandom.doubleAt(fireSeed, i) < config.getFireChance()) {
+                int enemy = enemies.get(i);
+                fires[i] = true;
+                fireX[i] = store.getX(enemy) + offsetX;
+                fireY[i] = store.getY(enemy) + offsetY;
+            }
+        }
+    }
+
+    /**
+     * Finds the first living enemy of the formation intersecting an entity.
+     *
+     * @param entity The handle of the entity.
+     * @return The formation slot of the enemy, or -1 if the entity hits no enemy.
+     */
+    private int findInvader(int entity) {
+        return formation.findFirst(store.getX(entity), store.getY(entity), store.getWidth(entity),
+                store.getHeight(entity));
+    }
+
+    /**
+     * Finds the first living enemy of the formation crossed by the path of a bullet during the current tick. Bullets
+     * only move vertically, so the path is the bullet stretched over the distance it moved, and a bullet moving
+     * farther than an enemy is tall in one tick still hits it. As the formation scans rows from the bottom, a bullet
+     * moving up hits the enemy it reached first.
+     *
+     * @param bullet The handle of the bullet.
+     * @return The formation slot of the enemy, or -1 if the bullet hits no enemy.
+     */
+    private int findSweptInvader(int bullet) {
+        return formation.findFirst(store.getSweptX(bullet), store.getSweptY(bullet), store.getSweptWidth(bullet),
+                store.getSweptHeight(bullet));
+    }
+
+    /**
+     * Moves a chunk of enemy bullets, finds the spaceship whose path each one crossed this tick and culls the ones
+     * leaving the screen.
+     *
+     * @param chunk The index of the chunk.
+     * @param from  The index of the first bullet of the chunk.
+     * @param to    The index after the last bullet of the chunk.
+     */
+    private void moveEnemyBullets(int chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int bullet = enemyBullets.get(i);
+            store.move(bullet, tickDt);
+            shipHits[i] = -1;
+            for (int player = 0; player < players; player++) {
+                if (store.intersectsSwept(bullet, ships[player])) {
+                    shipHits[i] = player;
+                    break;
+                }
+            }
+            cullOffScreen(bullet);
+        }
+    }
+
+    /**
+     * Moves a chunk of player bullets, finds the first enemy the path of each one crossed this tick and culls the ones
+     * leaving the screen. The formation is only read, so enemies killed earlier in the tick are still found and
+     * resolved when merging.
+     *
+     * @param chunk The index of the chunk.
+     * @param from  The index of the first bullet of the chunk.
+     * @param to    The index after the last bullet of the chunk.
+     */
+    private void movePlayerBullets(int chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int bullet = playerBullets.get(i);
+            store.move(bullet, tickDt);
+            bulletHits[i] = findSweptInvader(bullet);
+            cullOffScreen(bullet);
+        }
+    }
+
+    /**
+     * Returns an array with at least the given length, keeping the given array if it is long enough.
+     *
+     * @param array  The current array.
+     * @param length The length needed.
+     * @return The given array, or a copy at least twice as long if it was too short.
+     */
+    private static boolean[] ensureCapacity(boolean[] array, int length) {
+        return array.length >= length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+    }
+
+    /**
+     * Returns an array with at least the given length, keeping the given array if it is long enough.
+     *
+     * @param array  The current array.
+     * @param length The length needed.
+     * @return The given array, or a copy at least twice as long if it was too short.
+     */
+    private static int[] ensureCapacity(int[] array, int length) {
+        return array.length >= length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+    }
+
+    /**
+     * Returns an array with at least the given length, keeping the given array if it is long enough.
+     *
+     * @param array  The current array.
+     * @param length The length needed.
+     * @return The given array, or a copy at least twice as long if it was too short.
+     */
+    private static double[] ensureCapacity(double[] array, int length) {
+        return array.length >= length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+    }
+
+    /**
+     * Updates the position of a player's spaceship based on the keys pressed and triggers shooting if enough time has
+     * passed since cool-down.
+     *
+     * @param player The index of the player.
+     * @param dt     The time step in seconds.
+     */
+    private void updateSpaceShip(int player, double dt) {
+        int spaceShip = ships[player];
+        int input = inputs[player];
+        double step = store.getSpeed(spaceShip) * dt / FRAME;
+
+        // Moves spaceship depending on which keys are pressed
+        if ((input & Input.LEFT) != 0 && store.getX(spaceShip) > 0) {
+            store.setX(spaceShip, store.getX(spaceShip) - step);
+        }
+        if ((input & Input.RIGHT) != 0 && store.getX(spaceShip) <= WIDTH - 40) {
+            store.setX(spaceShip, store.getX(spaceShip) + step);
+        }
+        if ((input & Input.UP) != 0 && store.getY(spaceShip) > 96) {
+            store.setY(spaceShip, store.getY(spaceShip) - step);
+        }
+        if ((input & Input.DOWN) != 0 && store.getY(spaceShip) < HEIGHT - 40) {
+            store.setY(spaceShip, store.getY(spaceShip) + step);
+        }
+
+        // Shoot if SPACE held down or pressed since the last tick and enough time passed since last shot
+        if ((input & (Input.SHOOT | Input.SHOOT_PRESSED)) != 0 && timesSinceShot[player] >= COOL_DOWN) {
+            shoot(player);
+            timesSinceShot[player] = 0;
+        }
+    }
+
+    /**
+     * Shoots bullets from a player's spaceship, spawning bullet entities in the world. Enemy shots are spawned by the
+     * tick once every enemy has decided whether to shoot.
+     *
+     * @param player The index of the player.
+     */
+    private void shoot(int player) {
+        int spaceShip = ships[player];
+        // Image of rockets depends on user settings of rockets/laser and level
+        String name = rockets[player] ? rocketName : laserName;
+        // Spacing between bullets
+        double spacing = 15;
+        // Number of rockets increases every level
+        int count = tier();
+        // Distance between furthest left and right bullet
+        double width = (count - 1) * spacing;
+        // x position of left bullet
+        double x = 18 + store.getX(spaceShip) - width / 2;
+        for (int i = 0; i < count; i++) {
+            spawnBullet(EntityKind.PLAYER_BULLET, x + i * spacing, store.getY(spaceShip), name);
+        }
+        listeners.onSound(name);
+    }
+
+    /**
+     * Spawns a bullet at the given position, moving up for player bullets and down for enemy bullets. Player bullets
+     * look like the bullets of the first player. Bullets spawned during a tick join the world once the tick
+     * completes.
+     *
+     * @param kind Either {@link EntityKind#PLAYER_BULLET} or {@link EntityKind#ENEMY_BULLET}.
+     * @param x    The x-coordinate of the bullet.
+     * @param y    The y-coordinate of the bullet.
+     * @return The handle of the spawned bullet.
+     * @throws IllegalArgumentException If the kind is not a bullet.
+     */
+    public int spawnBullet(EntityKind kind, double x, double y) {
+        return spawnBullet(kind, x, y, rockets[0] ? rocketName : laserName);
+    }
+
+    /**
+     * Spawns a bullet at the given position, moving up for player bullets and down for enemy bullets.
+     *
+     * @param kind  Either {@link EntityKind#PLAYER_BULLET} or {@link EntityKind#ENEMY_BULLET}.
+     * @param x     The x-coordinate of the bullet.
+     * @param y     The y-coordinate of the bullet.
+     * @param image The image of a player bullet.
+     * @return The handle of the spawned bullet.
+     * @throws IllegalArgumentException If the kind is not a bullet.
+     */
+    private int spawnBullet(EntityKind kind, double x, double y, String image) {
+        int bullet;
+        switch (kind) {
+            case PLAYER_BULLET -> {
+                bullet = store.create(kind, x, y, 5, 20, image, 5);
+                store.setVy(bullet, -store.getSpeed(bullet) / FRAME);
+            }
+            case ENEMY_BULLET -> {
+                bullet = store.create(kind, x, y, 5, 20, "enemylaser", 5);
+                store.setVy(bullet, store.getSpeed(bullet) / FRAME);
+            }
+            default -> throw new IllegalArgumentException(kind + " is not a bullet");
+        }
+        if (ticking) {
+            spawned.add(bullet);
+        } else {
+            bucket(kind).add(bullet);
+        }
+        return bullet;
+    }
+
+    /**
+     * Spawns the spaceship of a player at the bottom of the screen, the spaceships of every player side by side
+     * around the middle.
+     *
+     * @param player The index of the player.
+     */
+    private void spawnShip(int player) {
+        double x = WIDTH / 2 + (player - (players - 1) / 2.0) * SHIP_SPACING;
+        ships[player] = store.create(EntityKind.PLAYER, x, 750, 40, 40, "ship" + tier(), 5);
+        bucket(EntityKind.PLAYER).add(ships[player]);
+    }
+
+    /**
+     * Spawns an explosion at the position of the given entity and plays the explosion sound.
+     *
+     * @param at The handle of the entity where the explosion occurs.
+     */
+    private void explode(int at) {
+        spawned.add(store.create(EntityKind.EXPLOSION, store.getX(at), store.getY(at), 40, 40, "Explosion", 1));
+        listeners.onSound(explosionSound);
+    }
+
+    /**
+     * Gets the number of entities created in a slot of the store that had never been used. Once the store has held
+     * its largest wave this stops growing, so comparing it between two points in time gives the rate at which the
+     * store grows.
+     *
+     * @return The number of fresh slots used.
+     */
+    public long getAllocations() {
+        return store.getCreated();
+    }
+
+    /**
+     * Gets the number of entities created in a slot freed by an earlier entity.
+     *
+     * @return The number of reused slots.
+     */
+    public long getReuses() {
+        return store.getReused();
+    }
+
+    /**
+     * Counts the number of invaders still alive. Dead invaders are removed at the end of every tick, so this is the
+     * size of the enemy bucket.
+     *
+     * @return The number of invaders.
+     */
+    public int countInvaders() {
+        return enemies.size();
+    }
+
+    /**
+     * Gets the handles of the entities of the given kind currently in the world. The returned array is owned by the
+     * world and reused every tick, so it must only be read.
+     *
+     * @param kind The kind of entities.
+     * @return The handles of the entities of the kind.
+     */
+    public EntityArray getEntities(EntityKind kind) {
+        return buckets[kind.ordinal()];
+    }
+
+    /**
+     * Gets the store holding the attributes of every entity, looked up by the handles of {@link #getEntities}. It
+     * must only be read outside the world. The position of an enemy is relative to the {@link #getFormation
+     * formation}.
+     *
+     * @return The entity store.
+     */
+    public EntityStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the formation of the enemies, whose offset is added to the stored position of every enemy. It must only
+     * be read outside the world.
+     *
+     * @return The enemy formation.
+     */
+    public Formation getFormation() {
+        return formation;
+    }
+
+    /**
+     * Gets the total number of entities updated by every tick so far. Comparing it between two points in time gives
+     * the number of entities processed per second.
+     *
+     * @return The number of entities processed.
+     */
+    public long getProcessedEntities() {
+        return processedEntities;
+    }
+
+    /**
+     * Gets the number of bytes allocated on the heap by the last tick. This stays at zero in a steady game ticked on
+     * a single thread once the entity pools and arrays are warm; on more threads, each loop handed to the pool adds
+     * the few bytes the calling thread waits on. The bytes allocated by the loops run on the threads of the executor
+     * are counted with those of the thread ticking the world. Allocations are only measured while a profiler or a rewind buffer is
+     * attached, so that unobserved ticks do not pay for reading the meter.
+     *
+     * @return The bytes allocated by the last tick measured, or zero if allocations cannot be measured.
+     */
+    public long getTickAllocatedBytes() {
+        return tickAllocatedBytes;
+    }
+
+    /**
+     * Gets the largest number of bytes {@link #save} writes for the current state of the world.
+     *
+     * @return The number of bytes.
+     */
+    public int getSaveSize() {
+        int size = 128 + MAX_PLAYERS * 21 + GameSession.SAVE_BYTES + formation.getSaveSize() + store.getSaveSize();
+        for (EntityArray bucket : buckets) {
+            size += 4 + bucket.size() * 4;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the whole state of the world between two ticks: the rules, the random source, the players and their
+     * timers, the game, the formation and every entity with its handle. A world restored from it plays on exactly
+     * like this one.
+     *
+     * @param out The buffer to write to, with at least {@link #getSaveSize()} bytes remaining.
+     * @throws IllegalStateException If a tick is in progress.
+     */
+    public void save(ByteBuffer out) {
+        if (ticking) {
+            throw new IllegalStateException("The world cannot be saved during a tick");
+        }
+        out.putInt(SAVE_VERSION);
+        // The rules are encoded once, so that saving every few ticks allocates nothing
+        if (savedRules == null) {
+            ByteArrayOutputStream rules = new ByteArrayOutputStream(64);
+            try {
+                config.write(new DataOutputStream(rules));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            savedRules = rules.toByteArray();
+        }
+        out.putShort((short) savedRules.length);
+        out.put(savedRules);
+        out.putLong(random.getState());
+        out.putInt(players);
+        for (int player = 0; player < MAX_PLAYERS; player++) {
+            out.putInt(ships[player]);
+            out.putDouble(timesSinceShot[player]);
+            out.putInt(inputs[player]);
+            out.put((byte) (rockets[player] ? 1 : 0));
+        }
+        out.putDouble(elapsedTime);
+        out.put((byte) (movingRight ? 1 : 0));
+        out.putLong(processedEntities);
+        session.save(out);
+        formation.save(out);
+        store.save(out);
+        for (EntityArray bucket : buckets) {
+            bucket.save(out);
+        }
+    }
+
+    /**
+     * Replaces the state of the world with a state written by {@link #save}. The recording in progress, if any, is
+     * given up since the game can no longer be replayed from its start.
+     *
+     * @param in The buffer to read from.
+     * @throws IllegalArgumentException If the state was written in another format.
+     * @throws IllegalStateException    If a tick is in progress.
+     */
+    public void restore(ByteBuffer in) {
+        restoreState(in);
+        if (recorder != null) {
+            recorder.discard();
+        }
+        if (rewind != null) {
+            rewind.start(this);
+        }
+    }
+
+    /**
+     * Replaces the state of the world with a state written by {@link #save}, leaving the recording and the rewind
+     * buffer alone, so that the {@link RewindBuffer} can rebuild a tick of the game being recorded.
+     *
+     * @param in The buffer to read from.
+     * @throws IllegalArgumentException If the state was written in another format.
+     * @throws IllegalStateException    If a tick is in progress.
+     */
+    void restoreState(ByteBuffer in) {
+        if (ticking) {
+            throw new IllegalStateException("The world cannot be restored during a tick");
+        }
+        int version = in.getInt();
+        if (version != SAVE_VERSION) {
+            throw new IllegalArgumentException("Unsupported save version " + version);
+        }
+        byte[] rules = new byte[in.getShort()];
+        in.get(rules);
+        try {
+            config = GameConfig.read(new DataInputStream(new ByteArrayInputStream(rules)));
+            savedRules = rules;
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Invalid rules in save", ex);
+        }
+        random.setState(in.getLong());
+        players = in.getInt();
+        for (int player = 0; player < MAX_PLAYERS; player++) {
+            ships[player] = in.getInt();
+            timesSinceShot[player] = in.getDouble();
+            inputs[player] = in.getInt();
+            rockets[player] = in.get() != 0;
+        }
+        elapsedTime = in.getDouble();
+        movingRight = in.get() != 0;
+        processedEntities = in.getLong();
+        session.restore(in);
+        formation.restore(in);
+        store.restore(in);
+        for (EntityArray bucket : buckets) {
+            bucket.restore(in);
+        }
+        spawned.clear();
+        nameLevelAssets();
+    }
+
+    /**
+     * Gets the spaceship entity of the first player.
+     *
+     * @return The handle of the spaceship entity.
+     */
+    public int getSpaceShip() {
+        return ships[0];
+    }
+
+    /**
+     * Gets the spaceship entity of a player.
+     *
+     * @param player The index of the player.
+     * @return The handle of the spaceship entity.
+     */
+    public int getSpaceShip(int player) {
+        return ships[player];
+    }
+
+    /**
+     * Sets the number of players sharing the game. Players joining a level in progress get a spaceship at once, and
+     * the spaceships of players leaving are removed. The players share the lives and the score. Must not be called
+     * during a tick.
+     *
+     * @param players The number of players, between 1 and {@link #MAX_PLAYERS}.
+     * @throws IllegalArgumentException If the number of players is out of range.
+     */
+    public void setPlayers(int players) {
+        if (players < 1 || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("players must be between 1 and " + MAX_PLAYERS);
+        }
+        boolean started = bucket(EntityKind.PLAYER).size() > 0;
+        int previous = this.players;
+        this.players = players;
+        for (int player = previous; player < players; player++) {
+            inputs[player] = 0;
+            rockets[player] = false;
+            timesSinceShot[player] = COOL_DOWN;
+            if (started) {
+                spawnShip(player);
+            }
+        }
+        if (started && players < previous) {
+            for (int player = players; player < previous; player++) {
+                store.kill(ships[player]);
+            }
+            compact(bucket(EntityKind.PLAYER));
+        }
+    }
+
+    /**
+     * Gets the number of players sharing the game.
+     *
+     * @return The number of players.
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Subscribes a listener to the sounds and the events of the game, after the listeners already subscribed.
+     *
+     * @param listener The listener to notify.
+     */
+    public void addListener(WorldListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unsubscribes a listener from the sounds and the events of the game.
+     *
+     * @param listener The listener to stop notifying.
+     */
+    public void removeListener(WorldListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets whether the sounds and events of the game are kept from the listeners, while ticks are replayed.
+     *
+     * @param muted True to stop notifying the listeners, false to notify them again.
+     */
+    void setListenersMuted(boolean muted) {
+        listeners.setMuted(muted);
+    }
+
+    /**
+     * Gets the session holding the score, lives and level of the game being played. It must only be read outside the
+     * world.
+     *
+     * @return The game session.
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Sets the executor running the per-entity loops of a tick. A tick has the same outcome on any executor.
+     *
+     * @param executor The executor.
+     */
+    public void setExecutor(TickExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the profiler timing the phases of each tick.
+     *
+     * @param profiler The profiler, or null to stop profiling.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Gets the profiler timing the phases of each tick.
+     *
+     * @return The profiler, or null if ticks are not profiled.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Sets the buffer keeping the last ticks so that the game can be rewound. The buffer starts over each time a game
+     * is started or restored.
+     *
+     * @param rewind The buffer, or null to stop keeping ticks.
+     */
+    public void setRewind(RewindBuffer rewind) {
+        this.rewind = rewind;
+    }
+
+    /**
+     * Sets the recorder capturing the input of every tick. A recording begins each time a game is started. Only the
+     * input of the first player is recorded, so only games with a single player can be replayed.
+     *
+     * @param recorder The recorder, or null to stop recording.
+     */
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Gets the recorder capturing the input of every tick.
+     *
+     * @return The recorder, or null if input is not recorded.
+     */
+    public InputRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Gets the random source of the world. Its state can be saved and restored to reproduce a game.
+     *
+     * @return The random source.
+     */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Gets the input state of the first player applied by the next tick.
+     *
+     * @return A combination of the {@link Input} bits.
+     */
+    public int getInput() {
+        return inputs[0];
+    }
+
+    /**
+     * Replaces the whole input state of the first player applied by the next tick, as done when replaying a
+     * recording.
+     *
+     * @param input A combination of the {@link Input} bits.
+     */
+    public void setInput(int input) {
+        inputs[0] = input;
+    }
+
+    /**
+     * Gets the input state of a player applied by the next tick.
+     *
+     * @param player The index of the player.
+     * @return A combination of the {@link Input} bits.
+     */
+    public int getInput(int player) {
+        return inputs[player];
+    }
+
+    /**
+     * Replaces the whole input state of a player applied by the next tick.
+     *
+     * @param player The index of the player.
+     * @param input  A combination of the {@link Input} bits.
+     */
+    public void setInput(int player, int input) {
+        inputs[player] = input;
+    }
+
+    /**
+     * Sets or clears one bit of the input state of the first player.
+     *
+     * @param bit The {@link Input} bit.
+     * @param on  True to set the bit, false to clear it.
+     */
+    private void setInputBit(int bit, boolean on) {
+        inputs[0] = on ? inputs[0] | bit : inputs[0] & ~bit;
+    }
+
+    /**
+     * Sets whether the spaceship is moving up.
+     *
+     * @param pressed True if the up key is held down.
+     */
+    public void setUpPressed(boolean pressed) {
+        setInputBit(Input.UP, pressed);
+    }
+
+    /**
+     * Sets whether the spaceship is moving down.
+     *
+     * @param pressed True if the down key is held down.
+     */
+    public void setDownPressed(boolean pressed) {
+        setInputBit(Input.DOWN, pressed);
+    }
+
+    /**
+     * Sets whether the spaceship is moving left.
+     *
+     * @param pressed True if the left key is held down.
+     */
+    public void setLeftPressed(boolean pressed) {
+        setInputBit(Input.LEFT, pressed);
+    }
+
+    /**
+     * Sets whether the spaceship is moving right.
+     *
+     * @param pressed True if the right key is held down.
+     */
+    public void setRightPressed(boolean pressed) {
+        setInputBit(Input.RIGHT, pressed);
+    }
+
+    /**
+     * Sets whether the spaceship is shooting.
+     *
+     * @param shooting True if the shoot key is held down.
+     */
+    public void setShooting(boolean shooting) {
+        setInputBit(Input.SHOOT, shooting);
+    }
+
+    /**
+     * Switches the type of bullet between lasers and rockets at the next tick.
+     */
+    public void toggleRockets() {
+        inputs[0] ^= Input.TOGGLE_ROCKETS;
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return session.isGameOver();
+    }
+
+    /**
+     * Checks if the game ended because every level was cleared.
+     *
+     * @return True if the player won, false otherwise.
+     */
+    public boolean isWon() {
+        return session.isWon();
+    }
+
+    /**
+     * Gets the number of lives remaining for the player.
+     *
+     * @return The number of lives.
+     */
+    public int getLives() {
+        return session.getLives();
+    }
+
+    /**
+     * Gets the current game level.
+     *
+     * @return The current level.
+     */
+    public int getLevel() {
+        return session.getLevel();
+    }
+
+    /**
+     * Gets the current player score.
+     *
+     * @return The current score.
+     */
+    public int getScore() {
+        return session.getScore();
+    }
+}
@@ -0,0 +1,63 @@
+package edu.vanier.spaceinvaders.engine;
+
+/**
+ * Receives notifications from a {@link World} about things that happened during a tick which the presentation layer
+ * needs to react to, such as playing sounds or resetting the overlay when a level starts. The game events are raised
+ * by the {@link GameSession} of the world as its state changes, on the thread ticking the world. Any number of
+ * listeners can be subscribed with {@link World#addListener}, each notified in the order they were added. All
+ * methods have empty default implementations so that headless users only override what they need.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public interface WorldListener {
+
+    /**
+     * Called when a sound should be played.
+     *
+     * @param sound The name of the sound, without directory or extension (e.g. "laser1" or "explosion2").
+     */
+    default void onSound(String sound) {
+    }
+
+    /**
+     * Called when a new level has been populated.
+     *
+     * @param level The level that started.
+     */
+    default void onLevelStarted(int level) {
+    }
+
+    /**
+     * Called when a player bullet killed an enemy.
+     *
+     * @param score The score after the kill.
+     */
+    default void onEnemyKilled(int score) {
+    }
+
+    /**
+     * Called when the spaceship was hit by an enemy bullet or an enemy.
+     *
+     * @param lives The number of lives remaining after the hit.
+     */
+    default void onPlayerHit(int lives) {
+    }
+
+    /**
+     * Called when every enemy of a level was killed, before the next level starts.
+     *
+     * @param level The level that was cleared.
+     */
+    default void onLevelCleared(int level) {
+    }
+
+    /**
+     * Called when the game ended.
+     *
+     * @param won   True if every level was cleared, false if the player lost.
+     * @param score The final score.
+     */
+    default void onGameOver(boolean won, int score) {
+    }
+}
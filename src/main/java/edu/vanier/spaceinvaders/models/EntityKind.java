@@ -0,0 +1,41 @@
+package edu.vanier.spaceinvaders.models;
+
+/**
+ * The kinds of entities in the game. The world keeps one bucket of entities per kind, so the frame loop can iterate
+ * a single kind directly instead of filtering every entity by type.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public enum EntityKind {
+
+    /**
+     * The spaceship controlled by the player.
+     */
+    PLAYER,
+
+    /**
+     * An invader.
+     */
+    ENEMY,
+
+    /**
+     * A laser or rocket fired by the player.
+     */
+    PLAYER_BULLET,
+
+    /**
+     * A laser fired by an invader.
+     */
+    ENEMY_BULLET,
+
+    /**
+     * A shrinking explosion left by a hit.
+     */
+    EXPLOSION;
+
+    /**
+     * The kinds in declaration order, cached to avoid copying the array returned by {@link #values()}.
+     */
+    public static final EntityKind[] ALL = values();
+}
@@ -18,9 +18,9 @@ public class Sprite extends Rectangle {
     private boolean dead = false;
     
     /**
-     * The type of the sprite
+     * The kind of the sprite
      */
-    private final String type;
+    private final EntityKind kind;
     
     /**
      * The speed of the sprite
@@ -28,20 +28,20 @@ public class Sprite extends Rectangle {
     private final double speed;
     
     /**
-     * Constructs a sprite with the specified position, dimensions, type, image, and speed.
+     * Constructs a sprite with the specified position, dimensions, kind, image, and speed.
      *
      * @param x      The initial x-coordinate of the sprite.
      * @param y      The initial y-coordinate of the sprite.
      * @param w      The width of the sprite.
      * @param h      The height of the sprite.
-     * @param type   The type of the sprite, used for identification.
+     * @param kind   The kind of the sprite, used for identification.
      * @param image  The paint/image to be applied to the sprite.
      * @param speed  The speed at which the sprite moves.
      */
-    public Sprite(double x, double y, int w, int h, String type, Paint image, double speed) {
+    public Sprite(double x, double y, int w, int h, EntityKind kind, Paint image, double speed) {
         super(w, h, image);
 
-        this.type = type;
+        this.kind = kind;
         this.speed = speed;
         setTranslateX(x);
         setTranslateY(y);
@@ -85,12 +85,12 @@ public class Sprite extends Rectangle {
     }
     
     /**
-     * Gets the type of the sprite.
+     * Gets the kind of the sprite.
      *
-     * @return The type of the sprite.
+     * @return The kind of the sprite.
      */
-    public String getType() {
-        return type;
+    public EntityKind getKind() {
+        return kind;
     }
     
     /**
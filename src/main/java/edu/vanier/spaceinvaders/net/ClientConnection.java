@@ -0,0 +1,285 @@
+package edu.vanier.spaceinvaders.net;
+
+import edu.vanier.spaceinvaders.engine.Input;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The server side of the connection of one client, owned by the thread of the {@link GameServer}. Incoming bytes are
+ * gathered until a whole frame arrived. A state is only sent once the previous one was written out: a slow client
+ * skips states rather than queueing them, and the next state it gets is encoded against the last one it
+ * acknowledged, so nothing is lost.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+class ClientConnection {
+
+    /**
+     * The channel connected to the client.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * The registration of the channel with the selector of the server.
+     */
+    private final SelectionKey key;
+
+    /**
+     * The address of the client, used in reports.
+     */
+    private final String name;
+
+    /**
+     * The traffic and latency of the connection.
+     */
+    private final ConnectionStats stats = new ConnectionStats();
+
+    /**
+     * The bytes received and not yet handled, ready to be filled. Frames from clients are at most
+     * {@link Protocol#MAX_CLIENT_FRAME} bytes, so the bytes kept of an incomplete frame always leave room to read.
+     */
+    private final ByteBuffer in = ByteBuffer.allocate(1024);
+
+    /**
+     * The frame being written, ready to be drained.
+     */
+    private ByteBuffer out = ByteBuffer.allocate(4096).flip();
+
+    /**
+     * The session the client joined and its player in that session, or null and -1 before joining.
+     */
+    private ServerSession session;
+    private int player = -1;
+
+    /**
+     * The sequence number of the newest state the client acknowledged, or -1.
+     */
+    private int acknowledged = -1;
+
+    /**
+     * The latest {@link Input} bits of the player.
+     */
+    private int input = 0;
+
+    /**
+     * The time the client sent its latest input, in client nanoseconds, echoed back with each state.
+     */
+    private long clientTime = 0;
+
+    /**
+     * Constructs the connection of a client registered with the selector of the server.
+     *
+     * @param channel The channel connected to the client.
+     * @param key     The registration of the channel.
+     * @throws IOException If the address of the client cannot be read.
+     */
+    ClientConnection(SocketChannel channel, SelectionKey key) throws IOException {
+        this.channel = channel;
+        this.key = key;
+        this.name = String.valueOf(channel.getRemoteAddress());
+    }
+
+    /**
+     * Reads the bytes available from the client.
+     *
+     * @return The buffer holding the bytes received and not yet handled, ready to be drained.
+     * @throws IOException If the connection was closed.
+     */
+    ByteBuffer read() throws IOException {
+        int read = channel.read(in);
+        if (read < 0) {
+            throw new IOException("Connection closed by " + name);
+        }
+        stats.recordReceived(read);
+        return in.flip();
+    }
+
+    /**
+     * Keeps the bytes of an incomplete frame for the next read.
+     */
+    void compact() {
+        in.compact();
+    }
+
+    /**
+     * Queues a frame of the given type and body, unless a frame is still being written.
+     *
+     * @param type The type of the message.
+     * @param body The body of the message, from its position to its limit, or null.
+     * @return True if the frame was queued, false if it was skipped.
+     * @throws IOException If the frame cannot be written.
+     */
+    boolean send(byte type, ByteBuffer body) throws IOException {
+        if (out.hasRemaining()) {
+            return false;
+        }
+        startFrame(type, body == null ? 0 : body.remaining());
+        if (body != null) {
+            out.put(body);
+        }
+        out.flip();
+        flush();
+        return true;
+    }
+
+    /**
+     * Sends a state, prefixed with the time of the latest input of the client, unless the previous state is still
+     * being written.
+     *
+     * @param delta The encoded state, consumed.
+     * @param full  True if the state holds every entity.
+     */
+    void sendState(ByteBuffer delta, boolean full) {
+        if (out.hasRemaining()) {
+            stats.recordSkipped();
+            return;
+        }
+        startFrame(Protocol.STATE, 8 + delta.remaining());
+        out.putLong(clientTime).put(delta).flip();
+        try {
+            flush();
+            stats.recordState(full);
+        } catch (IOException ex) {
+            close();
+        }
+    }
+
+    /**
+     * Clears the outgoing buffer and writes the length and type of a frame, growing the buffer to fit the frame.
+     *
+     * @param type The type of the message.
+     * @param body The length of the body of the message.
+     */
+    private void startFrame(byte type, int body) {
+        if (out.capacity() < 5 + body) {
+            out = ByteBuffer.allocate(Math.max(5 + body, out.capacity() * 2));
+        }
+        out.clear();
+        out.putInt(1 + body).put(type);
+    }
+
+    /**
+     * Writes as much of the pending frame as the channel accepts, and waits until the channel is writable again for
+     * the rest.
+     *
+     * @throws IOException If the connection was closed.
+     */
+    void flush() throws IOException {
+        stats.recordSent(channel.write(out));
+        if (key.isValid()) {
+            key.interestOps(out.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Records the input of the client and the newest state it received.
+     *
+     * @param acknowledged The sequence number of the newest state received.
+     * @param clientTime   The time the client sent the input.
+     * @param input        The {@link Input} bits of the player.
+     * @param now          The current time in nanoseconds.
+     */
+    void receiveInput(int acknowledged, long clientTime, int input, long now) {
+        if (acknowledged > this.acknowledged) {
+            long sent = session == null ? -1 : session.getSentTime(acknowledged);
+            if (sent >= 0) {
+                stats.recordRtt(now - sent);
+            }
+            this.acknowledged = acknowledged;
+        }
+        this.clientTime = clientTime;
+        // Keep a rocket toggle or a shot not applied yet, so that it is not lost when two inputs arrive in one tick
+        this.input = input | (this.input & Input.ONE_SHOT);
+    }
+
+    /**
+     * Gets the input to apply at the next tick, consuming the one-shot rocket toggle and shot.
+     *
+     * @return The {@link Input} bits of the player.
+     */
+    int takeInput() {
+        int taken = input;
+        input &= ~Input.ONE_SHOT;
+        return taken;
+    }
+
+    /**
+     * Checks whether the connection was closed.
+     *
+     * @return True if the connection is closed.
+     */
+    boolean isClosed() {
+        return !channel.isOpen();
+    }
+
+    /**
+     * Closes the connection.
+     */
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Sets the session the client joined.
+     *
+     * @param session The session.
+     * @param player  The player of the client in the session.
+     */
+    void setSession(ServerSession session, int player) {
+        this.session = session;
+        this.player = player;
+    }
+
+    /**
+     * Gets the session the client joined.
+     *
+     * @return The session, or null before joining.
+     */
+    ServerSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the player of the client in its session.
+     *
+     * @return The index of the player, or -1 before joining.
+     */
+    int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the sequence number of the newest state the client acknowledged.
+     *
+     * @return The sequence number, or -1.
+     */
+    int getAcknowledged() {
+        return acknowledged;
+    }
+
+    /**
+     * Gets the traffic and latency of the connection.
+     *
+     * @return The connection statistics.
+     */
+    ConnectionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the address of the client.
+     *
+     * @return The address as text.
+     */
+    String getName() {
+        return name;
+    }
+}
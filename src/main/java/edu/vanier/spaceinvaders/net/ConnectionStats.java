@@ -0,0 +1,102 @@
+package edu.vanier.spaceinvaders.net;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the traffic and the latency of one connection over a reporting window: the bytes sent and received, the
+ * states sent whole or as differences, and the round-trip time from a state or input to the message acknowledging
+ * it. The connection updates the counters from its own thread and any thread can report them.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class ConnectionStats {
+
+    /**
+     * The bytes sent and received during the window.
+     */
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    /**
+     * The states sent or received during the window, and how many of them held every entity.
+     */
+    private final AtomicLong states = new AtomicLong();
+    private final AtomicLong fullStates = new AtomicLong();
+
+    /**
+     * The states skipped during the window because the previous one was still being sent.
+     */
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * The sum, count and maximum of the round-trip times measured during the window, in nanoseconds.
+     */
+    private final AtomicLong rttTotal = new AtomicLong();
+    private final AtomicLong rttSamples = new AtomicLong();
+    private final AtomicLong rttMax = new AtomicLong();
+
+    /**
+     * Records bytes sent.
+     *
+     * @param bytes The number of bytes.
+     */
+    public void recordSent(long bytes) {
+        bytesSent.addAndGet(bytes);
+    }
+
+    /**
+     * Records bytes received.
+     *
+     * @param bytes The number of bytes.
+     */
+    public void recordReceived(long bytes) {
+        bytesReceived.addAndGet(bytes);
+    }
+
+    /**
+     * Records a state sent or received.
+     *
+     * @param full True if the state held every entity, false if it only held differences.
+     */
+    public void recordState(boolean full) {
+        states.incrementAndGet();
+        if (full) {
+            fullStates.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a state that was not sent because the connection was still busy with the previous one.
+     */
+    public void recordSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    /**
+     * Records a round-trip time.
+     *
+     * @param nanos The round-trip time in nanoseconds.
+     */
+    public void recordRtt(long nanos) {
+        rttTotal.addAndGet(nanos);
+        rttSamples.incrementAndGet();
+        rttMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Formats the rates of the window as a line of text and starts a new window.
+     *
+     * @param seconds The length of the window in seconds.
+     * @return The traffic, states and round-trip times of the window.
+     */
+    public String formatWindow(double seconds) {
+        long samples = rttSamples.getAndSet(0);
+        return String.format(Locale.ROOT,
+                "out %.1f KB/s, in %.1f KB/s, %.0f states/s (%d full, %d skipped), rtt %.2f ms avg %.2f ms max",
+                bytesSent.getAndSet(0) / 1024.0 / seconds, bytesReceived.getAndSet(0) / 1024.0 / seconds,
+                states.getAndSet(0) / seconds, fullStates.getAndSet(0), skipped.getAndSet(0),
+                samples == 0 ? 0 : rttTotal.getAndSet(0) / 1e6 / samples, rttMax.getAndSet(0) / 1e6);
+    }
+}
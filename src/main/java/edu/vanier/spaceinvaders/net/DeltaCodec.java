@@ -0,0 +1,261 @@
+package edu.vanier.spaceinvaders.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a {@link WorldState} as the difference from an older state the receiver already has, and decodes it back.
+ * The header of the state is always sent whole. Entities follow as the handles whose entity changed, each with a mask
+ * of the fields that changed and the new value of those fields only: a bullet moving up sends its y-coordinate, and
+ * an invader sends nothing at all until it dies. Handles are sent as the gap from the previous handle, in a variable
+ * number of bytes, so a run of changed entities costs one byte per handle. Without an older state every entity is
+ * sent whole.
+ *
+ * <p>An encoder reuses its buffer for every state, which stays valid until the next call.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class DeltaCodec {
+
+    /**
+     * The bits of the mask of a changed entity, telling which fields follow.
+     */
+    private static final int KIND = 1;
+    private static final int X = 1 << 1;
+    private static final int Y = 1 << 2;
+    private static final int SIZE = 1 << 3;
+    private static final int SCALE = 1 << 4;
+    private static final int REMOVED = 1 << 5;
+
+    /**
+     * The mask of an entity sent whole.
+     */
+    private static final int ALL = KIND | X | Y | SIZE | SCALE;
+
+    /**
+     * The bits of the flags of the header.
+     */
+    private static final int GAME_OVER = 1;
+    private static final int WON = 1 << 1;
+
+    /**
+     * The largest number of bytes of the header and of a changed entity.
+     */
+    private static final int HEADER_BYTES = 64;
+    private static final int ENTITY_BYTES = 5 + 1 + 1 + 2 + 5 * 4;
+
+    /**
+     * The buffer holding the last encoded state.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    /**
+     * Encodes a state as the difference from an older state.
+     *
+     * @param base    The state the receiver already has, or null to send every entity.
+     * @param current The state to send.
+     * @return The encoded state, from its position to its limit, valid until the next call.
+     */
+    public ByteBuffer encode(WorldState base, WorldState current) {
+        int needed = HEADER_BYTES + Math.max(current.size, base == null ? 0 : base.size) * ENTITY_BYTES;
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.putInt(current.sequence);
+        buffer.putInt(base == null ? -1 : base.sequence);
+        buffer.putLong(current.ticks);
+        buffer.putLong(current.levelStarts);
+        buffer.putInt(current.score);
+        buffer.putInt(current.lives);
+        buffer.putInt(current.level);
+        buffer.put((byte) ((current.gameOver ? GAME_OVER : 0) | (current.won ? WON : 0)));
+        buffer.putFloat(current.offsetX);
+        buffer.putFloat(current.offsetY);
+        putVarInt(buffer, current.size);
+
+        // Reserve room for the number of changed entities, known once they are written
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        int previous = -1;
+        int end = Math.max(current.size, base == null ? 0 : base.size);
+        for (int h = 0; h < end; h++) {
+            int mask = changes(base, current, h);
+            if (mask == 0) {
+                continue;
+            }
+            putVarInt(buffer, h - previous - 1);
+            previous = h;
+            buffer.put((byte) mask);
+            if ((mask & KIND) != 0) {
+                buffer.put(current.kinds[h]);
+                buffer.putShort(current.images[h]);
+            }
+            if ((mask & X) != 0) {
+                buffer.putFloat(current.x[h]);
+            }
+            if ((mask & Y) != 0) {
+                buffer.putFloat(current.y[h]);
+            }
+            if ((mask & SIZE) != 0) {
+                buffer.putFloat(current.width[h]);
+                buffer.putFloat(current.height[h]);
+            }
+            if ((mask & SCALE) != 0) {
+                buffer.putFloat(current.scale[h]);
+            }
+            count++;
+        }
+        buffer.putInt(countPosition, count);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Finds the fields of an entity that changed since the older state.
+     *
+     * @param base    The older state, or null.
+     * @param current The newer state.
+     * @param h       The handle of the entity.
+     * @return The mask of the changed fields, {@link #REMOVED} if the entity is gone, or 0 if nothing changed.
+     */
+    private static int changes(WorldState base, WorldState current, int h) {
+        byte kind = h < current.size ? current.kinds[h] : 0;
+        byte baseKind = base != null && h < base.size ? base.kinds[h] : 0;
+        if (kind == 0) {
+            return baseKind == 0 ? 0 : REMOVED;
+        }
+        if (baseKind != kind || base.images[h] != current.images[h]) {
+            return ALL;
+        }
+        int mask = 0;
+        if (base.x[h] != current.x[h]) {
+            mask |= X;
+        }
+        if (base.y[h] != current.y[h]) {
+            mask |= Y;
+        }
+        if (base.width[h] != current.width[h] || base.height[h] != current.height[h]) {
+            mask |= SIZE;
+        }
+        if (base.scale[h] != current.scale[h]) {
+            mask |= SCALE;
+        }
+        return mask;
+    }
+
+    /**
+     * Reads the number of the older state an encoded state was made from, without consuming it.
+     *
+     * @param in The encoded state.
+     * @return The sequence number of the older state, or -1 if every entity was sent.
+     */
+    public static int peekBase(ByteBuffer in) {
+        return in.getInt(in.position() + 4);
+    }
+
+    /**
+     * Decodes a state by applying its differences to the older state it was made from.
+     *
+     * @param base The older state named by {@link #peekBase}, or null if every entity was sent.
+     * @param in   The encoded state, consumed.
+     * @param out  The state receiving the result, which may not be the older state.
+     * @throws IllegalArgumentException If the older state is not the one the state was made from, or the state is
+     *                                  malformed.
+     * @throws java.nio.BufferUnderflowException If the state is cut short.
+     */
+    public static void decode(WorldState base, ByteBuffer in, WorldState out) {
+        int sequence = in.getInt();
+        int baseSequence = in.getInt();
+        if (baseSequence >= 0 && (base == null || base.sequence != baseSequence)) {
+            throw new IllegalArgumentException("State " + sequence + " needs state " + baseSequence);
+        }
+        if (baseSequence >= 0) {
+            out.copyFrom(base);
+        } else {
+            out.resize(0);
+        }
+        out.sequence = sequence;
+        out.ticks = in.getLong();
+        out.levelStarts = in.getLong();
+        out.score = in.getInt();
+        out.lives = in.getInt();
+        out.level = in.getInt();
+        int flags = in.get();
+        out.gameOver = (flags & GAME_OVER) != 0;
+        out.won = (flags & WON) != 0;
+        out.offsetX = in.getFloat();
+        out.offsetY = in.getFloat();
+        int size = getVarInt(in);
+        if (size < 0) {
+            throw new IllegalArgumentException("State " + sequence + " has " + size + " handles");
+        }
+        out.resize(Math.max(size, out.size));
+
+        int count = in.getInt();
+        int h = -1;
+        for (int i = 0; i < count; i++) {
+            h += getVarInt(in) + 1;
+            if (h < 0 || h >= out.size) {
+                throw new IllegalArgumentException("State " + sequence + " changes unknown handle " + h);
+            }
+            int mask = in.get();
+            if ((mask & REMOVED) != 0) {
+                out.kinds[h] = 0;
+                continue;
+            }
+            if ((mask & KIND) != 0) {
+                out.kinds[h] = in.get();
+                out.images[h] = in.getShort();
+            }
+            if ((mask & X) != 0) {
+                out.x[h] = in.getFloat();
+            }
+            if ((mask & Y) != 0) {
+                out.y[h] = in.getFloat();
+            }
+            if ((mask & SIZE) != 0) {
+                out.width[h] = in.getFloat();
+                out.height[h] = in.getFloat();
+            }
+            if ((mask & SCALE) != 0) {
+                out.scale[h] = in.getFloat();
+            }
+        }
+        out.resize(size);
+    }
+
+    /**
+     * Writes a non-negative number in as few bytes as possible, seven bits per byte.
+     *
+     * @param out   The buffer to write to.
+     * @param value The number.
+     */
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Reads a number written by {@link #putVarInt}.
+     *
+     * @param in The buffer to read from.
+     * @return The number.
+     * @throws IllegalArgumentException If the number runs past the five bytes of an int.
+     */
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Variable length number longer than 5 bytes");
+    }
+}
@@ -0,0 +1,315 @@
+package edu.vanier.spaceinvaders.net;
+
+import edu.vanier.spaceinvaders.engine.Input;
+import edu.vanier.spaceinvaders.engine.InputQueue;
+import edu.vanier.spaceinvaders.engine.Simulation;
+import edu.vanier.spaceinvaders.engine.Snapshot;
+import edu.vanier.spaceinvaders.engine.SnapshotBuffer;
+import edu.vanier.spaceinvaders.engine.World;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A game simulated by a {@link GameServer} and played over the network. A thread receives the state of the session
+ * after every tick, rebuilds it from the difference with the state it acknowledged last, and publishes it as a
+ * {@link Snapshot} that moves every entity from its position in the previous state, so the rendering thread draws a
+ * remote game exactly like a local one. After each state the client answers with the input of its player, which
+ * also acknowledges the state.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class GameClient implements Simulation, Runnable {
+
+    /**
+     * The logger for the game client.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(GameClient.class);
+
+    /**
+     * The address of the server.
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * The number of the session to join.
+     */
+    private final int session;
+
+    /**
+     * The length of a tick of the server in nanoseconds.
+     */
+    private final long stepNanos = (long) (World.FRAME * 1e9);
+
+    /**
+     * The key presses waiting to be sent.
+     */
+    private final InputQueue input = new InputQueue();
+
+    /**
+     * The snapshots handed to the rendering thread.
+     */
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+
+    /**
+     * The last states received, indexed by sequence number modulo {@link ServerSession#HISTORY}, kept as the bases
+     * of the next differences.
+     */
+    private final WorldState[] received = new WorldState[ServerSession.HISTORY];
+
+    /**
+     * The traffic and latency of the connection.
+     */
+    private final ConnectionStats stats = new ConnectionStats();
+
+    /**
+     * Flag indicating whether the rendering thread asked for a new game.
+     */
+    private final AtomicBoolean restartRequested = new AtomicBoolean();
+
+    /**
+     * The buffer holding the messages sent to the server.
+     */
+    private final ByteBuffer out = ByteBuffer.allocate(64);
+
+    /**
+     * The channel connected to the server, or null before the client is started.
+     */
+    private SocketChannel channel;
+
+    /**
+     * The thread receiving the states, or null before the client is started.
+     */
+    private Thread thread;
+
+    /**
+     * Flag indicating whether the client should keep running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * The player of the client in the session, or -1 before the server welcomed it.
+     */
+    private volatile int player = -1;
+
+    /**
+     * The {@link Input} bits of the player.
+     */
+    private int bits = 0;
+
+    /**
+     * Constructs a client of the given server, joining the given session once started.
+     *
+     * @param address The address of the server.
+     * @param session The number of the session to join.
+     */
+    public GameClient(InetSocketAddress address, int session) {
+        this.address = address;
+        this.session = session;
+    }
+
+    /**
+     * Connects to the server, asks to join the session and starts receiving its states.
+     *
+     * @throws IllegalStateException If the client was already started.
+     * @throws java.io.UncheckedIOException If the server cannot be reached.
+     */
+    @Override
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Client already started");
+        }
+        try {
+            channel = SocketChannel.open(address);
+            channel.socket().setTcpNoDelay(true);
+            out.clear();
+            out.putInt(5).put(Protocol.JOIN).putInt(session).flip();
+            write();
+        } catch (IOException ex) {
+            throw new java.io.UncheckedIOException("Could not connect to " + address, ex);
+        }
+        running = true;
+        thread = new Thread(this, "net-client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Disconnects from the server.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                logger.debug("Could not close the connection", ex);
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Asks the server for a new game, sent with the next input.
+     */
+    @Override
+    public void restart() {
+        restartRequested.set(true);
+    }
+
+    /**
+     * Receives and handles the messages of the server until the client is stopped or the connection closes.
+     */
+    @Override
+    public void run() {
+        ByteBuffer frame = null;
+        WorldState previous = null;
+        try {
+            while (running) {
+                frame = Protocol.readFrame(channel, frame);
+                stats.recordReceived(4 + frame.remaining());
+                switch (frame.get()) {
+                    case Protocol.WELCOME -> {
+                        frame.getInt();
+                        player = frame.get();
+                        logger.info("Joined session {} of {} as player {}", session, address, player);
+                    }
+                    case Protocol.REJECT -> {
+                        logger.warn("Session {} of {} is full", session, address);
+                        running = false;
+                    }
+                    case Protocol.STATE -> previous = receiveState(frame, previous);
+                    default -> throw new IOException("Unknown message");
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (running) {
+                logger.warn("Lost the connection to {}", address, ex);
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Rebuilds a state from its difference with an older one, publishes it and answers with the input of the player.
+     *
+     * @param frame    The message holding the state.
+     * @param previous The state received before, or null.
+     * @return The state received.
+     * @throws IOException If the answer cannot be sent.
+     */
+    private WorldState receiveState(ByteBuffer frame, WorldState previous) throws IOException {
+        long now = System.nanoTime();
+        long echo = frame.getLong();
+        if (echo != 0) {
+            stats.recordRtt(now - echo);
+        }
+        int base = DeltaCodec.peekBase(frame);
+        int sequence = frame.getInt(frame.position());
+        WorldState baseState = base < 0 ? null : received[base % received.length];
+        WorldState state = received[sequence % received.length];
+        if (state == null) {
+            state = new WorldState();
+            received[sequence % received.length] = state;
+        }
+        DeltaCodec.decode(baseState, frame, state);
+        stats.recordState(base < 0);
+
+        Snapshot snapshot = snapshots.acquire();
+        state.toSnapshot(previous, snapshot, now);
+        snapshots.publish();
+
+        // Acknowledge the state with the input of the player, then ask for a new game if needed
+        bits = input.drain(bits);
+        out.clear();
+        out.putInt(14).put(Protocol.INPUT).putInt(sequence).putLong(System.nanoTime()).put((byte) bits);
+        bits &= ~Input.ONE_SHOT;
+        if (restartRequested.getAndSet(false)) {
+            out.putInt(1).put(Protocol.RESTART);
+        }
+        out.flip();
+        write();
+        return state;
+    }
+
+    /**
+     * Writes the outgoing buffer to the server.
+     *
+     * @throws IOException If the connection was closed.
+     */
+    private void write() throws IOException {
+        while (out.hasRemaining()) {
+            stats.recordSent(channel.write(out));
+        }
+    }
+
+    /**
+     * Gets the newest snapshot received. Must only be called by the rendering thread.
+     *
+     * @return The newest snapshot, valid until the next call.
+     */
+    @Override
+    public Snapshot latest() {
+        return snapshots.latest();
+    }
+
+    /**
+     * Gets the queue carrying key presses to the server. Must only be fed by the rendering thread.
+     *
+     * @return The input queue.
+     */
+    @Override
+    public InputQueue getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the length of a tick of the server.
+     *
+     * @return The length of a tick in nanoseconds.
+     */
+    @Override
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    /**
+     * Gets the traffic and latency of the connection.
+     *
+     * @return The connection statistics.
+     */
+    public ConnectionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the player of the client in its session.
+     *
+     * @return The index of the player, or -1 before the server welcomed the client.
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Checks whether the client is still connected.
+     *
+     * @return True if the client is receiving states.
+     */
+    public boolean isConnected() {
+        return running;
+    }
+}
@@ -0,0 +1,448 @@
+package edu.vanier.spaceinvaders.net;
+
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.World;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The authoritative game server. A single thread accepts clients over TCP, reads their input and ticks every
+ * {@link ServerSession} with the fixed step of the game, then sends each client the new state of its session. The
+ * sockets are non-blocking and served by one selector, so one thread hosts any number of sessions and clients; a
+ * client that reads slowly skips states instead of slowing the others down.
+ *
+ * <p>Clients choose the session they join by number, and a session is created when its first client joins and
+ * dropped when its last client leaves.</p>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class GameServer implements Runnable {
+
+    /**
+     * The logger for the game server.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(GameServer.class);
+
+    /**
+     * The largest number of late ticks run back to back before the server gives up catching up.
+     */
+    private static final int MAX_CATCH_UP = 5;
+
+    /**
+     * The length of a tick in nanoseconds.
+     */
+    private final long stepNanos = (long) (World.FRAME * 1e9);
+
+    /**
+     * The rules of the games hosted.
+     */
+    private final GameConfig config;
+
+    /**
+     * The channel accepting clients.
+     */
+    private final ServerSocketChannel server;
+
+    /**
+     * The selector serving every socket.
+     */
+    private final Selector selector;
+
+    /**
+     * The sessions hosted, keyed by number.
+     */
+    private final Map<Integer, ServerSession> sessions = new HashMap<>();
+
+    /**
+     * The connected clients, in order of connection.
+     */
+    private final List<ClientConnection> clients = new ArrayList<>();
+
+    /**
+     * The reports of the connected clients, rebuilt whenever a client connects or leaves so that other threads can
+     * read them.
+     */
+    private volatile List<String> names = List.of();
+    private volatile List<ConnectionStats> stats = List.of();
+
+    /**
+     * The number of ticks run by every session together.
+     */
+    private final AtomicLong ticks = new AtomicLong();
+
+    /**
+     * The number of sessions hosted.
+     */
+    private volatile int sessionCount = 0;
+
+    /**
+     * Flag indicating whether the server should keep running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * The thread running the server, or null before it is started.
+     */
+    private Thread thread;
+
+    /**
+     * Constructs a server listening on the given address and hosting games with the given rules.
+     *
+     * @param address The address to listen on, with port 0 for any free port.
+     * @param config  The rules of the games hosted.
+     * @throws IOException If the address cannot be bound.
+     */
+    public GameServer(InetSocketAddress address, GameConfig config) throws IOException {
+        this.config = config.copy();
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts the server thread.
+     *
+     * @throws IllegalStateException If the server was already started.
+     */
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        running = true;
+        thread = new Thread(this, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Game server listening on port {}", getPort());
+    }
+
+    /**
+     * Stops the server, closing every connection.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Serves the clients and ticks the sessions on schedule until the server is stopped.
+     */
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                long wait = next - System.nanoTime();
+                if (wait > 1_000_000) {
+                    selector.select(wait / 1_000_000);
+                } else {
+                    selector.selectNow();
+                }
+                handleKeys();
+
+                long now = System.nanoTime();
+                int late = 0;
+                while (now >= next && late < MAX_CATCH_UP) {
+                    tick(now);
+                    next += stepNanos;
+                    late++;
+                }
+                if (now - next > stepNanos * MAX_CATCH_UP) {
+                    next = now;
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            logger.error("The game server stopped", ex);
+        } finally {
+            for (ClientConnection client : clients) {
+                client.close();
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close the server socket", ex);
+            }
+        }
+    }
+
+    /**
+     * Accepts new clients and reads or writes the sockets that are ready.
+     *
+     * @throws IOException If a client cannot be accepted.
+     */
+    private void handleKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            ClientConnection client = (ClientConnection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    receive(client);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    client.flush();
+                }
+            } catch (IOException | RuntimeException ex) {
+                logger.debug("Dropping client {}", client.getName(), ex);
+                client.close();
+            }
+        }
+        disconnectClosed();
+    }
+
+    /**
+     * Accepts a new client.
+     *
+     * @throws IOException If the client cannot be accepted.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        // States are small and frequent, so send them at once
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        ClientConnection client = new ClientConnection(channel, key);
+        key.attach(client);
+        clients.add(client);
+        updateReports();
+        logger.info("Client {} connected", client.getName());
+    }
+
+    /**
+     * Reads the messages of a client and handles every complete one.
+     *
+     * @param client The client.
+     * @throws IOException If the connection was closed or a message is invalid.
+     */
+    private void receive(ClientConnection client) throws IOException {
+        ByteBuffer in = client.read();
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length <= 0 || length > Protocol.MAX_CLIENT_FRAME) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (in.remaining() < 4 + length) {
+                break;
+            }
+            // Limit the buffer to the frame so that a short body cannot be read past its end
+            int limit = in.limit();
+            int end = in.position() + 4 + length;
+            in.position(in.position() + 4).limit(end);
+            handle(client, in.get(), in);
+            in.limit(limit).position(end);
+        }
+        client.compact();
+    }
+
+    /**
+     * Handles one message from a client.
+     *
+     * @param client The client.
+     * @param type   The type of the message.
+     * @param body   The body of the message, from its position to its limit.
+     * @throws IOException If the message is invalid or the reply cannot be sent.
+     */
+    private void handle(ClientConnection client, byte type, ByteBuffer body) throws IOException {
+        switch (type) {
+            case Protocol.JOIN -> {
+                checkBody(type, body, Protocol.JOIN_BODY);
+                join(client, body.getInt());
+            }
+            case Protocol.INPUT -> {
+                checkBody(type, body, Protocol.INPUT_BODY);
+                client.receiveInput(body.getInt(), body.getLong(), body.get(), System.nanoTime());
+            }
+            case Protocol.RESTART -> {
+                checkBody(type, body, Protocol.RESTART_BODY);
+                if (client.getSession() != null) {
+                    client.getSession().requestRestart();
+                }
+            }
+            default -> throw new IOException("Unknown message " + type);
+        }
+    }
+
+    /**
+     * Checks that the body of a message has the size of its type.
+     *
+     * @param type The type of the message.
+     * @param body The body of the message, from its position to its limit.
+     * @param size The size of the body of a message of this type.
+     * @throws IOException If the body is larger or smaller.
+     */
+    private static void checkBody(byte type, ByteBuffer body, int size) throws IOException {
+        if (body.remaining() != size) {
+            throw new IOException("Invalid body of " + body.remaining() + " bytes for message " + type);
+        }
+    }
+
+    /**
+     * Adds a client to a session, creating the session if needed.
+     *
+     * @param client The client.
+     * @param id     The number of the session.
+     * @throws IOException If the client already joined a session or the reply cannot be sent.
+     */
+    private void join(ClientConnection client, int id) throws IOException {
+        if (client.getSession() != null) {
+            throw new IOException("Client " + client.getName() + " already joined a session");
+        }
+        ServerSession session = sessions.computeIfAbsent(id, i -> new ServerSession(i, config));
+        sessionCount = sessions.size();
+        int player = session.join(client);
+        if (player < 0) {
+            logger.info("Session {} is full, rejecting {}", id, client.getName());
+            client.send(Protocol.REJECT, null);
+            client.close();
+            return;
+        }
+        client.setSession(session, player);
+        ByteBuffer welcome = ByteBuffer.allocate(5).putInt(id).put((byte) player).flip();
+        client.send(Protocol.WELCOME, welcome);
+        logger.info("Client {} joined session {} as player {}", client.getName(), id, player);
+    }
+
+    /**
+     * Ticks every session and sends the new states.
+     *
+     * @param now The current time in nanoseconds.
+     */
+    private void tick(long now) {
+        for (ServerSession session : sessions.values()) {
+            session.tick(now);
+            ticks.incrementAndGet();
+        }
+        disconnectClosed();
+    }
+
+    /**
+     * Removes the clients whose connection closed from their session, dropping the sessions left empty.
+     */
+    private void disconnectClosed() {
+        boolean changed = false;
+        for (Iterator<ClientConnection> it = clients.iterator(); it.hasNext();) {
+            ClientConnection client = it.next();
+            if (!client.isClosed()) {
+                continue;
+            }
+            it.remove();
+            changed = true;
+            ServerSession session = client.getSession();
+            if (session != null) {
+                session.leave(client);
+                if (session.isEmpty()) {
+                    sessions.remove(session.getId());
+                }
+            }
+            logger.info("Client {} disconnected", client.getName());
+        }
+        if (changed) {
+            sessionCount = sessions.size();
+            updateReports();
+        }
+    }
+
+    /**
+     * Publishes the names and statistics of the connected clients for other threads.
+     */
+    private void updateReports() {
+        List<String> names = new ArrayList<>();
+        List<ConnectionStats> stats = new ArrayList<>();
+        for (ClientConnection client : clients) {
+            names.add(client.getName());
+            stats.add(client.getStats());
+        }
+        this.names = List.copyOf(names);
+        this.stats = List.copyOf(stats);
+    }
+
+    /**
+     * Formats the traffic and latency of every client over a reporting window, one line per client, and starts a
+     * new window. Can be called from any thread.
+     *
+     * @param seconds The length of the window in seconds.
+     * @return The report of every client.
+     */
+    public List<String> formatStats(double seconds) {
+        List<String> names = this.names;
+        List<ConnectionStats> stats = this.stats;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            lines.add(String.format(Locale.ROOT, "%s: %s", names.get(i), stats.get(i).formatWindow(seconds)));
+        }
+        return lines;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of sessions hosted.
+     *
+     * @return The number of sessions.
+     */
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Gets the number of clients connected.
+     *
+     * @return The number of clients.
+     */
+    public int getClientCount() {
+        return names.size();
+    }
+
+    /**
+     * Gets the number of ticks run by every session together, so that comparing it between two points in time gives
+     * the aggregate tick rate of the server.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+}
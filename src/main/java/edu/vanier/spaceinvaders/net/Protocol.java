@@ -0,0 +1,106 @@
+package edu.vanier.spaceinvaders.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * The messages exchanged between a {@link GameServer} and its {@link GameClient}s over TCP. Every message is a frame
+ * made of its length as an int followed by its type as a byte and its body:
+ *
+ * <ul>
+ * <li>{@link #JOIN}, client to server: the session to join as an int.</li>
+ * <li>{@link #WELCOME}, server to client: the session as an int and the player of the client as a byte.</li>
+ * <li>{@link #REJECT}, server to client: the session is full, the connection is closed.</li>
+ * <li>{@link #INPUT}, client to server: the last state received as an int, the time the client sent the message as a
+ * long and the {@link edu.vanier.spaceinvaders.engine.Input} bits of the player as a byte.</li>
+ * <li>{@link #RESTART}, client to server: start a new game once the current one is over.</li>
+ * <li>{@link #STATE}, server to client: the time of the last input received from the client as a long, then a state
+ * encoded by the {@link DeltaCodec}.</li>
+ * </ul>
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public final class Protocol {
+
+    /**
+     * The port the server listens on by default.
+     */
+    public static final int DEFAULT_PORT = 7777;
+
+    /**
+     * The largest frame accepted from the server, guarding against corrupt lengths.
+     */
+    public static final int MAX_FRAME = 1 << 24;
+
+    /**
+     * The largest frame accepted from a client, an {@link #INPUT}, so that a client cannot make the server allocate
+     * large buffers.
+     */
+    public static final int MAX_CLIENT_FRAME = 14;
+
+    /**
+     * The sizes of the bodies of the messages sent by clients, which must match exactly.
+     */
+    public static final int JOIN_BODY = 4;
+    public static final int INPUT_BODY = 13;
+    public static final int RESTART_BODY = 0;
+
+    /**
+     * The types of messages.
+     */
+    public static final byte JOIN = 1;
+    public static final byte INPUT = 2;
+    public static final byte RESTART = 3;
+    public static final byte WELCOME = 10;
+    public static final byte REJECT = 11;
+    public static final byte STATE = 12;
+
+    /**
+     * Prevents instantiation of the constants class.
+     */
+    private Protocol() {
+    }
+
+    /**
+     * Reads a whole frame from a blocking channel.
+     *
+     * @param channel The channel to read from.
+     * @param buffer  The buffer to read into, or null.
+     * @return The buffer holding the frame, from its type to its end, which is the given buffer if it is large
+     *         enough.
+     * @throws IOException If the channel is closed or the frame is too large.
+     */
+    static ByteBuffer readFrame(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(channel, length);
+        int size = length.getInt(0);
+        if (size <= 0 || size > MAX_FRAME) {
+            throw new IOException("Invalid frame length " + size);
+        }
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer == null ? 4096 : buffer.capacity() * 2));
+        }
+        buffer.clear().limit(size);
+        readFully(channel, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Fills a buffer from a blocking channel.
+     *
+     * @param channel The channel to read from.
+     * @param buffer  The buffer to fill up to its limit.
+     * @throws IOException If the channel is closed before the buffer is full.
+     */
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package edu.vanier.spaceinvaders.net;
+
+import edu.vanier.spaceinvaders.engine.GameConfig;
+import edu.vanier.spaceinvaders.engine.World;
+import java.nio.ByteBuffer;
+
+/**
+ * One game hosted by a {@link GameServer}, shared by up to {@link World#MAX_PLAYERS} clients, each controlling a
+ * spaceship. The server ticks the session and the session sends each client the new state as the difference from the
+ * last state that client acknowledged, or whole when the client is new or fell too far behind. The last states are
+ * kept so that any acknowledged state can serve as the base.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+class ServerSession {
+
+    /**
+     * The number of past states kept as bases for the differences.
+     */
+    static final int HISTORY = 32;
+
+    /**
+     * The number identifying the session, chosen by the clients joining it.
+     */
+    private final int id;
+
+    /**
+     * The world simulated for the session.
+     */
+    private final World world = new World();
+
+    /**
+     * The last states of the world, indexed by sequence number modulo {@link #HISTORY}.
+     */
+    private final WorldState[] history = new WorldState[HISTORY];
+
+    /**
+     * The time each state in the history was sent, in nanoseconds, used to measure round trips.
+     */
+    private final long[] sentTimes = new long[HISTORY];
+
+    /**
+     * The client controlling each spaceship, or null if the spaceship is idle.
+     */
+    private final ClientConnection[] players = new ClientConnection[World.MAX_PLAYERS];
+
+    /**
+     * The encoder of the differences sent to the clients.
+     */
+    private final DeltaCodec codec = new DeltaCodec();
+
+    /**
+     * The sequence number of the newest state.
+     */
+    private int sequence = -1;
+
+    /**
+     * The number of ticks run by the world.
+     */
+    private long ticks = 0;
+
+    /**
+     * Flag indicating whether a client asked for a new game.
+     */
+    private boolean restartRequested = false;
+
+    /**
+     * Constructs a session playing a new game with the given rules.
+     *
+     * @param id     The number identifying the session.
+     * @param config The rules of the game.
+     */
+    ServerSession(int id, GameConfig config) {
+        this.id = id;
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new WorldState();
+        }
+        world.setConfig(config);
+        world.restart();
+    }
+
+    /**
+     * Gives a client the first idle spaceship.
+     *
+     * @param client The client joining.
+     * @return The player of the client, or -1 if every spaceship is taken.
+     */
+    int join(ClientConnection client) {
+        for (int player = 0; player < players.length; player++) {
+            if (players[player] == null) {
+                players[player] = client;
+                world.setPlayers(Math.max(world.getPlayers(), player + 1));
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Frees the spaceship of a client leaving. The spaceships of the last players are removed once nobody controls
+     * them, and the others stay idle.
+     *
+     * @param client The client leaving.
+     */
+    void leave(ClientConnection client) {
+        int last = -1;
+        for (int player = 0; player < players.length; player++) {
+            if (players[player] == client) {
+                players[player] = null;
+                world.setInput(player, 0);
+            } else if (players[player] != null) {
+                last = player;
+            }
+        }
+        world.setPlayers(Math.max(1, last + 1));
+    }
+
+    /**
+     * Checks whether no client is left in the session.
+     *
+     * @return True if the session is empty.
+     */
+    boolean isEmpty() {
+        for (ClientConnection player : players) {
+            if (player != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Asks for a new game, started at the next tick if the current game is over.
+     */
+    void requestRestart() {
+        restartRequested = true;
+    }
+
+    /**
+     * Ticks the world with the latest input of every client, then sends the new state to every client.
+     *
+     * @param now The current time in nanoseconds.
+     */
+    void tick(long now) {
+        if (restartRequested && world.isGameOver()) {
+            world.restart();
+        }
+        restartRequested = false;
+        for (int player = 0; player < world.getPlayers(); player++) {
+            ClientConnection client = players[player];
+            world.setInput(player, client == null ? 0 : client.takeInput());
+        }
+        if (!world.isGameOver()) {
+            world.tick(World.FRAME);
+            ticks++;
+        }
+
+        sequence++;
+        WorldState current = history[sequence % HISTORY];
+        current.capture(world, sequence, ticks);
+        sentTimes[sequence % HISTORY] = now;
+        for (ClientConnection client : players) {
+            if (client != null) {
+                WorldState base = getState(client.getAcknowledged());
+                ByteBuffer delta = codec.encode(base, current);
+                client.sendState(delta, base == null);
+            }
+        }
+    }
+
+    /**
+     * Gets a past state if it is still in the history.
+     *
+     * @param sequence The sequence number of the state.
+     * @return The state, or null if it is unknown or too old.
+     */
+    private WorldState getState(int sequence) {
+        if (sequence < 0 || sequence > this.sequence || this.sequence - sequence >= HISTORY) {
+            return null;
+        }
+        WorldState state = history[sequence % HISTORY];
+        return state.sequence == sequence ? state : null;
+    }
+
+    /**
+     * Gets the time a state was sent, to measure the round trip to its acknowledgement.
+     *
+     * @param sequence The sequence number of the state.
+     * @return The time in nanoseconds, or -1 if the state is no longer in the history.
+     */
+    long getSentTime(int sequence) {
+        return getState(sequence) == null ? -1 : sentTimes[sequence % HISTORY];
+    }
+
+    /**
+     * Gets the number identifying the session.
+     *
+     * @return The session number.
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the number of ticks run by the world of the session.
+     *
+     * @return The number of ticks.
+     */
+    long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the world simulated for the session.
+     *
+     * @return The world.
+     */
+    World getWorld() {
+        return world;
+    }
+}
@@ -0,0 +1,254 @@
+package edu.vanier.spaceinvaders.net;
+
+import edu.vanier.spaceinvaders.engine.EntityArray;
+import edu.vanier.spaceinvaders.engine.EntityStore;
+import edu.vanier.spaceinvaders.engine.Formation;
+import edu.vanier.spaceinvaders.engine.GameSession;
+import edu.vanier.spaceinvaders.engine.Snapshot;
+import edu.vanier.spaceinvaders.engine.World;
+import edu.vanier.spaceinvaders.models.EntityKind;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of a {@link World} after a tick as sent over the network. Entities are indexed by their handle in the
+ * {@link EntityStore}, which stays the same while the entity lives, so two states of the same world can be compared
+ * entity by entity and only the differences sent. Invaders keep their position relative to the {@link Formation},
+ * which does not change while they live, and the offset of the formation is part of the header, so moving the wave
+ * costs a few bytes whatever its size.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class WorldState {
+
+    /**
+     * The names of the images an entity can be drawn with, indexed by the number sent in their place.
+     */
+    static final List<String> IMAGES;
+
+    /**
+     * The number sent in place of each image name.
+     */
+    private static final Map<String, Integer> IMAGE_IDS = new HashMap<>();
+
+    static {
+        List<String> images = new ArrayList<>();
+        for (int level = 1; level <= World.MAX_LEVEL; level++) {
+            for (String image : World.getImages(level)) {
+                if (!images.contains(image)) {
+                    images.add(image);
+                }
+            }
+        }
+        IMAGES = List.copyOf(images);
+        for (int i = 0; i < IMAGES.size(); i++) {
+            IMAGE_IDS.put(IMAGES.get(i), i);
+        }
+    }
+
+    /**
+     * The number of the state, increasing with each tick of the world.
+     */
+    int sequence = -1;
+
+    /**
+     * The number of ticks run by the world and the number of levels started.
+     */
+    long ticks;
+    long levelStarts;
+
+    /**
+     * The score, lives and level of the game.
+     */
+    int score;
+    int lives;
+    int level;
+
+    /**
+     * Flags indicating whether the game is over and whether every level was cleared.
+     */
+    boolean gameOver;
+    boolean won;
+
+    /**
+     * The offset of the invader formation.
+     */
+    float offsetX;
+    float offsetY;
+
+    /**
+     * The number of handles described, an upper bound on the handles in use.
+     */
+    int size;
+
+    /**
+     * The kind of the entity with each handle as its {@link EntityKind#ordinal()} plus one, or 0 if the handle is not
+     * in use.
+     */
+    byte[] kinds = new byte[0];
+
+    /**
+     * The number of the image of each entity.
+     */
+    short[] images = new short[0];
+
+    /**
+     * The position, size and scale of each entity. The position of an invader is relative to the formation.
+     */
+    float[] x = new float[0];
+    float[] y = new float[0];
+    float[] width = new float[0];
+    float[] height = new float[0];
+    float[] scale = new float[0];
+
+    /**
+     * Copies the state of a world after a tick.
+     *
+     * @param world    The world to copy.
+     * @param sequence The number of the state.
+     * @param ticks    The number of ticks run by the world.
+     */
+    public void capture(World world, int sequence, long ticks) {
+        EntityStore store = world.getStore();
+        resize(store.getHighWater());
+        Arrays.fill(kinds, 0, size, (byte) 0);
+        for (EntityKind kind : EntityKind.ALL) {
+            EntityArray entities = world.getEntities(kind);
+            for (int i = 0; i < entities.size(); i++) {
+                int entity = entities.get(i);
+                if (store.isDead(entity)) {
+                    continue;
+                }
+                kinds[entity] = (byte) (kind.ordinal() + 1);
+                images[entity] = imageId(store.getImage(entity));
+                x[entity] = (float) store.getX(entity);
+                y[entity] = (float) store.getY(entity);
+                width[entity] = (float) store.getWidth(entity);
+                height[entity] = (float) store.getHeight(entity);
+                scale[entity] = (float) store.getScale(entity);
+            }
+        }
+
+        GameSession session = world.getSession();
+        this.sequence = sequence;
+        this.ticks = ticks;
+        levelStarts = session.getLevelStarts();
+        score = session.getScore();
+        lives = session.getLives();
+        level = session.getLevel();
+        gameOver = session.isGameOver();
+        won = session.isWon();
+        offsetX = (float) world.getFormation().getOffsetX();
+        offsetY = (float) world.getFormation().getOffsetY();
+    }
+
+    /**
+     * Makes this state a copy of another one.
+     *
+     * @param other The state to copy.
+     */
+    void copyFrom(WorldState other) {
+        resize(other.size);
+        System.arraycopy(other.kinds, 0, kinds, 0, size);
+        System.arraycopy(other.images, 0, images, 0, size);
+        System.arraycopy(other.x, 0, x, 0, size);
+        System.arraycopy(other.y, 0, y, 0, size);
+        System.arraycopy(other.width, 0, width, 0, size);
+        System.arraycopy(other.height, 0, height, 0, size);
+        System.arraycopy(other.scale, 0, scale, 0, size);
+        sequence = other.sequence;
+        ticks = other.ticks;
+        levelStarts = other.levelStarts;
+        score = other.score;
+        lives = other.lives;
+        level = other.level;
+        gameOver = other.gameOver;
+        won = other.won;
+        offsetX = other.offsetX;
+        offsetY = other.offsetY;
+    }
+
+    /**
+     * Sets the number of handles described, growing the columns if needed. Handles past the previous size are not in
+     * use.
+     *
+     * @param size The number of handles.
+     */
+    void resize(int size) {
+        if (kinds.length < size) {
+            int capacity = Math.max(size, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            images = Arrays.copyOf(images, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            scale = Arrays.copyOf(scale, capacity);
+        }
+        if (size > this.size) {
+            Arrays.fill(kinds, this.size, size, (byte) 0);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Fills a snapshot with this state so that it can be drawn, interpolating from a previous state. An entity
+     * moves from its position in the previous state if it was already there, and appears in place otherwise.
+     *
+     * @param previous The state received before this one, or null if there is none.
+     * @param snapshot The snapshot to fill.
+     * @param time     The time in nanoseconds at which the state was received.
+     */
+    void toSnapshot(WorldState previous, Snapshot snapshot, long time) {
+        snapshot.begin();
+        int enemy = EntityKind.ENEMY.ordinal() + 1;
+        for (EntityKind kind : EntityKind.ALL) {
+            byte code = (byte) (kind.ordinal() + 1);
+            float dx = code == enemy ? offsetX : 0;
+            float dy = code == enemy ? offsetY : 0;
+            float previousDx = code == enemy && previous != null ? previous.offsetX : dx;
+            float previousDy = code == enemy && previous != null ? previous.offsetY : dy;
+            for (int h = 0; h < size; h++) {
+                if (kinds[h] != code) {
+                    continue;
+                }
+                double currentX = x[h] + dx;
+                double currentY = y[h] + dy;
+                boolean moved = previous != null && h < previous.size && previous.kinds[h] == code
+                        && previous.images[h] == images[h];
+                snapshot.add(kind, moved ? previous.x[h] + previousDx : currentX,
+                        moved ? previous.y[h] + previousDy : currentY, currentX, currentY, width[h], height[h],
+                        scale[h], IMAGES.get(images[h]));
+            }
+        }
+        snapshot.finish(time, ticks, levelStarts, score, lives, level, gameOver, won);
+    }
+
+    /**
+     * Gets the number sent in place of an image name.
+     *
+     * @param image The name of the image.
+     * @return The number of the image.
+     * @throws IllegalArgumentException If the image is not drawn by any level.
+     */
+    private static short imageId(String image) {
+        Integer id = IMAGE_IDS.get(image);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown image " + image);
+        }
+        return id.shortValue();
+    }
+
+    /**
+     * Gets the number of the state.
+     *
+     * @return The sequence number, or -1 if nothing was captured yet.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+}
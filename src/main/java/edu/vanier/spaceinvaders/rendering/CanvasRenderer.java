@@ -0,0 +1,72 @@
+package edu.vanier.spaceinvaders.rendering;
+
+import edu.vanier.spaceinvaders.engine.Snapshot;
+import edu.vanier.spaceinvaders.engine.World;
+import edu.vanier.spaceinvaders.models.EntityKind;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+
+/**
+ * Renders a {@link World} by drawing every entity onto a single {@link Canvas} each frame, using the images cached in
+ * the {@link TextureAtlas}. The scene graph only holds one node for the whole game, so there is no per-entity layout,
+ * bounds or dirty-region work, which keeps frame times flat with thousands of entities on screen. The canvas is
+ * placed directly above the background so that the labels and overlay text always stay on top.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class CanvasRenderer implements Renderer {
+
+    /**
+     * The canvas the entities are drawn on.
+     */
+    private final Canvas canvas = new Canvas(World.WIDTH, World.HEIGHT);
+
+    /**
+     * The graphics context of the canvas.
+     */
+    private final GraphicsContext graphics = canvas.getGraphicsContext2D();
+
+    /**
+     * The atlas providing the sprite images.
+     */
+    private final TextureAtlas atlas;
+
+    /**
+     * Constructs a renderer drawing into the given panel.
+     *
+     * @param animationPanel The panel where the game animation occurs.
+     * @param atlas          The atlas providing the sprite images.
+     */
+    public CanvasRenderer(Pane animationPanel, TextureAtlas atlas) {
+        this.atlas = atlas;
+        // Index 0 is the background image
+        animationPanel.getChildren().add(1, canvas);
+    }
+
+    /**
+     * Clears the canvas and draws every entity of the snapshot, kind by kind. Entities are scaled around their centre,
+     * as sprite nodes are.
+     *
+     * @param snapshot The snapshot to render.
+     * @param alpha    The fraction of a tick elapsed since the captured tick, between 0 and 1.
+     */
+    @Override
+    public void render(Snapshot snapshot, double alpha) {
+        graphics.clearRect(0, 0, World.WIDTH, World.HEIGHT);
+        for (EntityKind kind : EntityKind.ALL) {
+            for (int i = snapshot.start(kind); i < snapshot.end(kind); i++) {
+                double scale = snapshot.getScale(i);
+                if (scale <= 0) {
+                    continue;
+                }
+                double w = snapshot.getWidth(i) * scale;
+                double h = snapshot.getHeight(i) * scale;
+                double x = snapshot.getX(i, alpha) + (snapshot.getWidth(i) - w) / 2;
+                double y = snapshot.getY(i, alpha) + (snapshot.getHeight(i) - h) / 2;
+                graphics.drawImage(atlas.getImage(snapshot.getImage(i)), x, y, w, h);
+            }
+        }
+    }
+}
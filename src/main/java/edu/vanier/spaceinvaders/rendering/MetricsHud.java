@@ -0,0 +1,60 @@
+package edu.vanier.spaceinvaders.rendering;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * An on-screen overlay showing the frame metrics collected by the profiler. The overlay is hidden until toggled, and
+ * its text is only replaced once per reporting window so that it does not add layout work to every frame.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class MetricsHud {
+
+    /**
+     * The text displaying the metrics.
+     */
+    private final Text text = new Text(10, 120, "");
+
+    /**
+     * Constructs a hidden HUD on top of the given panel.
+     *
+     * @param animationPanel The panel where the game animation occurs.
+     */
+    public MetricsHud(Pane animationPanel) {
+        text.setFill(Color.LIME);
+        text.setFont(Font.font("Monospaced", 13));
+        text.setVisible(false);
+        text.setMouseTransparent(true);
+        animationPanel.getChildren().add(text);
+    }
+
+    /**
+     * Shows the HUD if it is hidden, or hides it if it is shown.
+     */
+    public void toggle() {
+        text.setVisible(!text.isVisible());
+        text.toFront();
+    }
+
+    /**
+     * Checks if the HUD is shown.
+     *
+     * @return True if the HUD is visible, false otherwise.
+     */
+    public boolean isVisible() {
+        return text.isVisible();
+    }
+
+    /**
+     * Replaces the metrics displayed by the HUD.
+     *
+     * @param metrics The metrics text.
+     */
+    public void update(String metrics) {
+        text.setText(metrics);
+    }
+}
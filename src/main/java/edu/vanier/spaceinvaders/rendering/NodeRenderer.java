@@ -0,0 +1,170 @@
+package edu.vanier.spaceinvaders.rendering;
+
+import edu.vanier.spaceinvaders.engine.Snapshot;
+import edu.vanier.spaceinvaders.engine.World;
+import edu.vanier.spaceinvaders.models.EntityKind;
+import edu.vanier.spaceinvaders.models.Sprite;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.Group;
+import javafx.scene.layout.Pane;
+
+/**
+ * Renders a {@link World} into the scene graph using pooled {@link Sprite} nodes. Each kind of entity has its own pool
+ * of sprites; every frame, the entities of a kind are drawn by the first sprites of its pool and the remaining sprites
+ * are hidden rather than removed, so bullets and explosions reuse nodes instead of creating new ones. Each pool has
+ * its own group whose children are exactly its sprites, in order, so surplus sprites are trimmed with one range
+ * removal instead of a linear search per sprite. The groups are placed in a layer directly above the background so
+ * that the labels and overlay text always stay on top.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class NodeRenderer implements Renderer {
+
+    /**
+     * The default maximum number of hidden sprites kept per kind.
+     */
+    public static final int DEFAULT_POOL_CAPACITY = 256;
+
+    /**
+     * The layer holding the group of each pool, drawn in the order of {@link EntityKind}.
+     */
+    private final Group layer = new Group();
+
+    /**
+     * The pool of sprites for each kind of entity, indexed by {@link EntityKind#ordinal()}.
+     */
+    private final SpritePool[] pools = new SpritePool[EntityKind.ALL.length];
+
+    /**
+     * The atlas providing the shared sprite paints.
+     */
+    private final TextureAtlas atlas;
+
+    /**
+     * The maximum number of hidden sprites kept per kind.
+     */
+    private final int poolCapacity;
+
+    /**
+     * The number of sprite nodes created.
+     */
+    private long created = 0;
+
+    /**
+     * Constructs a renderer drawing into the given panel with the default pool capacity.
+     *
+     * @param animationPanel The panel where the game animation occurs.
+     * @param atlas          The atlas providing the shared sprite paints.
+     */
+    public NodeRenderer(Pane animationPanel, TextureAtlas atlas) {
+        this(animationPanel, atlas, DEFAULT_POOL_CAPACITY);
+    }
+
+    /**
+     * Constructs a renderer drawing into the given panel.
+     *
+     * @param animationPanel The panel where the game animation occurs.
+     * @param atlas          The atlas providing the shared sprite paints.
+     * @param poolCapacity   The maximum number of hidden sprites kept per kind.
+     */
+    public NodeRenderer(Pane animationPanel, TextureAtlas atlas, int poolCapacity) {
+        this.atlas = atlas;
+        this.poolCapacity = poolCapacity;
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new SpritePool();
+            layer.getChildren().add(pools[i].group);
+        }
+        // Index 0 is the background image
+        animationPanel.getChildren().add(1, layer);
+    }
+
+    /**
+     * Syncs the sprite nodes with a snapshot of the world. Each entity is drawn by a pooled sprite whose paint,
+     * position and scale are reset to match the entity, and unused sprites are hidden. Positions are interpolated
+     * between the start and the end of the captured tick.
+     *
+     * @param snapshot The snapshot to render.
+     * @param alpha    The fraction of a tick elapsed since the captured tick, between 0 and 1.
+     */
+    @Override
+    public void render(Snapshot snapshot, double alpha) {
+        for (EntityKind kind : EntityKind.ALL) {
+            SpritePool pool = pools[kind.ordinal()];
+            int start = snapshot.start(kind);
+            int count = snapshot.count(kind);
+
+            for (int i = 0; i < count; i++) {
+                int entity = start + i;
+                Sprite sprite;
+                if (i < pool.sprites.size()) {
+                    sprite = pool.sprites.get(i);
+                } else {
+                    sprite = createSprite(snapshot, entity, kind);
+                    pool.sprites.add(sprite);
+                    pool.group.getChildren().add(sprite);
+                }
+
+                sprite.setFill(atlas.getPaint(snapshot.getImage(entity)));
+                sprite.setTranslateX(snapshot.getX(entity, alpha));
+                sprite.setTranslateY(snapshot.getY(entity, alpha));
+                sprite.setScaleX(snapshot.getScale(entity));
+                sprite.setScaleY(snapshot.getScale(entity));
+                sprite.setVisible(true);
+            }
+
+            // Hide sprites not needed this frame and drop the ones exceeding the capacity
+            int keep = Math.min(pool.sprites.size(), count + poolCapacity);
+            if (keep < pool.sprites.size()) {
+                pool.group.getChildren().remove(keep, pool.sprites.size());
+                pool.sprites.subList(keep, pool.sprites.size()).clear();
+            }
+            for (int i = count; i < keep; i++) {
+                pool.sprites.get(i).setVisible(false);
+            }
+        }
+    }
+
+    /**
+     * Creates a sprite node able to draw entities of the same kind as the given entity. Sprites only draw entities
+     * moved by the simulation, so they are given no speed of their own.
+     *
+     * @param snapshot The snapshot holding the entity.
+     * @param entity   The index of the entity to draw.
+     * @param kind     The kind of the entity.
+     * @return The new sprite.
+     */
+    private Sprite createSprite(Snapshot snapshot, int entity, EntityKind kind) {
+        created++;
+        return new Sprite(snapshot.getX(entity, 1), snapshot.getY(entity, 1), (int) snapshot.getWidth(entity),
+                (int) snapshot.getHeight(entity), kind, atlas.getPaint(snapshot.getImage(entity)), 0);
+    }
+
+    /**
+     * Gets the number of sprite nodes created. Once the pools are warm this stops growing, so comparing it between
+     * two points in time gives the node allocation rate.
+     *
+     * @return The number of sprites created.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * The sprites drawing one kind of entity. The first sprites draw the entities of the kind in order and the
+     * remaining ones are hidden.
+     */
+    private static class SpritePool {
+
+        /**
+         * The group holding the sprites of the pool, in the same order.
+         */
+        private final Group group = new Group();
+
+        /**
+         * Every sprite of the pool.
+         */
+        private final List<Sprite> sprites = new ArrayList<>();
+    }
+}
@@ -0,0 +1,22 @@
+package edu.vanier.spaceinvaders.rendering;
+
+import edu.vanier.spaceinvaders.engine.Snapshot;
+import edu.vanier.spaceinvaders.engine.World;
+
+/**
+ * Draws the entities of a {@link World}, as captured in a {@link Snapshot}, into the animation panel. The labels and overlay text of the panel are not
+ * managed by renderers and always stay on top of the entities.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public interface Renderer {
+
+    /**
+     * Draws a snapshot of the world. Positions are interpolated between the start and the end of the captured tick.
+     *
+     * @param snapshot The snapshot to render.
+     * @param alpha    The fraction of a tick elapsed since the captured tick, between 0 and 1.
+     */
+    void render(Snapshot snapshot, double alpha);
+}
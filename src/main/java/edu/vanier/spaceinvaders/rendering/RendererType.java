@@ -0,0 +1,52 @@
+package edu.vanier.spaceinvaders.rendering;
+
+import javafx.scene.layout.Pane;
+
+/**
+ * The rendering backends that can be selected at launch with {@code --renderer=nodes} or {@code --renderer=canvas}.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public enum RendererType {
+
+    /**
+     * One pooled sprite node per entity, see {@link NodeRenderer}.
+     */
+    NODES {
+        @Override
+        public Renderer create(Pane animationPanel, TextureAtlas atlas) {
+            return new NodeRenderer(animationPanel, atlas);
+        }
+    },
+
+    /**
+     * Every entity drawn in one pass onto a single canvas, see {@link CanvasRenderer}.
+     */
+    CANVAS {
+        @Override
+        public Renderer create(Pane animationPanel, TextureAtlas atlas) {
+            return new CanvasRenderer(animationPanel, atlas);
+        }
+    };
+
+    /**
+     * Creates a renderer of this type drawing into the given panel.
+     *
+     * @param animationPanel The panel where the game animation occurs.
+     * @param atlas          The atlas providing the sprite images.
+     * @return The new renderer.
+     */
+    public abstract Renderer create(Pane animationPanel, TextureAtlas atlas);
+
+    /**
+     * Gets the renderer type with the given name, ignoring case.
+     *
+     * @param name The name of the type, such as "canvas".
+     * @return The matching renderer type.
+     * @throws IllegalArgumentException If no type has the given name.
+     */
+    public static RendererType parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,169 @@
+package edu.vanier.spaceinvaders.rendering;
+
+import edu.vanier.spaceinvaders.utils.Resources;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.image.Image;
+import javafx.scene.paint.ImagePattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the decoded sprite images of the game so that each PNG under {@code /images} is decoded exactly once.
+ * {@link #preload()} decodes every image and {@link #preload(Collection)} the images of a level, possibly on a
+ * background thread while the game is drawn; {@link #getPaint(String)} then hands out shared paints. Hits and misses
+ * of the rendering thread are counted so that decodes happening mid-game can be detected.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class TextureAtlas {
+
+    /**
+     * The logger for the atlas.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TextureAtlas.class);
+
+    /**
+     * The classpath directory holding the images.
+     */
+    private static final String DIRECTORY = "/images";
+
+    /**
+     * The decoded images, keyed by file name without extension.
+     */
+    private final Map<String, Image> images = new ConcurrentHashMap<>();
+
+    /**
+     * The shared paints, keyed by file name without extension.
+     */
+    private final Map<String, ImagePattern> paints = new ConcurrentHashMap<>();
+
+    /**
+     * The number of lookups served from the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of lookups that had to decode an image.
+     */
+    private long misses = 0;
+
+    /**
+     * Decodes every PNG image found under {@code /images}. If the directory cannot be listed, images are decoded
+     * lazily on first use instead.
+     */
+    public void preload() {
+        long start = System.nanoTime();
+        try {
+            for (String name : Resources.list(DIRECTORY, ".png")) {
+                load(name);
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not list images, they will be loaded lazily: {}", ex.getMessage());
+        }
+        logger.info("Preloaded {} images in {} ms", images.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Decodes the images with the given names that are not cached yet. Safe to call from a background thread while
+     * the rendering thread reads the atlas.
+     *
+     * @param names The names of the images, without directory or extension.
+     */
+    public void preload(Collection<String> names) {
+        for (String name : names) {
+            load(name);
+        }
+    }
+
+    /**
+     * Checks if the image with the given name is decoded.
+     *
+     * @param name The name of the image, without directory or extension.
+     * @return True if the image is cached, false otherwise.
+     */
+    public boolean contains(String name) {
+        return paints.containsKey(name);
+    }
+
+    /**
+     * Gets the decoded image with the given name, decoding it if it is not cached yet.
+     *
+     * @param name The name of the image, without directory or extension.
+     * @return The decoded image.
+     */
+    public Image getImage(String name) {
+        Image image = images.get(name);
+        if (image == null) {
+            misses++;
+            return load(name).getImage();
+        }
+        hits++;
+        return image;
+    }
+
+    /**
+     * Gets the shared paint drawing the image with the given name, decoding it if it is not cached yet.
+     *
+     * @param name The name of the image, without directory or extension.
+     * @return The paint drawing the image.
+     */
+    public ImagePattern getPaint(String name) {
+        ImagePattern paint = paints.get(name);
+        if (paint == null) {
+            misses++;
+            return load(name);
+        }
+        hits++;
+        return paint;
+    }
+
+    /**
+     * Gets the paint of the image with the given name, decoding the image and caching it along with its paint if
+     * needed. An image requested by two threads at once is decoded once, the second thread waiting for the first.
+     *
+     * @param name The name of the image, without directory or extension.
+     * @return The paint drawing the image.
+     */
+    private ImagePattern load(String name) {
+        return paints.computeIfAbsent(name, key -> {
+            Image image = new Image(String.format("%s/%s.png", DIRECTORY, key));
+            if (image.isError()) {
+                logger.warn("Could not decode image {}", key);
+            }
+            images.put(key, image);
+            return new ImagePattern(image);
+        });
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to decode an image. This stays at zero during the game when every image
+     * was preloaded.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of decoded images held by the atlas.
+     *
+     * @return The number of cached images.
+     */
+    public int size() {
+        return images.size();
+    }
+}
@@ -0,0 +1,57 @@
+package edu.vanier.spaceinvaders.utils;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the number of bytes allocated on the heap by the current thread, using the HotSpot extension of the thread
+ * management bean. On JVMs without that extension the meter reports zero.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public final class AllocationMeter {
+
+    /**
+     * The HotSpot thread bean, or null if the JVM does not provide one.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = loadThreadBean();
+
+    /**
+     * Prevents instantiation of the utility class.
+     */
+    private AllocationMeter() {
+    }
+
+    /**
+     * Gets the HotSpot thread bean and enables allocation measurement on it.
+     *
+     * @return The thread bean, or null if allocation measurement is not supported.
+     */
+    private static com.sun.management.ThreadMXBean loadThreadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if allocations can be measured on this JVM.
+     *
+     * @return True if allocations are measured, false otherwise.
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Gets the total number of bytes allocated by the current thread since it started. Subtracting two readings
+     * gives the bytes allocated in between.
+     *
+     * @return The number of bytes allocated, or zero if not supported.
+     */
+    public static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
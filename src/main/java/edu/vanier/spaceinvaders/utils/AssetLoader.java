@@ -0,0 +1,129 @@
+package edu.vanier.spaceinvaders.utils;
+
+import edu.vanier.spaceinvaders.audio.SoundEngine;
+import edu.vanier.spaceinvaders.engine.World;
+import edu.vanier.spaceinvaders.rendering.TextureAtlas;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the images and sounds of each level on a background thread, so that neither startup nor level transitions
+ * wait for decoding. The first level is loaded behind the splash screen, and each following level is loaded while
+ * the previous one is played. Every level is loaded at most once; asking again returns the same pending or completed
+ * load.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class AssetLoader {
+
+    /**
+     * The logger for the asset loader.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AssetLoader.class);
+
+    /**
+     * The atlas receiving the decoded images.
+     */
+    private final TextureAtlas atlas;
+
+    /**
+     * The sound engine receiving the loaded clips.
+     */
+    private final SoundEngine sounds;
+
+    /**
+     * The thread loading the assets.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "asset-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The load of each level, keyed by level. Levels beyond {@link World#MAX_LEVEL} share the load of that level.
+     */
+    private final Map<Integer, CompletableFuture<Void>> levels = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a loader filling the given atlas and sound engine.
+     *
+     * @param atlas  The atlas receiving the decoded images.
+     * @param sounds The sound engine receiving the loaded clips.
+     */
+    public AssetLoader(TextureAtlas atlas, SoundEngine sounds) {
+        this.atlas = atlas;
+        this.sounds = sounds;
+    }
+
+    /**
+     * Starts loading the assets of a level in the background, unless they are already loaded or being loaded.
+     *
+     * @param level The level.
+     * @return The load of the level, completed once its assets are cached.
+     */
+    public CompletableFuture<Void> loadLevel(int level) {
+        return loadLevel(level, progress -> {
+        });
+    }
+
+    /**
+     * Starts loading the assets of a level in the background, reporting the progress after each asset. The progress
+     * is only reported if this call starts the load.
+     *
+     * @param level    The level.
+     * @param progress The callback receiving the fraction of the assets loaded, between 0 and 1, on the loader thread.
+     * @return The load of the level, completed once its assets are cached.
+     */
+    public CompletableFuture<Void> loadLevel(int level, DoubleConsumer progress) {
+        // Levels beyond the last one reuse its assets
+        int key = Math.min(level, World.MAX_LEVEL);
+        return levels.computeIfAbsent(key, l -> {
+            CompletableFuture<Void> load = CompletableFuture.runAsync(() -> load(l, progress), executor);
+            load.whenComplete((result, ex) -> {
+                if (ex != null) {
+                    logger.warn("Could not load the assets of level {}, they will be loaded lazily", l, ex);
+                }
+            });
+            return load;
+        });
+    }
+
+    /**
+     * Loads the images and sounds of a level one by one.
+     *
+     * @param level    The level.
+     * @param progress The callback receiving the fraction of the assets loaded.
+     */
+    private void load(int level, DoubleConsumer progress) {
+        long start = System.nanoTime();
+        List<String> images = World.getImages(level);
+        List<String> clips = World.getSounds(level);
+        int total = images.size() + clips.size();
+        int done = 0;
+        for (String image : images) {
+            atlas.preload(List.of(image));
+            progress.accept(++done / (double) total);
+        }
+        for (String clip : clips) {
+            sounds.preload(List.of(clip));
+            progress.accept(++done / (double) total);
+        }
+        logger.info("Loaded the assets of level {} in {} ms", level, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Stops the loader thread, abandoning the loads not started yet.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
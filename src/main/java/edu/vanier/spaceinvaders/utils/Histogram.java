@@ -0,0 +1,105 @@
+package edu.vanier.spaceinvaders.utils;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-resolution histogram of durations. Values are counted in buckets of equal width, so recording a value is
+ * constant time and never allocates; values beyond the last bucket are counted in it. Percentiles are accurate to the
+ * width of a bucket, and the exact maximum is tracked separately.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public class Histogram {
+
+    /**
+     * The width of a bucket in nanoseconds.
+     */
+    private final long bucketNanos;
+
+    /**
+     * The number of values counted in each bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * The number of values recorded.
+     */
+    private long count = 0;
+
+    /**
+     * The largest value recorded, in nanoseconds.
+     */
+    private long max = 0;
+
+    /**
+     * Constructs a histogram covering durations from zero to {@code bucketNanos * buckets}.
+     *
+     * @param bucketNanos The width of a bucket in nanoseconds.
+     * @param buckets     The number of buckets.
+     */
+    public Histogram(long bucketNanos, int buckets) {
+        this.bucketNanos = bucketNanos;
+        this.counts = new long[buckets];
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        int bucket = (int) Math.min(Math.max(nanos, 0) / bucketNanos, counts.length - 1);
+        counts[bucket]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    /**
+     * Gets the duration below which the given fraction of the recorded values fall.
+     *
+     * @param fraction The fraction, such as 0.5 for the median or 0.99 for the 99th percentile.
+     * @return The upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min((i + 1) * bucketNanos, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return The maximum in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,73 @@
+package edu.vanier.spaceinvaders.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Utility methods for listing the game assets bundled on the classpath, whether the application runs from the build
+ * directory or from a packaged jar.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+public final class Resources {
+
+    /**
+     * Prevents instantiation of the utility class.
+     */
+    private Resources() {
+    }
+
+    /**
+     * Lists the names of the files with the given extension in a classpath directory.
+     *
+     * @param directory The classpath directory, such as {@code /images}.
+     * @param extension The file extension including the dot, such as {@code .png}.
+     * @return The file names without directory or extension.
+     * @throws IOException If the directory does not exist or cannot be listed.
+     */
+    public static List<String> list(String directory, String extension) throws IOException {
+        URL url = Resources.class.getResource(directory);
+        if (url == null) {
+            throw new IOException("Resource directory " + directory + " not found");
+        }
+        try {
+            URI uri = url.toURI();
+            if (uri.getScheme().equals("jar")) {
+                try (FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+                    return list(fs.getPath(directory), extension);
+                }
+            }
+            return list(Path.of(uri), extension);
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Lists the names of the files with the given extension in a directory.
+     *
+     * @param directory The directory to list.
+     * @param extension The file extension including the dot.
+     * @return The file names without directory or extension.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private static List<String> list(Path directory, String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(file -> file.endsWith(extension))
+                    .map(file -> file.substring(0, file.length() - extension.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
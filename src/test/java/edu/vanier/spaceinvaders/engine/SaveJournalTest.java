@@ -0,0 +1,413 @@
+package edu.vanier.spaceinvaders.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the saves and high scores of a {@link SaveJournal} survive reopening it, torn records and compactions
+ * interrupted at any stage.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+class SaveJournalTest {
+
+    /**
+     * The number of bytes of the header of a journal.
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * The size past which the journals compacted by the tests are compacted.
+     */
+    private static final int COMPACT_BYTES = 64 << 10;
+
+    /**
+     * The directory holding the journals.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The path of the journal under test.
+     */
+    private Path path;
+
+    /**
+     * The world saved, played a little between saves.
+     */
+    private final World world = new World();
+
+    /**
+     * Starts a new game and names the journal.
+     */
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("saves.journal");
+        world.restart();
+    }
+
+    /**
+     * Checks that saves and high scores are read back when the journal is opened again.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void savesAndHighScoresSurviveReopening() throws IOException {
+        byte[][] states = new byte[3][];
+        try (SaveJournal journal = new SaveJournal(path)) {
+            for (int i = 0; i < states.length; i++) {
+                play(30);
+                states[i] = state(world);
+                journal.save(world);
+            }
+            assertEquals(0, journal.recordScore(new HighScore(100, 2, false, 1)));
+            assertEquals(0, journal.recordScore(new HighScore(300, 4, true, 2)));
+            assertEquals(2, journal.recordScore(new HighScore(50, 1, false, 3)));
+        }
+
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(3, journal.getSaveCount());
+            assertScores(journal.getHighScores(), 300, 100, 50);
+            for (int back = 0; back < states.length; back++) {
+                assertRestores(journal, back, states[states.length - 1 - back]);
+            }
+            assertFalse(journal.restore(new World(), states.length));
+        }
+    }
+
+    /**
+     * Checks that a record whose checksum does not match is dropped with everything after it, and that its space is
+     * reused by the next record.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void corruptRecordIsDropped() throws IOException {
+        int torn;
+        byte[] kept;
+        try (SaveJournal journal = new SaveJournal(path)) {
+            play(30);
+            kept = state(world);
+            journal.save(world);
+            torn = journal.getSize();
+            play(30);
+            journal.save(world);
+            journal.recordScore(new HighScore(100, 2, false, 1));
+        }
+        // Flip a byte of the payload of the second save
+        flip(path, torn + 40);
+
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(1, journal.getSaveCount());
+            assertEquals(torn, journal.getSize());
+            assertTrue(journal.getHighScores().isEmpty());
+            assertRestores(journal, 0, kept);
+            journal.recordScore(new HighScore(200, 3, false, 2));
+        }
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(1, journal.getSaveCount());
+            assertScores(journal.getHighScores(), 200);
+        }
+    }
+
+    /**
+     * Checks that a record torn before its length was written is never read, even though its payload and checksum
+     * are complete, since the length is written last.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void recordWithoutItsLengthIsDropped() throws IOException {
+        int torn;
+        try (SaveJournal journal = new SaveJournal(path)) {
+            journal.recordScore(new HighScore(100, 2, false, 1));
+            torn = journal.getSize();
+            journal.recordScore(new HighScore(200, 3, false, 2));
+        }
+        write(path, torn, ByteBuffer.allocate(4));
+
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(torn, journal.getSize());
+            assertScores(journal.getHighScores(), 100);
+        }
+    }
+
+    /**
+     * Checks that a journal growing past its size of compaction keeps its latest save and its high scores only.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void compactionKeepsTheLatestSaveAndHighScores() throws IOException {
+        byte[] latest;
+        int compacted;
+        try (SaveJournal journal = new SaveJournal(path, COMPACT_BYTES)) {
+            journal.recordScore(new HighScore(100, 2, false, 1));
+            int largest = 0;
+            for (int i = 0; i < 200; i++) {
+                play(5);
+                journal.save(world);
+                largest = Math.max(largest, journal.getSize());
+            }
+            journal.recordScore(new HighScore(200, 3, false, 2));
+            latest = state(world);
+            assertTrue(journal.getSaveCount() < 200, journal.getSaveCount() + " saves");
+            assertTrue(largest < 2 * COMPACT_BYTES + 4 * world.getSaveSize(), largest + " bytes");
+            compacted = journal.getSize();
+        }
+
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(compacted, journal.getSize());
+            assertScores(journal.getHighScores(), 200, 100);
+            assertRestores(journal, 0, latest);
+        }
+    }
+
+    /**
+     * Checks that a compaction killed while writing the compacted records leaves the journal as it was.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void compactionKilledWhileWritingIsDiscarded() throws IOException {
+        Journal before = fill();
+        Path tmp = directory.resolve("saves.journal.tmp");
+        Files.write(tmp, new byte[] {1, 2, 3});
+
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(before.saves, journal.getSaveCount());
+            assertEquals(before.size, journal.getSize());
+            assertScores(journal.getHighScores(), 200, 100);
+            assertRestores(journal, 0, before.latest);
+        }
+        assertFalse(Files.exists(tmp));
+    }
+
+    /**
+     * Checks that a compaction killed once its records are complete, before they were copied over the journal, is
+     * finished when the journal is opened.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void compactionKilledBeforeCopyingIsFinished() throws IOException {
+        Journal before = fill();
+        Files.write(directory.resolve("saves.journal.compact"), compacted(before));
+        assertCompacted(before);
+    }
+
+    /**
+     * Checks that a compaction killed while copying its records over the journal is finished when the journal is
+     * opened.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void compactionKilledWhileCopyingIsFinished() throws IOException {
+        Journal before = fill();
+        byte[] records = compacted(before);
+        Files.write(directory.resolve("saves.journal.compact"), records);
+        write(path, 0, ByteBuffer.wrap(records, 0, records.length / 2));
+        assertCompacted(before);
+    }
+
+    /**
+     * Checks that a compaction killed after copying its records, before deleting them, is finished when the journal
+     * is opened.
+     *
+     * @throws IOException If the journal cannot be used.
+     */
+    @Test
+    void compactionKilledAfterCopyingIsFinished() throws IOException {
+        Journal before = fill();
+        byte[] records = compacted(before);
+        Files.write(directory.resolve("saves.journal.compact"), records);
+        write(path, 0, ByteBuffer.wrap(records));
+        assertCompacted(before);
+    }
+
+    /**
+     * A journal filled by a test, as it was when closed.
+     */
+    private static class Journal {
+
+        /**
+         * The number of saves and the size of the records.
+         */
+        int saves;
+        int size;
+
+        /**
+         * The state of the latest save.
+         */
+        byte[] latest;
+    }
+
+    /**
+     * Fills the journal with saves and two high scores, then closes it.
+     *
+     * @return The journal as it was closed.
+     * @throws IOException If the journal cannot be used.
+     */
+    private Journal fill() throws IOException {
+        Journal filled = new Journal();
+        try (SaveJournal journal = new SaveJournal(path)) {
+            journal.recordScore(new HighScore(100, 2, false, 1));
+            for (int i = 0; i < 5; i++) {
+                play(20);
+                journal.save(world);
+            }
+            journal.recordScore(new HighScore(200, 3, false, 2));
+            filled.saves = journal.getSaveCount();
+            filled.size = journal.getSize();
+            filled.latest = state(world);
+        }
+        return filled;
+    }
+
+    /**
+     * Builds the records the compaction of the filled journal writes, by compacting a copy of it.
+     *
+     * @param filled The filled journal.
+     * @return The compacted records, up to and including the empty length after the last record.
+     * @throws IOException If the copy cannot be compacted.
+     */
+    private byte[] compacted(Journal filled) throws IOException {
+        Path copy = directory.resolve("copy").resolve("saves.journal");
+        Files.createDirectories(copy.getParent());
+        Files.copy(path, copy);
+        int size;
+        try (SaveJournal journal = new SaveJournal(copy, HEADER_BYTES)) {
+            assertEquals(1, journal.getSaveCount());
+            assertTrue(journal.getSize() < filled.size);
+            size = journal.getSize();
+        }
+        byte[] records = new byte[size + 4];
+        System.arraycopy(Files.readAllBytes(copy), 0, records, 0, records.length);
+        return records;
+    }
+
+    /**
+     * Opens the journal and checks that it holds the compacted records of the filled journal, and that nothing is
+     * left of the compaction.
+     *
+     * @param before The filled journal.
+     * @throws IOException If the journal cannot be used.
+     */
+    private void assertCompacted(Journal before) throws IOException {
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(1, journal.getSaveCount());
+            assertTrue(journal.getSize() < before.size);
+            assertScores(journal.getHighScores(), 200, 100);
+            assertRestores(journal, 0, before.latest);
+        }
+        assertFalse(Files.exists(directory.resolve("saves.journal.compact")));
+        assertFalse(Files.exists(directory.resolve("saves.journal.tmp")));
+
+        // Saves after the compaction follow its records
+        try (SaveJournal journal = new SaveJournal(path)) {
+            play(10);
+            journal.save(world);
+        }
+        try (SaveJournal journal = new SaveJournal(path)) {
+            assertEquals(2, journal.getSaveCount());
+            assertRestores(journal, 0, state(world));
+            assertRestores(journal, 1, before.latest);
+        }
+    }
+
+    /**
+     * Plays the world for a number of ticks with the spaceship shooting.
+     *
+     * @param ticks The number of ticks.
+     */
+    private void play(int ticks) {
+        for (int i = 0; i < ticks && !world.isGameOver(); i++) {
+            world.setInput(0, Input.SHOOT | Input.LEFT);
+            world.tick(World.FRAME);
+        }
+    }
+
+    /**
+     * Writes the state of a world to an array so that states can be compared.
+     *
+     * @param world The world.
+     * @return The saved state.
+     */
+    private static byte[] state(World world) {
+        ByteBuffer out = ByteBuffer.allocate(world.getSaveSize());
+        world.save(out);
+        byte[] bytes = new byte[out.position()];
+        out.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Checks that a save of the journal restores a world to the given state.
+     *
+     * @param journal  The journal.
+     * @param back     The number of saves to go back past the latest.
+     * @param expected The state saved.
+     */
+    private static void assertRestores(SaveJournal journal, int back, byte[] expected) {
+        World restored = new World();
+        assertTrue(journal.restore(restored, back));
+        assertArrayEquals(expected, state(restored), "save " + back);
+    }
+
+    /**
+     * Checks the scores of the high-score table.
+     *
+     * @param highScores The high-score table.
+     * @param expected   The scores expected, best first.
+     */
+    private static void assertScores(List<HighScore> highScores, int... expected) {
+        assertArrayEquals(expected, highScores.stream().mapToInt(HighScore::getScore).toArray());
+    }
+
+    /**
+     * Inverts the bits of one byte of a file.
+     *
+     * @param file     The file.
+     * @param position The position of the byte.
+     * @throws IOException If the file cannot be changed.
+     */
+    private static void flip(Path file, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) ~b.get(0));
+            channel.write(b.flip(), position);
+        }
+    }
+
+    /**
+     * Overwrites part of a file.
+     *
+     * @param file     The file.
+     * @param position The position to write at.
+     * @param bytes    The bytes to write, from their position to their limit.
+     * @throws IOException If the file cannot be changed.
+     */
+    private static void write(Path file, int position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+        }
+    }
+}
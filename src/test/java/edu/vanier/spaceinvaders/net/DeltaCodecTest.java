@@ -0,0 +1,379 @@
+package edu.vanier.spaceinvaders.net;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.vanier.spaceinvaders.engine.Input;
+import edu.vanier.spaceinvaders.engine.World;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the states encoded by the {@link DeltaCodec} decode back to the states they were made from.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+class DeltaCodecTest {
+
+    /**
+     * The codec under test.
+     */
+    private final DeltaCodec codec = new DeltaCodec();
+
+    /**
+     * Checks that a state sent whole decodes without an older state.
+     */
+    @Test
+    void fullStateRoundTrips() {
+        WorldState current = state(7, 4);
+        put(current, 0, 1, 10, 20);
+        put(current, 2, 3, 30, 40);
+
+        ByteBuffer encoded = codec.encode(null, current);
+        assertEquals(-1, DeltaCodec.peekBase(encoded));
+        assertSame(current, decode(null, encoded, new WorldState()));
+    }
+
+    /**
+     * Checks that a difference sends only the fields that changed and decodes to the newer state.
+     */
+    @Test
+    void movedEntitySendsOnlyItsPosition() {
+        WorldState base = state(1, 64);
+        for (int h = 0; h < 64; h++) {
+            put(base, h, 2, h, h);
+        }
+        WorldState current = copy(base, 2);
+        current.y[5] -= 4;
+        current.score = 30;
+
+        int full = codec.encode(null, current).remaining();
+        ByteBuffer encoded = codec.encode(base, current);
+        assertEquals(1, DeltaCodec.peekBase(encoded));
+        // One handle gap, one mask and one float besides the header
+        assertTrue(encoded.remaining() < full / 10, "delta of " + encoded.remaining() + " bytes");
+        assertSame(current, decode(base, encoded, new WorldState()));
+    }
+
+    /**
+     * Checks that entities handles past the end of the older state are sent whole.
+     */
+    @Test
+    void spawnedEntityGrowsTheState() {
+        WorldState base = state(1, 2);
+        put(base, 0, 1, 1, 1);
+        WorldState current = state(2, 6);
+        put(current, 0, 1, 1, 1);
+        put(current, 5, 4, 50, 60);
+
+        assertSame(current, decode(base, codec.encode(base, current), new WorldState()));
+    }
+
+    /**
+     * Checks that an entity gone since the older state is sent as removed.
+     */
+    @Test
+    void despawnedEntityIsRemoved() {
+        WorldState base = state(1, 3);
+        put(base, 0, 1, 1, 1);
+        put(base, 1, 1, 2, 2);
+        put(base, 2, 1, 3, 3);
+        WorldState current = copy(base, 2);
+        current.kinds[1] = 0;
+
+        WorldState decoded = decode(base, codec.encode(base, current), new WorldState());
+        assertSame(current, decoded);
+        assertEquals(0, decoded.kinds[1]);
+    }
+
+    /**
+     * Checks that a handle reused by an entity of another kind sends the new entity whole.
+     */
+    @Test
+    void reusedHandleSendsTheNewEntity() {
+        WorldState base = state(1, 2);
+        put(base, 1, 2, 5, 5);
+        WorldState current = copy(base, 2);
+        put(current, 1, 3, 5, 5);
+        current.images[1] = 7;
+
+        WorldState decoded = decode(base, codec.encode(base, current), new WorldState());
+        assertSame(current, decoded);
+        assertEquals(3, decoded.kinds[1]);
+        assertEquals(7, decoded.images[1]);
+    }
+
+    /**
+     * Checks that a state with fewer handles than the older one removes the handles past its end.
+     */
+    @Test
+    void shrinkingHighWaterRemovesTrailingHandles() {
+        WorldState base = state(1, 8);
+        for (int h = 0; h < 8; h++) {
+            put(base, h, 1, h, h);
+        }
+        WorldState current = state(2, 3);
+        for (int h = 0; h < 3; h++) {
+            put(current, h, 1, h, h);
+        }
+
+        WorldState decoded = decode(base, codec.encode(base, current), new WorldState());
+        assertSame(current, decoded);
+
+        // Growing again must not bring back the entities past the old end
+        decoded.resize(8);
+        for (int h = 3; h < 8; h++) {
+            assertEquals(0, decoded.kinds[h]);
+        }
+    }
+
+    /**
+     * Checks that decoding into a state that held a larger one leaves nothing of it behind.
+     */
+    @Test
+    void decodeOverwritesAReusedState() {
+        WorldState stale = state(3, 10);
+        for (int h = 0; h < 10; h++) {
+            put(stale, h, 2, h, h);
+        }
+        WorldState current = state(40, 2);
+        put(current, 1, 1, 1, 1);
+
+        assertSame(current, decode(null, codec.encode(null, current), stale));
+    }
+
+    /**
+     * Checks that a client keeping states by sequence number modulo {@link ServerSession#HISTORY} finds the base of
+     * every difference, as long as the base is no older than the history.
+     */
+    @Test
+    void basesAreFoundBySequenceModuloHistory() {
+        WorldState[] sent = new WorldState[ServerSession.HISTORY];
+        WorldState[] received = new WorldState[ServerSession.HISTORY];
+        int lag = ServerSession.HISTORY - 1;
+        for (int sequence = 0; sequence < 4 * ServerSession.HISTORY; sequence++) {
+            WorldState current = state(sequence, 1 + sequence % 5);
+            for (int h = 0; h < current.size; h++) {
+                put(current, h, 1 + (sequence + h) % 3, sequence, h);
+            }
+            sent[sequence % sent.length] = current;
+
+            int base = sequence - lag;
+            WorldState baseState = base < 0 ? null : sent[base % sent.length];
+            ByteBuffer encoded = codec.encode(baseState, current);
+            int peeked = DeltaCodec.peekBase(encoded);
+            WorldState receivedBase = peeked < 0 ? null : received[peeked % received.length];
+            WorldState out = received[sequence % received.length];
+            if (out == null) {
+                out = new WorldState();
+                received[sequence % received.length] = out;
+            }
+            assertSame(current, decode(receivedBase, encoded, out));
+        }
+    }
+
+    /**
+     * Checks that the states captured from a game being played, with bullets spawning and dying and their handles
+     * reused, decode to the states captured.
+     */
+    @Test
+    void capturedGameRoundTrips() {
+        World world = new World();
+        world.restart();
+        WorldState[] sent = new WorldState[ServerSession.HISTORY];
+        WorldState[] received = new WorldState[ServerSession.HISTORY];
+        for (int i = 0; i < sent.length; i++) {
+            sent[i] = new WorldState();
+            received[i] = new WorldState();
+        }
+        int handles = 0;
+        for (int sequence = 0; sequence < 1200 && !world.isGameOver(); sequence++) {
+            world.setInput(0, Input.SHOOT | (sequence / 60 % 2 == 0 ? Input.LEFT : Input.RIGHT));
+            world.tick(World.FRAME);
+            WorldState current = sent[sequence % sent.length];
+            current.capture(world, sequence, sequence + 1);
+            handles = Math.max(handles, current.size);
+
+            // A client acknowledging every third state
+            int base = sequence - sequence % 3 - 3;
+            WorldState baseState = base < 0 ? null : sent[base % sent.length];
+            ByteBuffer encoded = codec.encode(baseState, current);
+            WorldState receivedBase = base < 0 ? null : received[base % received.length];
+            assertSame(current, decode(receivedBase, encoded, received[sequence % received.length]));
+        }
+        assertTrue(handles > 0);
+    }
+
+    /**
+     * Checks that a difference from a state the receiver no longer has is refused.
+     */
+    @Test
+    void decodeRejectsAnOverwrittenBase() {
+        WorldState base = state(3, 1);
+        put(base, 0, 1, 0, 0);
+        WorldState current = copy(base, 4);
+        ByteBuffer encoded = codec.encode(base, current);
+
+        WorldState overwritten = copy(base, 3 + ServerSession.HISTORY);
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.decode(overwritten, encoded, new WorldState()));
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.decode(null, encoded.rewind(),
+                new WorldState()));
+    }
+
+    /**
+     * Checks that numbers round trip through the variable length encoding in the expected number of bytes.
+     */
+    @Test
+    void varIntsRoundTrip() {
+        int[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1};
+        int[] lengths = {1, 1, 1, 2, 2, 3, 5, 5};
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        for (int i = 0; i < values.length; i++) {
+            buffer.clear();
+            DeltaCodec.putVarInt(buffer, values[i]);
+            assertEquals(lengths[i], buffer.position(), "length of " + values[i]);
+            buffer.flip();
+            assertEquals(values[i], DeltaCodec.getVarInt(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    /**
+     * Checks that malformed states are refused instead of being read past their end.
+     */
+    @Test
+    void malformedInputIsRejected() {
+        byte[] endless = new byte[16];
+        Arrays.fill(endless, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.getVarInt(ByteBuffer.wrap(endless)));
+        assertThrows(BufferUnderflowException.class,
+                () -> DeltaCodec.getVarInt(ByteBuffer.wrap(new byte[] {(byte) 0x80})));
+
+        WorldState current = state(1, 4);
+        put(current, 3, 1, 1, 1);
+        ByteBuffer encoded = codec.encode(null, current);
+        ByteBuffer truncated = ByteBuffer.allocate(encoded.remaining() - 1);
+        truncated.put(encoded.duplicate().limit(encoded.limit() - 1)).flip();
+        assertThrows(BufferUnderflowException.class, () -> DeltaCodec.decode(null, truncated, new WorldState()));
+
+        // The only entity points past the handles the state claims to have
+        ByteBuffer corrupt = ByteBuffer.allocate(encoded.remaining()).put(encoded.duplicate()).flip();
+        int sizeAt = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 1 + 4 + 4;
+        assertEquals(4, corrupt.get(sizeAt));
+        corrupt.put(sizeAt, (byte) 2);
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.decode(null, corrupt, new WorldState()));
+
+        // A size that decodes negative
+        corrupt.rewind();
+        ByteBuffer negative = ByteBuffer.allocate(corrupt.remaining() + 4);
+        negative.put(corrupt.duplicate().limit(sizeAt)).put(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+            (byte) 0xFF, 0x0F}).put(corrupt.duplicate().position(sizeAt + 1)).flip();
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.decode(null, negative, new WorldState()));
+    }
+
+    /**
+     * Creates a state with no entities.
+     *
+     * @param sequence The number of the state.
+     * @param size     The number of handles.
+     * @return The state.
+     */
+    private static WorldState state(int sequence, int size) {
+        WorldState state = new WorldState();
+        state.resize(size);
+        state.sequence = sequence;
+        state.ticks = 100L * sequence;
+        state.levelStarts = 1;
+        state.score = 10;
+        state.lives = 3;
+        state.level = 1;
+        state.offsetX = 1.5f;
+        state.offsetY = -2.5f;
+        return state;
+    }
+
+    /**
+     * Copies a state under a new sequence number.
+     *
+     * @param other    The state to copy.
+     * @param sequence The number of the copy.
+     * @return The copy.
+     */
+    private static WorldState copy(WorldState other, int sequence) {
+        WorldState state = new WorldState();
+        state.copyFrom(other);
+        state.sequence = sequence;
+        return state;
+    }
+
+    /**
+     * Places an entity in a state.
+     *
+     * @param state The state.
+     * @param h     The handle of the entity.
+     * @param kind  The kind of the entity, plus one.
+     * @param x     The x-coordinate of the entity.
+     * @param y     The y-coordinate of the entity.
+     */
+    private static void put(WorldState state, int h, int kind, float x, float y) {
+        state.kinds[h] = (byte) kind;
+        state.images[h] = (short) kind;
+        state.x[h] = x;
+        state.y[h] = y;
+        state.width[h] = 8 * kind;
+        state.height[h] = 4 * kind;
+        state.scale[h] = 1;
+    }
+
+    /**
+     * Decodes a state and checks that the whole of the encoded state was read.
+     *
+     * @param base    The older state, or null.
+     * @param encoded The encoded state.
+     * @param out     The state receiving the result.
+     * @return The decoded state.
+     */
+    private static WorldState decode(WorldState base, ByteBuffer encoded, WorldState out) {
+        DeltaCodec.decode(base, encoded, out);
+        assertFalse(encoded.hasRemaining());
+        return out;
+    }
+
+    /**
+     * Checks that two states describe the same game and the same entities.
+     *
+     * @param expected The state sent.
+     * @param actual   The state decoded.
+     */
+    private static void assertSame(WorldState expected, WorldState actual) {
+        assertEquals(expected.sequence, actual.sequence);
+        assertEquals(expected.ticks, actual.ticks);
+        assertEquals(expected.levelStarts, actual.levelStarts);
+        assertEquals(expected.score, actual.score);
+        assertEquals(expected.lives, actual.lives);
+        assertEquals(expected.level, actual.level);
+        assertEquals(expected.gameOver, actual.gameOver);
+        assertEquals(expected.won, actual.won);
+        assertEquals(expected.offsetX, actual.offsetX);
+        assertEquals(expected.offsetY, actual.offsetY);
+        assertEquals(expected.size, actual.size);
+        assertArrayEquals(Arrays.copyOf(expected.kinds, expected.size), Arrays.copyOf(actual.kinds, actual.size));
+        for (int h = 0; h < expected.size; h++) {
+            if (expected.kinds[h] == 0) {
+                continue;
+            }
+            assertEquals(expected.images[h], actual.images[h], "image of " + h);
+            assertEquals(expected.x[h], actual.x[h], "x of " + h);
+            assertEquals(expected.y[h], actual.y[h], "y of " + h);
+            assertEquals(expected.width[h], actual.width[h], "width of " + h);
+            assertEquals(expected.height[h], actual.height[h], "height of " + h);
+            assertEquals(expected.scale[h], actual.scale[h], "scale of " + h);
+        }
+    }
+}
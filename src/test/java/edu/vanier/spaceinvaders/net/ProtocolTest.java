@@ -0,0 +1,86 @@
+package edu.vanier.spaceinvaders.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the reading of the frames of the {@link Protocol}.
+ *
+ * @author Ethan Tran
+ * @author Zachary Tremblay
+ */
+class ProtocolTest {
+
+    /**
+     * Checks that consecutive frames are read one at a time into the same buffer.
+     *
+     * @throws IOException If a frame cannot be read.
+     */
+    @Test
+    void framesAreReadWhole() throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        bytes.putInt(6).put(Protocol.WELCOME).putInt(3).put((byte) 1);
+        bytes.putInt(1).put(Protocol.REJECT);
+        ReadableByteChannel channel = channel(bytes.flip());
+
+        ByteBuffer frame = Protocol.readFrame(channel, null);
+        assertEquals(6, frame.remaining());
+        assertEquals(Protocol.WELCOME, frame.get());
+        assertEquals(3, frame.getInt());
+        assertEquals(1, frame.get());
+
+        ByteBuffer next = Protocol.readFrame(channel, frame);
+        assertSame(frame, next);
+        assertEquals(1, next.remaining());
+        assertEquals(Protocol.REJECT, next.get());
+        assertThrows(EOFException.class, () -> Protocol.readFrame(channel, next));
+    }
+
+    /**
+     * Checks that a frame larger than the buffer given is read into a larger buffer.
+     *
+     * @throws IOException If the frame cannot be read.
+     */
+    @Test
+    void largeFrameGrowsTheBuffer() throws IOException {
+        int size = 10_000;
+        ByteBuffer bytes = ByteBuffer.allocate(4 + size).putInt(size).put(Protocol.STATE);
+        bytes.position(bytes.limit());
+        ByteBuffer frame = Protocol.readFrame(channel(bytes.flip()), ByteBuffer.allocate(16));
+        assertEquals(size, frame.remaining());
+    }
+
+    /**
+     * Checks that frames with an empty, negative or huge length and frames cut short are refused.
+     */
+    @Test
+    void invalidFramesAreRejected() {
+        for (int length : new int[] {0, -1, Protocol.MAX_FRAME + 1}) {
+            ByteBuffer bytes = ByteBuffer.allocate(8).putInt(length).put(Protocol.STATE).flip();
+            assertThrows(IOException.class, () -> Protocol.readFrame(channel(bytes), null), "length " + length);
+        }
+        ByteBuffer cut = ByteBuffer.allocate(9).putInt(6).put(Protocol.WELCOME).putInt(3).flip();
+        assertThrows(EOFException.class, () -> Protocol.readFrame(channel(cut), null));
+    }
+
+    /**
+     * Creates a blocking channel reading the given bytes.
+     *
+     * @param bytes The bytes, from their position to their limit.
+     * @return The channel.
+     */
+    private static ReadableByteChannel channel(ByteBuffer bytes) {
+        byte[] array = new byte[bytes.remaining()];
+        bytes.get(array);
+        return Channels.newChannel(new ByteArrayInputStream(array));
+    }
+}